@@ -2,6 +2,11 @@ package com.springboot.backend.userapp.users_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.springboot.backend.userapp.users_backend.aot.UsersRuntimeHints;
 
 // 4. UsersBackendApplication
 // La clase principal que inicia la aplicación Spring Boot.
@@ -9,7 +14,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 // PROPOSITO:
 // Es el punto de entrada de la aplicación. Al ejecutar el método main, se lanza el servidor embebido y la configuración de Spring Boot.
 
-@SpringBootApplication
+// El pool R2DBC de la API reactiva lo crea ReactiveUserConfig: sin estas autoconfiguraciones,
+// Spring Boot registraría otro ConnectionFactory que tomaría el relevo de la inicialización SQL
+// y un gestor de transacciones reactivo junto al de JPA.
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
+// Pistas de reflexión y recursos para la imagen nativa (mvn -Pnative package)
+@ImportRuntimeHints(UsersRuntimeHints.class)
 public class UsersBackendApplication {
 
 	public static void main(String[] args) {
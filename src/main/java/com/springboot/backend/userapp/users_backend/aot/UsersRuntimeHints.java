@@ -0,0 +1,96 @@
+package com.springboot.backend.userapp.users_backend.aot;
+
+import java.util.List;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.springboot.backend.userapp.users_backend.audit.AuditEntry;
+import com.springboot.backend.userapp.users_backend.audit.AuditPage;
+import com.springboot.backend.userapp.users_backend.auth.SimpleGrantedAuthorityJsonCreator;
+import com.springboot.backend.userapp.users_backend.entities.ImportJob;
+import com.springboot.backend.userapp.users_backend.entities.ImportRowError;
+import com.springboot.backend.userapp.users_backend.entities.Role;
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.logging.SamplingTurboFilter;
+import com.springboot.backend.userapp.users_backend.models.LoginCredentials;
+import com.springboot.backend.userapp.users_backend.models.SparseUser;
+import com.springboot.backend.userapp.users_backend.models.UserPatchRequest;
+import com.springboot.backend.userapp.users_backend.models.UserRequest;
+import com.springboot.backend.userapp.users_backend.sharding.ShardedUserIdGenerator;
+
+// Pistas para la imagen nativa (perfil native del pom.xml).
+
+// PUNTOS CLAVE:
+// En una imagen nativa la reflexión solo funciona sobre lo registrado en tiempo de compilación.
+// Spring AOT deduce la mayoría de tipos (beans, entidades, firmas de los controladores), pero no:
+// - los tipos que Jackson lee o escribe fuera de los controladores (filtros JWT, respuestas
+//   asíncronas de los bulkheads, importación NDJSON),
+// - el mix-in SimpleGrantedAuthorityJsonCreator,
+// - SamplingTurboFilter, que logback crea y configura por reflexión desde logback-spring.xml,
+// - las clases de jjwt-impl, que jjwt-api instancia por nombre (Classes.newInstance),
+// - los ficheros META-INF/services con los que jjwt busca su serializador JSON,
+// - jfr/users.jfc, que se lee del classpath al arrancar la grabación.
+public class UsersRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Implementaciones que jjwt-api carga por nombre (jjwt-impl y jjwt-jackson son runtime).
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Tipos que se (de)serializan con Jackson: propiedades, constructores y anotaciones.
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                User.class, Role.class, UserRequest.class, UserPatchRequest.class, LoginCredentials.class,
+                ImportJob.class, ImportRowError.class, SimpleGrantedAuthority.class,
+                AuditPage.class, AuditEntry.class);
+
+        // El mix-in solo aporta su constructor anotado con @JsonCreator.
+        hints.reflection().registerType(SimpleGrantedAuthorityJsonCreator.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+
+        // SparseUser se escribe con su propio serializador (@JsonSerialize(using = ...)).
+        hints.reflection().registerType(SparseUser.Serializer.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(SparseUser.class, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+
+        // Hibernate crea el generador del id de User (@GenericGenerator) por reflexión.
+        hints.reflection().registerType(ShardedUserIdGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // logback instancia el filtro por su nombre en logback-spring.xml y llama a sus setters.
+        hints.reflection().registerType(SamplingTurboFilter.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        // Configuración de la grabación JFR continua (JfrConfig).
+        hints.resources().registerPattern("jfr/users.jfc");
+    }
+}
@@ -0,0 +1,29 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+// Operación auditada. El código es el byte que se guarda en el fichero: no reordenar.
+public enum AuditAction {
+
+    CREATED((byte) 1),
+    UPDATED((byte) 2),
+    DELETED((byte) 3);
+
+    private final byte code;
+
+    AuditAction(byte code) {
+        this.code = code;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    // null si el código no corresponde a ninguna operación (registro dañado).
+    static AuditAction of(byte code) {
+        for (AuditAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+import java.io.IOException;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Abre el log de auditoría en users.audit.directory y lo cierra (vaciando la cola) al parar.
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    @Bean(destroyMethod = "close")
+    AuditLog auditLog(AuditProperties properties, MeterRegistry registry) throws IOException {
+        return new AuditLog(properties, registry);
+    }
+}
@@ -0,0 +1,7 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+import java.time.Instant;
+
+// Un registro del log de auditoría: quién (principal) hizo qué (action) sobre qué usuario y cuándo.
+public record AuditEntry(Instant timestamp, AuditAction action, Long userId, String principal) {
+}
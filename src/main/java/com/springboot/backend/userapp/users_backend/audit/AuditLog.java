@@ -0,0 +1,303 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Log de auditoría de los cambios de usuarios: quién cambió qué usuario y cuándo.
+
+// PROPOSITO:
+// Dejar constancia de cada alta, modificación y baja sin añadir un INSERT a la transacción
+// de la operación (doblaría su latencia).
+
+// PUNTOS CLAVE:
+// - record() solo encola; un único hilo escritor añade los registros a segmentos mapeados en
+//   memoria (AuditSegment) y rota al llenarse uno.
+// - Al ser el único que escribe, el escritor no necesita bloqueos ni para los ficheros ni para
+//   el índice.
+// - Índice disperso: en memoria solo se guarda la posición del último registro de cada usuario;
+//   cada registro apunta al anterior del mismo usuario. El historial se recorre hacia atrás
+//   sin leer los registros de otros usuarios. Al arrancar se reconstruye leyendo los segmentos.
+// - Ningún registro se descarta por falta de sitio. Cada registro ocupa un hueco de la cola
+//   (queue-capacity) que se reserva antes del commit (reserve); si la cola está llena se espera
+//   hasta enqueue-timeout y, si sigue llena, se lanza AuditUnavailableException y la operación
+//   se deshace. Así un escritor de disco lento frena las escrituras en lugar de perder auditoría.
+// - Retención: con max-segments = 0 (por defecto) no se borra nada. Con un límite, al rotar se
+//   borran los segmentos más antiguos y se avisa en el log; el historial queda acotado a
+//   max-segments × segment-size.
+// - La política de fsync (AuditProperties.FsyncPolicy) decide cuánto se puede perder si cae la máquina.
+public class AuditLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    // Espera máxima del escritor con la cola vacía (también el margen para el fsync por intervalo).
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final AuditProperties.FsyncPolicy fsync;
+
+    private final long fsyncIntervalNanos;
+
+    private final long enqueueTimeoutNanos;
+
+    // Huecos libres de la cola: se toman en reserve() y los devuelve el escritor al sacar cada registro.
+    private final Semaphore slots;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final ConcurrentNavigableMap<Long, AuditSegment> segments = new ConcurrentSkipListMap<>();
+
+    // userId -> posición de su último registro.
+    private final Map<Long, Long> heads = new ConcurrentHashMap<>();
+
+    // Registros que no se han podido escribir en disco (error de E/S).
+    private final Counter failed;
+
+    private final Counter rejected;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    // Solo los usa el hilo escritor.
+    private AuditSegment active;
+
+    private boolean dirty;
+
+    private long lastForce = System.nanoTime();
+
+    public AuditLog(AuditProperties properties, MeterRegistry registry) throws IOException {
+        this.directory = Path.of(properties.getDirectory());
+        // Entre 64 KB (caben cientos de registros) y 2 GB (desplazamiento de 31 bits).
+        this.segmentSize = (int) Math.min(Math.max(properties.getSegmentSize().toBytes(), 64 * 1024),
+                Integer.MAX_VALUE);
+        // 0 o negativo: sin límite.
+        this.maxSegments = properties.getMaxSegments() > 0 ? properties.getMaxSegments() : Integer.MAX_VALUE;
+        this.fsync = properties.getFsync();
+        this.fsyncIntervalNanos = properties.getFsyncInterval().toNanos();
+        this.enqueueTimeoutNanos = properties.getEnqueueTimeout().toNanos();
+        this.slots = new Semaphore(Math.max(properties.getQueueCapacity(), 1));
+        this.failed = registry.counter("users.audit.failed");
+        this.rejected = registry.counter("users.audit.rejected");
+        registry.gauge("users.audit.queued", queued);
+
+        Files.createDirectories(directory);
+        recover();
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Reserva un hueco en la cola para un registro que se hará después con recordReserved.
+    // Espera como mucho enqueue-timeout; si la cola sigue llena lanza AuditUnavailableException.
+    public void reserve() {
+        reserve(1);
+    }
+
+    // Reserva count huecos de una vez (una transacción que cambia varios usuarios, como un lote
+    // de la importación). count no puede superar queue-capacity o no se conseguirá nunca.
+    public void reserve(int count) {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(count, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new AuditUnavailableException(TimeUnit.NANOSECONDS.toMillis(enqueueTimeoutNanos));
+        }
+    }
+
+    // Devuelve un hueco reservado que no se va a usar (la transacción acabó en rollback).
+    public void cancelReservation() {
+        cancelReservation(1);
+    }
+
+    public void cancelReservation(int count) {
+        slots.release(count);
+    }
+
+    // Encola un registro en un hueco ya reservado; principal suele ser currentPrincipal() del
+    // hilo que hizo el cambio.
+    public void recordReserved(AuditAction action, long userId, String principal) {
+        queued.incrementAndGet();
+        queue.offer(new Pending(System.currentTimeMillis(), action, userId, principal));
+        LockSupport.unpark(writer);
+    }
+
+    // reserve() + recordReserved(): para cambios hechos fuera de una transacción.
+    public void record(AuditAction action, long userId, String principal) {
+        reserve();
+        recordReserved(action, userId, principal);
+    }
+
+    // Historial de un usuario del más reciente al más antiguo. cursor es el next de la página
+    // anterior (null para empezar por el último cambio).
+    public AuditPage history(long userId, Long cursor, int limit) {
+        List<AuditEntry> entries = new ArrayList<>(Math.min(limit, 100));
+        Long start = cursor != null ? cursor : heads.get(userId);
+        long position = start != null ? start : -1;
+        while (position >= 0 && entries.size() < limit) {
+            AuditSegment segment = segments.get(AuditSegment.segmentOf(position));
+            // Segmento ya borrado por la retención o cursor inválido: el historial termina aquí.
+            AuditSegment.Record record = segment != null ? segment.read(AuditSegment.offsetOf(position)) : null;
+            if (record == null || record.entry().userId() != userId) {
+                position = -1;
+                break;
+            }
+            entries.add(record.entry());
+            position = record.previous();
+        }
+        return new AuditPage(entries, position >= 0 ? position : null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (AuditSegment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            Pending pending = queue.poll();
+            if (pending == null) {
+                // Cola vacía: con ALWAYS se fuerza lo escrito en esta ráfaga.
+                if (dirty && fsync == AuditProperties.FsyncPolicy.ALWAYS) {
+                    force();
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            } else {
+                queued.decrementAndGet();
+                slots.release();
+                try {
+                    append(pending);
+                } catch (IOException | RuntimeException e) {
+                    failed.increment();
+                    log.error("No se ha podido escribir el registro de auditoría de {}", pending.userId(), e);
+                }
+            }
+            if (dirty && fsync == AuditProperties.FsyncPolicy.INTERVAL
+                    && System.nanoTime() - lastForce >= fsyncIntervalNanos) {
+                force();
+            }
+        }
+        if (dirty && fsync != AuditProperties.FsyncPolicy.NEVER) {
+            force();
+        }
+    }
+
+    private void append(Pending pending) throws IOException {
+        byte[] principal = AuditSegment.encodePrincipal(pending.principal());
+        int size = AuditSegment.recordSize(principal);
+        if (!active.fits(size)) {
+            rotate();
+        }
+        long previous = heads.getOrDefault(pending.userId(), -1L);
+        long position = active.append(pending.timestamp(), pending.userId(), previous, pending.action(), principal);
+        // Tras escribir el registro: quien lea la nueva cabeza ya ve sus bytes.
+        heads.put(pending.userId(), position);
+        dirty = true;
+    }
+
+    private void rotate() throws IOException {
+        if (dirty && fsync != AuditProperties.FsyncPolicy.NEVER) {
+            force();
+        }
+        long id = active.id() + 1;
+        active = AuditSegment.open(segmentFile(id), id, segmentSize);
+        segments.put(id, active);
+        while (segments.size() > maxSegments) {
+            AuditSegment oldest = segments.pollFirstEntry().getValue();
+            long oldestId = oldest.id();
+            log.warn("Retención de auditoría (max-segments={}): se borra el segmento {}", maxSegments, oldest.file());
+            // Usuarios cuyo último cambio estaba en el segmento borrado: ya no tienen historial.
+            heads.values().removeIf(position -> AuditSegment.segmentOf(position) <= oldestId);
+            oldest.delete();
+        }
+    }
+
+    private void force() {
+        active.force();
+        dirty = false;
+        lastForce = System.nanoTime();
+    }
+
+    // Abre los segmentos existentes, reconstruye el índice y deja el último listo para escribir.
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().matches("audit-\\d{16}\\.log"))
+                    .sorted()
+                    .toList();
+        }
+        int end = 0;
+        for (Path file : files) {
+            long id = Long.parseLong(file.getFileName().toString().substring(6, 22));
+            AuditSegment segment = AuditSegment.open(file, id, segmentSize);
+            int offset = 0;
+            AuditSegment.Record record;
+            while ((record = segment.read(offset)) != null) {
+                heads.put(record.entry().userId(), AuditSegment.position(id, offset));
+                offset = record.nextOffset();
+            }
+            end = offset;
+            segments.put(id, segment);
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, AuditSegment.open(segmentFile(0), 0, segmentSize));
+        }
+        active = segments.lastEntry().getValue();
+        // Solo el último segmento puede tener una escritura interrumpida.
+        active.recover(end);
+    }
+
+    private Path segmentFile(long id) {
+        return directory.resolve(String.format("audit-%016d.log", id));
+    }
+
+    // Usuario autenticado del hilo actual (SecurityContextHolder) o "anonymous".
+    public static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private record Pending(long timestamp, AuditAction action, long userId, String principal) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+import java.util.List;
+
+// Página del historial de un usuario, del cambio más reciente al más antiguo.
+// next es el cursor de la página siguiente (null si no hay más).
+public record AuditPage(List<AuditEntry> entries, Long next) {
+}
@@ -0,0 +1,97 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+// Configuración del log de auditoría (users.audit.*).
+@ConfigurationProperties(prefix = "users.audit")
+public class AuditProperties {
+
+    // Cuándo se fuerza a disco lo escrito en los ficheros mapeados.
+    // NEVER: lo decide el sistema operativo (se pierde lo reciente si cae la máquina, no el proceso).
+    // INTERVAL: como mucho cada fsync-interval.
+    // ALWAYS: cada vez que el escritor vacía la cola (un fsync por ráfaga, no por registro).
+    public enum FsyncPolicy {
+        NEVER,
+        INTERVAL,
+        ALWAYS
+    }
+
+    private String directory = "audit";
+
+    // Tamaño de cada segmento; al llenarse se pasa al siguiente.
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    // Segmentos que se conservan. 0 = todos: la auditoría no se borra nunca y el disco necesario
+    // crece con los cambios (se archiva o purga fuera de la aplicación). Con un límite, los más
+    // antiguos se borran al rotar y solo queda el historial de los últimos max-segments × segment-size.
+    private int maxSegments = 0;
+
+    private FsyncPolicy fsync = FsyncPolicy.INTERVAL;
+
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+
+    // Registros pendientes de escribir. Si se llena, las operaciones esperan hasta enqueue-timeout
+    // a que haya sitio y después fallan (AuditUnavailableException); nunca se descartan registros.
+    private int queueCapacity = 65_536;
+
+    private Duration enqueueTimeout = Duration.ofSeconds(1);
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public FsyncPolicy getFsync() {
+        return fsync;
+    }
+
+    public void setFsync(FsyncPolicy fsync) {
+        this.fsync = fsync;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    public void setFsyncInterval(Duration fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getEnqueueTimeout() {
+        return enqueueTimeout;
+    }
+
+    public void setEnqueueTimeout(Duration enqueueTimeout) {
+        this.enqueueTimeout = enqueueTimeout;
+    }
+}
@@ -0,0 +1,189 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+// Un segmento del log de auditoría: un fichero de tamaño fijo mapeado en memoria.
+
+// Formato de cada registro (big endian):
+//   int    longitud del cuerpo (0 = fin de los datos del segmento)
+//   long   timestamp (epoch ms)
+//   long   userId
+//   long   posición del registro anterior del mismo usuario (-1 si es el primero)
+//   byte   AuditAction
+//   short  longitud del principal en UTF-8, seguido de sus bytes
+//   int    CRC32C del cuerpo
+// El fichero se crea lleno de ceros, así el primer hueco sin escribir marca el final.
+// El CRC descarta un registro escrito a medias si el proceso o la máquina caen.
+final class AuditSegment {
+
+    static final int HEADER = Integer.BYTES;
+
+    // timestamp + userId + anterior + action + longitud del principal
+    private static final int FIXED_BODY = Long.BYTES * 3 + 1 + Short.BYTES;
+
+    static final int MAX_PRINCIPAL_BYTES = 256;
+
+    private final long id;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    // Solo lo modifica el hilo escritor.
+    private int writePosition;
+
+    private AuditSegment(long id, Path file, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static AuditSegment open(Path file, long id, int size) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Un segmento ya existente conserva su tamaño aunque haya cambiado la configuración.
+        long length = Math.max(channel.size(), size);
+        return new AuditSegment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+    }
+
+    long id() {
+        return id;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    // Posición global de un registro: id del segmento en los 32 bits altos y desplazamiento en los bajos.
+    static long position(long segmentId, int offset) {
+        return (segmentId << 32) | offset;
+    }
+
+    static long segmentOf(long position) {
+        return position >>> 32;
+    }
+
+    static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    static byte[] encodePrincipal(String principal) {
+        byte[] bytes = principal.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_PRINCIPAL_BYTES) {
+            return bytes;
+        }
+        byte[] truncated = new byte[MAX_PRINCIPAL_BYTES];
+        System.arraycopy(bytes, 0, truncated, 0, MAX_PRINCIPAL_BYTES);
+        return truncated;
+    }
+
+    static int recordSize(byte[] principal) {
+        return HEADER + FIXED_BODY + principal.length + Integer.BYTES;
+    }
+
+    boolean fits(int recordSize) {
+        // Siempre queda sitio para el 0 que marca el final.
+        return writePosition + recordSize + HEADER <= buffer.capacity();
+    }
+
+    // Escribe el registro en la posición actual y devuelve su posición global. Solo desde el hilo escritor.
+    long append(long timestamp, long userId, long previous, AuditAction action, byte[] principal) {
+        int offset = writePosition;
+        int bodyLength = FIXED_BODY + principal.length;
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset + HEADER);
+        body.putLong(timestamp);
+        body.putLong(userId);
+        body.putLong(previous);
+        body.put(action.code());
+        body.putShort((short) principal.length);
+        body.put(principal);
+        body.putInt(crc(offset + HEADER, bodyLength));
+        // La longitud se escribe la última: un lector nunca ve un registro a medias con longitud válida.
+        buffer.putInt(offset, bodyLength);
+        writePosition = offset + HEADER + bodyLength + Integer.BYTES;
+        return position(id, offset);
+    }
+
+    // Registro en offset, o null si no hay uno válido (final de los datos, hueco o registro dañado).
+    Record read(int offset) {
+        if (offset < 0 || offset + HEADER > buffer.capacity()) {
+            return null;
+        }
+        int bodyLength = buffer.getInt(offset);
+        int end = offset + HEADER + bodyLength + Integer.BYTES;
+        if (bodyLength < FIXED_BODY || bodyLength > FIXED_BODY + MAX_PRINCIPAL_BYTES || end > buffer.capacity()) {
+            return null;
+        }
+        if (buffer.getInt(end - Integer.BYTES) != crc(offset + HEADER, bodyLength)) {
+            return null;
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset + HEADER);
+        long timestamp = body.getLong();
+        long userId = body.getLong();
+        long previous = body.getLong();
+        AuditAction action = AuditAction.of(body.get());
+        int principalLength = body.getShort();
+        if (action == null || principalLength != bodyLength - FIXED_BODY) {
+            return null;
+        }
+        byte[] principal = new byte[principalLength];
+        body.get(principal);
+        AuditEntry entry = new AuditEntry(Instant.ofEpochMilli(timestamp), action, userId,
+                new String(principal, StandardCharsets.UTF_8));
+        return new Record(entry, previous, end);
+    }
+
+    // Al abrir un segmento existente: coloca la escritura tras el último registro válido y
+    // borra lo que haya detrás (restos de una escritura interrumpida).
+    void recover(int end) {
+        writePosition = end;
+        for (int i = end; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    private int crc(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset).limit(offset + length);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    // Registro leído: la entrada, el registro anterior del mismo usuario y dónde empieza el siguiente.
+    record Record(AuditEntry entry, long previous, int nextOffset) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+// La cola del log de auditoría sigue llena tras esperar enqueue-timeout.
+// Se lanza antes del commit, así que la operación auditada se deshace: un cambio nunca queda
+// confirmado sin su registro. Se responde con 503 y Retry-After, igual que un bulkhead saturado.
+// Sin stack trace: bajo sobrecarga se crean muchas y no aportan nada.
+public class AuditUnavailableException extends RuntimeException {
+
+    public AuditUnavailableException(long waitedMillis) {
+        super("Log de auditoría saturado (sin sitio en la cola tras " + waitedMillis + " ms)", null, false, false);
+    }
+}
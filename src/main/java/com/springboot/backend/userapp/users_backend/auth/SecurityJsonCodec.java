@@ -0,0 +1,127 @@
+package com.springboot.backend.userapp.users_backend.auth;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.springboot.backend.userapp.users_backend.models.LoginCredentials;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static com.springboot.backend.userapp.users_backend.auth.TokenJwtConfig.*;
+
+// Lectura y escritura de JSON para los filtros de seguridad.
+
+// PROPOSITO:
+// Los filtros creaban un ObjectMapper nuevo en cada petición (y en cada error), pagando cada vez
+// su construcción y el calentamiento de sus cachés. Aquí se crean una sola vez lectores y escritores
+// ya configurados; ObjectReader y ObjectWriter son inmutables y se pueden compartir entre hilos.
+
+// PUNTOS CLAVE:
+// Las credenciales del login se leen en un record mínimo (LoginCredentials), no en la entidad User.
+// El cuerpo del login tiene un tamaño máximo (MAX_LOGIN_BODY_BYTES): se rechaza por Content-Length
+// y, si no viene, el propio parser deja de leer al superarlo.
+// Las respuestas se escriben directamente en el OutputStream de la respuesta, sin pasar por un String.
+@Component
+public class SecurityJsonCodec {
+
+    public static final int MAX_LOGIN_BODY_BYTES = 4 * 1024;
+
+    private final ObjectReader credentialsReader;
+
+    private final ObjectReader authoritiesReader;
+
+    private final ObjectWriter authoritiesWriter;
+
+    private final ObjectWriter jsonWriter;
+
+    private final ObjectWriter cborWriter;
+
+    public SecurityJsonCodec() {
+        JsonFactory loginFactory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder().maxDocumentLength(MAX_LOGIN_BODY_BYTES).build())
+                .build();
+        this.credentialsReader = new ObjectMapper(loginFactory).readerFor(LoginCredentials.class);
+
+        ObjectMapper mapper = new ObjectMapper()
+                .addMixIn(SimpleGrantedAuthority.class, SimpleGrantedAuthorityJsonCreator.class);
+        this.authoritiesReader = mapper.readerFor(SimpleGrantedAuthority[].class);
+        this.authoritiesWriter = mapper.writer();
+        // Sin AUTO_CLOSE_TARGET: el contenedor de servlets es quien cierra el stream de la respuesta.
+        this.jsonWriter = mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.cborWriter = new CBORMapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public LoginCredentials readCredentials(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > MAX_LOGIN_BODY_BYTES) {
+            throw new StreamConstraintsException(
+                    "El cuerpo del login supera el máximo de " + MAX_LOGIN_BODY_BYTES + " bytes");
+        }
+        return credentialsReader.readValue(request.getInputStream());
+    }
+
+    // Roles del usuario como JSON, para guardarlos en el claim "authorities" del token.
+    public String writeAuthorities(Collection<? extends GrantedAuthority> authorities) throws IOException {
+        return authoritiesWriter.writeValueAsString(authorities);
+    }
+
+    public List<SimpleGrantedAuthority> readAuthorities(String authorities) throws IOException {
+        return Arrays.asList(authoritiesReader.<SimpleGrantedAuthority[]>readValue(authorities));
+    }
+
+    // Escribe el cuerpo en JSON, o en CBOR si el cliente lo prefiere (ver prefersCbor).
+    public void write(HttpServletRequest request, HttpServletResponse response, int status, Object body)
+            throws IOException {
+        boolean cbor = prefersCbor(request.getHeader(HttpHeaders.ACCEPT));
+        response.setStatus(status);
+        response.setContentType(cbor ? CONTENT_TYPE_CBOR : CONTENT_TYPE);
+        (cbor ? cborWriter : jsonWriter).writeValue(response.getOutputStream(), body);
+    }
+
+    // Negociación como la de los controladores (BinaryFormatsConfig): los tipos del Accept se
+    // ordenan por calidad (q) y especificidad y gana el primero que admite JSON o CBOR (*/* o
+    // application/* admiten JSON). q=0 excluye el tipo y un Accept mal formado se responde en JSON.
+    static boolean prefersCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            return false;
+        }
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
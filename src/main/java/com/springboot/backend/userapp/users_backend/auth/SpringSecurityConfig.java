@@ -20,7 +20,11 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import jakarta.servlet.DispatcherType;
+
 import com.springboot.backend.userapp.users_backend.auth.filter.JwtAuthenticationFilter;
+import com.springboot.backend.userapp.users_backend.bulkhead.Bulkheads;
+import com.springboot.backend.userapp.users_backend.jfr.RecordingPasswordEncoder;
 import com.springboot.backend.userapp.users_backend.auth.filter.JwtValidationFilter;
 
 // 2. SpringSecurityConfig
@@ -42,6 +46,14 @@ public class SpringSecurityConfig {
     @Autowired
     private AuthenticationConfiguration authenticationConfiguration;
 
+    // Lectores y escritores de JSON compartidos por los filtros JWT.
+    @Autowired
+    private SecurityJsonCodec securityJsonCodec;
+
+    // El login (BCrypt) se ejecuta en su propio bulkhead.
+    @Autowired
+    private Bulkheads bulkheads;
+
     // Define un bean que proporciona un gestor de autenticación (AuthenticationManager).
     // Este componente gestiona cómo los usuarios son autenticados.
     @Bean //Para registrar manualmente componentes específicos en el contexto de Spring.
@@ -54,7 +66,8 @@ public class SpringSecurityConfig {
     // Este es un estándar robusto para almacenar contraseñas de forma segura.
     @Bean //Para registrar manualmente componentes específicos en el contexto de Spring.
     PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+        // Cada llamada a BCrypt emite un evento JFR (users.PasswordHash).
+        return new RecordingPasswordEncoder(new BCryptPasswordEncoder());
     }
 
     // Define el filtro de seguridad para manejar cómo las solicitudes HTTP son procesadas.
@@ -65,10 +78,24 @@ public class SpringSecurityConfig {
         //authorizeHttpRequests metodo de HttpSecurity
         return http.authorizeHttpRequests(authz -> 
             authz
-            .requestMatchers(HttpMethod.GET, "/api/users","/api/users/page/{page}").permitAll()
+            // Las peticiones asíncronas (bulkheads, SSE) ya se autorizaron en su primer despacho;
+            // al volver a despacharse para escribir la respuesta no hay que comprobarlas otra vez.
+            .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+            .requestMatchers(HttpMethod.GET, "/api/users","/api/users/page/{page}","/api/users/events").permitAll()
+            // Antes que /api/users/{id}: el formulario de alta lo consulta sin sesión.
+            .requestMatchers(HttpMethod.GET, "/api/users/availability").permitAll()
+            // Sondas de liveness/readiness (sin token)
+            .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**").permitAll()
+            .requestMatchers(HttpMethod.GET,"/api/users/import/{jobId}").hasRole("ADMIN")
+            .requestMatchers(HttpMethod.POST,"/api/users/import").hasRole("ADMIN")
+            .requestMatchers(HttpMethod.GET,"/api/users/{id}/audit").hasRole("ADMIN")
             .requestMatchers(HttpMethod.GET,"/api/users/{id}").hasAnyRole("USER","ADMIN")
+            // API de lectura reactiva: mismas reglas que sus equivalentes de /api/users.
+            .requestMatchers(HttpMethod.GET, "/reactive/api/users", "/reactive/api/users/page/{page}").permitAll()
+            .requestMatchers(HttpMethod.GET, "/reactive/api/users/{id}").hasAnyRole("USER","ADMIN")
             .requestMatchers(HttpMethod.POST,"/api/users").hasRole("ADMIN")
             .requestMatchers(HttpMethod.PUT,"/api/users/{id}").hasRole("ADMIN")
+            .requestMatchers(HttpMethod.PATCH,"/api/users/{id}").hasRole("ADMIN")
             .requestMatchers(HttpMethod.DELETE,"/api/users/{id}").hasRole("ADMIN")
             //  Bloquear todas las demas solicitudes sin autenticación.
             .anyRequest().authenticated())
@@ -78,8 +105,8 @@ public class SpringSecurityConfig {
             //(o cualquier otra URL configurada por defecto en UsernamePasswordAuthenticationFilter).
             //Inyecta el AuthenticationManager en el filtro. El AuthenticationManager es necesario 
             //para validar las credenciales del usuario durante la autenticación.
-            .addFilter(new JwtAuthenticationFilter(authenticationManager()))
-            .addFilter(new JwtValidationFilter(authenticationManager()))
+            .addFilter(new JwtAuthenticationFilter(authenticationManager(), securityJsonCodec, bulkheads.login()))
+            .addFilter(new JwtValidationFilter(authenticationManager(), securityJsonCodec))
             // Desactiva CSRF, ya que no es necesario para una API REST
             .csrf(config -> config.disable())
             // Configura la gestión de sesiones como "sin estado" (stateless), ideal para APIs REST
@@ -99,11 +126,11 @@ public class SpringSecurityConfig {
         // Esto es más restrictivo que el anterior (el * permite todos los dominios)
         config.setAllowedOrigins(Arrays.asList("http://localhost:4200"));
         // Especifica los métodos HTTP que se permiten en las solicitudes
-        config.setAllowedMethods(Arrays.asList("POST", "GET", "PUT", "DELETE"));
+        config.setAllowedMethods(Arrays.asList("POST", "GET", "PUT", "PATCH", "DELETE"));
     
         // Especifica qué cabeceras se permiten en las solicitudes
         // 'Authorization' es necesario para enviar tokens de autenticación, y 'Content-Type' para especificar el tipo de contenido de la solicitud
-        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));   
+        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Last-Event-ID"));   
         // Permite el uso de credenciales (cookies, cabeceras de autenticación, etc.)
         config.setAllowCredentials(true);
         // Crea una fuente de configuración de CORS basada en URLs
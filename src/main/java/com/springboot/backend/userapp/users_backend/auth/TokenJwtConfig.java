@@ -13,6 +13,8 @@ public class TokenJwtConfig {
     public static final String PREFIX_TOKEN = "Bearer ";
 
     public static final String CONTENT_TYPE= "application/json";
+
+    public static final String CONTENT_TYPE_CBOR = "application/cbor";
 }
 
 
@@ -1,22 +1,34 @@
 package com.springboot.backend.userapp.users_backend.auth.filter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.http.HttpHeaders;
 
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import com.fasterxml.jackson.core.exc.StreamReadException;
 import com.fasterxml.jackson.databind.DatabindException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.auth.SecurityJsonCodec;
+import com.springboot.backend.userapp.users_backend.bulkhead.Bulkhead;
+import com.springboot.backend.userapp.users_backend.bulkhead.BulkheadRejectedException;
+import com.springboot.backend.userapp.users_backend.jfr.AuthenticationAttemptEvent;
+import com.springboot.backend.userapp.users_backend.jfr.TokenIssuedEvent;
+import com.springboot.backend.userapp.users_backend.jfr.UserNameHash;
+import com.springboot.backend.userapp.users_backend.limiter.ConcurrencyLimitExceededException;
+import com.springboot.backend.userapp.users_backend.logging.RateLimitedLogger;
+import com.springboot.backend.userapp.users_backend.models.LoginCredentials;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -52,13 +64,27 @@ import static com.springboot.backend.userapp.users_backend.auth.TokenJwtConfig.*
 
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
+    // Los fallos de login se registran con límite: como mucho 20 de cada tipo por minuto.
+    private static final RateLimitedLogger AUTH_LOG = new RateLimitedLogger(JwtAuthenticationFilter.class, 20,
+            Duration.ofMinutes(1));
+
     // 1. Atributo: Este es el AuthenticationManager que se utilizará para autenticar al usuario.
     //AuthenticationManager se utiliza cuando hay que autenticar.
     private AuthenticationManager authenticationManager;
 
+    // Lectores y escritores de JSON compartidos (no se crea un ObjectMapper por petición).
+    private SecurityJsonCodec codec;
+
+    // Bulkhead del login: BCrypt se ejecuta en hilos propios con un límite de concurrencia,
+    // así una avalancha de logins no ocupa la CPU que necesitan el resto de endpoints.
+    private Bulkhead bulkhead;
+
     // 2. Constructor: Este constructor recibe el AuthenticationManager y lo asigna al atributo.
-    public JwtAuthenticationFilter(AuthenticationManager authenticationManager) {
+    public JwtAuthenticationFilter(AuthenticationManager authenticationManager, SecurityJsonCodec codec,
+            Bulkhead bulkhead) {
         this.authenticationManager = authenticationManager;
+        this.codec = codec;
+        this.bulkhead = bulkhead;
     }
 
     // 3. attemptAuthentication: Este es el método más importante. Se ejecuta cuando se recibe una solicitud de autenticación.
@@ -67,29 +93,63 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response)
             throws AuthenticationException {
 
+        // Evento JFR con la duración del intento completo (lectura, bulkhead y BCrypt).
+        AuthenticationAttemptEvent event = new AuthenticationAttemptEvent();
+        event.begin();
+        String outcome = "FAILED";
+
         String userName = null;
         String password = null;
 
         // 4. Intentamos leer el cuerpo de la solicitud HTTP, que contiene el nombre de
         // usuario y la contraseña enviados en formato JSON.
         try {
-            // Usamos ObjectMapper para deserializar el cuerpo de la solicitud en un objeto User.
-            User user = new ObjectMapper().readValue(request.getInputStream(), User.class);
-            userName = user.getUserName(); // Extraemos el nombre de usuario del objeto User.
-            password = user.getPassword(); // Extraemos la contraseña del objeto User.
+            // Deserializamos el cuerpo de la solicitud en un record con solo las credenciales.
+            LoginCredentials credentials = codec.readCredentials(request);
+            userName = credentials.userName(); // Extraemos el nombre de usuario.
+            password = credentials.password(); // Extraemos la contraseña.
+        } catch (StreamConstraintsException e) {
+            // Cuerpo más grande de lo permitido: no seguimos leyéndolo.
+            AUTH_LOG.warn("login-too-large", "Cuerpo de login demasiado grande: {}", e.getOriginalMessage());
         } catch (StreamReadException e) {
-            e.printStackTrace(); // Manejo de excepciones específicas de lectura del stream de datos.
+            // JSON mal formado. Solo registramos el mensaje: el stack trace no aporta nada
+            // y escribirlo en cada petición maliciosa bloquearía el hilo.
+            AUTH_LOG.warn("login-malformed", "Cuerpo de login mal formado: {}", e.getOriginalMessage());
         } catch (DatabindException e) {
-            e.printStackTrace(); // Manejo de excepciones al procesar el mapeo de datos JSON a la clase User.
+            // JSON válido que no encaja con LoginCredentials.
+            AUTH_LOG.warn("login-unmappable", "Cuerpo de login no válido: {}", e.getOriginalMessage());
         } catch (IOException e) {
-            e.printStackTrace(); // Manejo de excepciones generales relacionadas con entrada/salida.
+            // Errores generales de entrada/salida (cliente que corta la conexión, etc.).
+            AUTH_LOG.warn("login-io", "Error leyendo el cuerpo del login: {}", e.getMessage());
         }
 
         // 5. Creamos un token de autenticación con las credenciales extraídas (nombre de usuario y contraseña).
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userName,password);
         // 6. Usamos el AuthenticationManager para autenticar al usuario con el token de autenticación creado anteriormente.
         // Esto verificará las credenciales contra las implementaciones de autenticación configuradas.
-        return this.authenticationManager.authenticate(authenticationToken);
+        try {
+            Authentication authentication = bulkhead.call(() -> this.authenticationManager.authenticate(authenticationToken));
+            outcome = "SUCCESS";
+            return authentication;
+        } catch (BulkheadRejectedException e) {
+            outcome = "REJECTED";
+            // Sin sitio en el bulkhead: unsuccessfulAuthentication responde 503, no 401.
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        } catch (InternalAuthenticationServiceException e) {
+            // El limitador de concurrencia descartó la consulta del usuario
+            // (Spring Security la envuelve): también es un 503.
+            if (e.getCause() instanceof ConcurrencyLimitExceededException) {
+                outcome = "REJECTED";
+            }
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.userNameHash = UserNameHash.of(userName);
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
     }
 
     // 7. successfulAuthentication: Este método se ejecuta si la autenticación fue exitosa.
@@ -98,6 +158,9 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
             Authentication authentication) throws IOException, ServletException {
 
+        TokenIssuedEvent event = new TokenIssuedEvent();
+        event.begin();
+
         // Obtenemos el usuario autenticado desde el objeto `authentication`.
         // `authentication.getPrincipal()` devuelve el principal asociado al usuario autenticado,
         // que en este caso es un objeto `User` de Spring Security.
@@ -112,11 +175,36 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         //getAuthorities(): Es un método de la interfaz Authentication que devuelve los roles asociados al usuario autenticado.
         //estos roles se representan con GrandedAuthority
         Collection<? extends GrantedAuthority> roles = authentication.getAuthorities();
+        String jwt = createToken(userName, roles);
+
+        // Añadimos el token generado al encabezado de la respuesta HTTP. Se utiliza el
+        // formato estándar de "Authorization: Bearer <token>".
+        response.addHeader(HEADER_AUTHORIZATION, PREFIX_TOKEN + jwt);
+
+        // Creamos un mapa para construir un cuerpo de respuesta en formato JSON.
+        Map<String, String> body = new HashMap<>();  
+        body.put("token", jwt);
+        body.put("username", userName);
+        body.put("message", String.format("Hola %s has iniciado sesión con éxito", userName));
+        // Escribimos el cuerpo directamente en el stream de la respuesta con estado 200:
+        // en JSON, o en CBOR para los clientes internos que lo piden con Accept: application/cbor.
+        codec.write(request, response, 200, body);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.userNameHash = UserNameHash.of(userName);
+            event.commit();
+        }
+    }
+
+    // Genera el JWT firmado de un usuario con sus roles.
+    // Es público para que el calentamiento del arranque (WarmUpRunner) recorra el mismo código.
+    public String createToken(String userName, Collection<? extends GrantedAuthority> roles) throws IOException {
         boolean isAdmin = roles.stream().anyMatch(role -> role.getAuthority().equals("ROLE_ADMIN"));
         // Los claims son una forma segura de enviar datos del usuario en el token.
         Claims claims = Jwts
                 .claims() // Crea un contenedor vacío para los claims.
-                .add("authorities", new ObjectMapper().writeValueAsString(roles)) 
+                .add("authorities", codec.writeAuthorities(roles)) 
                 // Los pasamos a string JSON, para enviarlo dentro del token
                 .add("username", userName)// Añade el nombre de usuario al claim "username".
                 .add("isAdmin" , isAdmin) //Añadimos la validacion del true o el false.
@@ -133,24 +221,7 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                 // Establecemos el tiempo de expiración del token (1 hora).
                 .compact(); 
                 // Compactamos la configuración para obtener el JWT final como una cadena String.
-
-        // Añadimos el token generado al encabezado de la respuesta HTTP. Se utiliza el
-        // formato estándar de "Authorization: Bearer <token>".
-        response.addHeader(HEADER_AUTHORIZATION, PREFIX_TOKEN + jwt);
-
-        // Creamos un mapa para construir un cuerpo de respuesta en formato JSON.
-        Map<String, String> body = new HashMap<>();  
-        body.put("token", jwt);
-        body.put("username", userName);
-        body.put("message", String.format("Hola %s has iniciado sesión con éxito", userName));
-        // ObjectMapper convierte objetos de Java (como mapas o listas) en una cadena JSON.
-        // writeValueAsString genera esta cadena JSON.
-        // response.getWriter().write(...) envía la cadena JSON al cliente como el cuerpo de la respuesta HTTP.
-        response.getWriter().write(new ObjectMapper().writeValueAsString(body));
-        // Configuramos el tipo de contenido de la respuesta como JSON.
-        response.setContentType(CONTENT_TYPE);
-        // Configuramos el estado HTTP de la respuesta.
-        response.setStatus(200);
+        return jwt;
     }
 
     // 8. unsuccessfulAuthentication: Este método se ejecuta si la autenticación falla.
@@ -159,11 +230,18 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response,
             AuthenticationException failed) throws IOException, ServletException {
 
+        if (failed.getCause() instanceof BulkheadRejectedException
+                || failed.getCause() instanceof ConcurrencyLimitExceededException) {
+            String reason = failed.getCause().getMessage();
+            AUTH_LOG.warn("login-rejected", "Login descartado: {}", reason);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            codec.write(request, response, 503, Map.of("error", reason));
+            return;
+        }
+        AUTH_LOG.warn("login-failed", "Login fallido: {}", failed.getMessage());
         Map<String, String> body = new HashMap<>();  
         body.put("message", String.format("Error en la autenticación con username y password incorrecto!"));    // no indicar nunca que es lo que esta incorrecto.
         body.put("error", failed.getMessage());
-        response.getWriter().write(new ObjectMapper().writeValueAsString(body));
-        response.setContentType(CONTENT_TYPE);
-        response.setStatus(401);
+        codec.write(request, response, 401, body);
     }
 }
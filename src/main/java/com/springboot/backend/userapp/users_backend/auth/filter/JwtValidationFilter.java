@@ -1,7 +1,7 @@
 package com.springboot.backend.userapp.users_backend.auth.filter;
 
 import java.io.IOException;
-import java.util.Arrays;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -9,12 +9,12 @@ import java.util.Map;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.springboot.backend.userapp.users_backend.auth.SimpleGrantedAuthorityJsonCreator;
+import com.springboot.backend.userapp.users_backend.auth.SecurityJsonCodec;
+import com.springboot.backend.userapp.users_backend.jfr.TokenValidationEvent;
+import com.springboot.backend.userapp.users_backend.logging.RateLimitedLogger;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
@@ -32,10 +32,18 @@ import jakarta.servlet.http.HttpServletResponse;
 //  Extiende BasicAuthenticationFilter de Spring Security. 
 public class JwtValidationFilter extends BasicAuthenticationFilter {
 
+    // Los tokens inválidos se registran con límite para no saturar el log con tráfico malicioso.
+    private static final RateLimitedLogger AUTH_LOG = new RateLimitedLogger(JwtValidationFilter.class, 20,
+            Duration.ofMinutes(1));
+
+    // Lectores y escritores de JSON compartidos (no se crea un ObjectMapper por petición).
+    private final SecurityJsonCodec codec;
+
     // Constructor que recibe el AuthenticationManager.
     // Este objeto se utiliza para la autenticación de usuarios en Spring Security.
-    public JwtValidationFilter(AuthenticationManager authenticationManager) {
+    public JwtValidationFilter(AuthenticationManager authenticationManager, SecurityJsonCodec codec) {
         super(authenticationManager);
+        this.codec = codec;
     }
 
     
@@ -58,26 +66,7 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
         String token = header.replace(PREFIX_TOKEN, "");
 
         try {
-            // Parsear el token JWT para obtener los "claims" (información contenida en el token).
-            Claims claims = Jwts.parser()
-                    .verifyWith(SECRET_KEY) // Validar la firma del token con la clave secreta.
-                    .build()
-                    .parseSignedClaims(token) // Analizar y verificar el token firmado.
-                    .getPayload();
-
-            // Obtener el nombre del usuario (subject) del token.
-            String userName = claims.getSubject();
-
-            // Extraer los roles o autoridades del token.
-            Object authoritiesClaims = claims.get("authorities");
-
-            // Convertir los roles a una colección de objetos GrantedAuthority.
-            Collection<? extends GrantedAuthority> roles = Arrays.asList(new ObjectMapper()
-                    .addMixIn(SimpleGrantedAuthority.class, SimpleGrantedAuthorityJsonCreator.class)
-                    .readValue(authoritiesClaims.toString().getBytes(), SimpleGrantedAuthority[].class));
-
-            // Crear un token de autenticación para Spring Security.
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userName, null, roles);
+            UsernamePasswordAuthenticationToken authenticationToken = verify(token);
 
             // Establecer el contexto de seguridad con el token de autenticación.
             SecurityContextHolder.getContext().setAuthentication(authenticationToken);
@@ -87,14 +76,55 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
 
         } catch (JwtException e) {
             // Si hay un error al procesar el token, devolver un error 401 (no autorizado).
+            AUTH_LOG.warn("token-invalid", "Token JWT rechazado: {}", e.getMessage());
             Map<String, String> body = new HashMap<>();
             body.put("error", e.getMessage()); // Mensaje técnico del error.
             body.put("message", "El token es inválido!"); // Mensaje más amigable para el usuario.
 
-            // Configurar la respuesta HTTP con el error.
-            response.getWriter().write(new ObjectMapper().writeValueAsString(body));
-            response.setStatus(401); // Código de estado HTTP 401 (no autorizado).
-            response.setContentType(CONTENT_TYPE); // Establecer el tipo de contenido de la respuesta.
+            // Configurar la respuesta HTTP con el error: código 401 (no autorizado) y el cuerpo en JSON.
+            codec.write(request, response, 401, body);
+        }
+    }
+
+    // parseToken con un evento JFR (duración y resultado de la verificación).
+    private UsernamePasswordAuthenticationToken verify(String token) throws IOException {
+        TokenValidationEvent event = new TokenValidationEvent();
+        event.begin();
+        String outcome = "VALID";
+        try {
+            return parseToken(token);
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.outcome = outcome;
+                event.commit();
+            }
         }
     }
+
+    // Valida el JWT y construye la autenticación de Spring Security con sus roles.
+    // Es público para que el calentamiento del arranque (WarmUpRunner) recorra el mismo código.
+    public UsernamePasswordAuthenticationToken parseToken(String token) throws IOException {
+        // Parsear el token JWT para obtener los "claims" (información contenida en el token).
+        Claims claims = Jwts.parser()
+                .verifyWith(SECRET_KEY) // Validar la firma del token con la clave secreta.
+                .build()
+                .parseSignedClaims(token) // Analizar y verificar el token firmado.
+                .getPayload();
+
+        // Obtener el nombre del usuario (subject) del token.
+        String userName = claims.getSubject();
+
+        // Extraer los roles o autoridades del token.
+        Object authoritiesClaims = claims.get("authorities");
+
+        // Convertir los roles a una colección de objetos GrantedAuthority.
+        Collection<? extends GrantedAuthority> roles = codec.readAuthorities(authoritiesClaims.toString());
+
+        // Crear un token de autenticación para Spring Security.
+        return new UsernamePasswordAuthenticationToken(userName, null, roles);
+    }
 }
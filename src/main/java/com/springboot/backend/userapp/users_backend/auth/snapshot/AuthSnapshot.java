@@ -0,0 +1,367 @@
+package com.springboot.backend.userapp.users_backend.auth.snapshot;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+
+// Un fichero de snapshot: los datos de login de todos los usuarios, mapeado en memoria (fuera del heap).
+
+// Formato:
+//   cabecera (64 bytes): magic, versión, número de huecos de cada índice
+//   índice por userName: slots enteros con la posición de un registro (0 = vacío, 1 = borrado)
+//   índice por id: igual, para aplicar cambios y borrados que solo traen el id
+//   registros, uno detrás de otro:
+//     long id, long roles (máscara de bits), short n + n chars del userName,
+//     byte m + m bytes del hash de la contraseña (ASCII)
+// Los índices son tablas hash de direccionamiento abierto con sondeo lineal; los huecos
+// borrados se reutilizan al insertar. Un cambio añade un registro nuevo y mueve los índices
+// a él; el anterior queda como basura hasta la siguiente compactación (copyInto).
+
+// Los ficheros contienen los hashes de las contraseñas: se crean legibles solo por el usuario
+// del proceso (rw-------), sin depender del umask.
+
+// Concurrencia: un único escritor (AuthSnapshotStore sincroniza las escrituras) y lectores sin
+// bloqueos. El escritor escribe el registro completo antes de publicarlo en el índice con
+// setRelease; el lector lee el índice con getAcquire, así siempre ve el registro entero.
+final class AuthSnapshot {
+
+    private static final int MAGIC = 0x55534e50;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER = 64;
+
+    private static final int EMPTY = 0;
+
+    private static final int TOMBSTONE = 1;
+
+    // Huecos ocupados (incluidos los borrados) antes de pedir un snapshot más grande.
+    private static final double MAX_LOAD = 0.7;
+
+    // Bytes reservados por usuario: cabe un userName de 12 caracteres y un hash BCrypt con margen.
+    static final int BYTES_PER_USER = 128;
+
+    private static final int MAX_PASSWORD_BYTES = 255;
+
+    // Acceso atómico (acquire/release) a los enteros de los índices dentro del fichero mapeado.
+    private static final VarHandle SLOT = MethodHandles.byteBufferViewVarHandle(int[].class,
+            ByteOrder.BIG_ENDIAN);
+
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    private final Path file;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slots;
+
+    private final int nameIndex;
+
+    private final int idIndex;
+
+    // Solo los usa el escritor.
+    private int dataEnd;
+
+    private int live;
+
+    private int usedNameSlots;
+
+    private int usedIdSlots;
+
+    private long garbage;
+
+    private AuthSnapshot(Path file, MappedByteBuffer buffer, int slots) {
+        this.file = file;
+        this.buffer = buffer;
+        this.slots = slots;
+        this.nameIndex = HEADER;
+        this.idIndex = HEADER + slots * Integer.BYTES;
+        this.dataEnd = idIndex + slots * Integer.BYTES;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, slots);
+    }
+
+    // Crea un fichero nuevo con sitio para expectedUsers usuarios (índices a la mitad de su carga).
+    static AuthSnapshot create(Path file, long expectedUsers) throws IOException {
+        long users = Math.max(expectedUsers, 1024);
+        int slots = Integer.highestOneBit((int) Math.min(users * 2, 1 << 28) - 1) << 1;
+        long size = HEADER + 2L * slots * Integer.BYTES + users * BYTES_PER_USER;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Snapshot de " + users + " usuarios mayor de 2 GB");
+        }
+        Files.deleteIfExists(file);
+        try (FileChannel channel = FileChannel.open(file, EnumSet.of(StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE), ownerOnly("rw-------"))) {
+            // El mapeo sigue siendo válido después de cerrar el canal.
+            return new AuthSnapshot(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), slots);
+        }
+    }
+
+    // Permisos solo para el propietario (nada en sistemas de ficheros sin permisos POSIX).
+    static FileAttribute<?>[] ownerOnly(String permissions) {
+        if (!POSIX) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[] {
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions)) };
+    }
+
+    static boolean isPosix() {
+        return POSIX;
+    }
+
+    // Posición del registro de ese userName, o -1. No reserva memoria.
+    int findByName(String userName) {
+        int mask = slots - 1;
+        int i = hash(userName) & mask;
+        for (int probes = 0; probes < slots; probes++) {
+            int value = (int) SLOT.getAcquire(buffer, nameIndex + i * Integer.BYTES);
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != TOMBSTONE && nameEquals(value, userName)) {
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    long roles(int record) {
+        return buffer.getLong(record + Long.BYTES);
+    }
+
+    String password(int record) {
+        int nameChars = buffer.getShort(record + 16);
+        int at = record + 18 + nameChars * Character.BYTES;
+        byte[] bytes = new byte[buffer.get(at) & 0xff];
+        buffer.get(at + 1, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    int size() {
+        return live;
+    }
+
+    // Más de la mitad de los datos es basura (registros sustituidos o borrados).
+    boolean needsCompaction() {
+        return garbage > (dataEnd - idIndex - (long) slots * Integer.BYTES) / 2;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    // Inserta o sustituye el registro del usuario. false si no cabe (hace falta un snapshot mayor).
+    boolean put(long id, String userName, String password, long roles) {
+        byte[] passwordBytes = password.getBytes(StandardCharsets.ISO_8859_1);
+        if (passwordBytes.length > MAX_PASSWORD_BYTES || userName.length() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Datos de login demasiado largos para el usuario " + id);
+        }
+        int size = 18 + userName.length() * Character.BYTES + 1 + passwordBytes.length;
+        if ((long) dataEnd + size > buffer.capacity()) {
+            return false;
+        }
+        int idSlot = idSlot(id);
+        int previous = slot(idSlot);
+        boolean replacing = previous > TOMBSTONE;
+        if (!replacing && previous == EMPTY && usedIdSlots + 1 > slots * MAX_LOAD) {
+            return false;
+        }
+        int nameSlot = nameSlot(userName);
+        int nameValue = slot(nameSlot);
+        if (nameValue == EMPTY && usedNameSlots + 1 > slots * MAX_LOAD) {
+            return false;
+        }
+
+        int record = dataEnd;
+        buffer.putLong(record, id);
+        buffer.putLong(record + Long.BYTES, roles);
+        buffer.putShort(record + 16, (short) userName.length());
+        int at = record + 18;
+        for (int i = 0; i < userName.length(); i++, at += Character.BYTES) {
+            buffer.putChar(at, userName.charAt(i));
+        }
+        buffer.put(at, (byte) passwordBytes.length);
+        buffer.put(at + 1, passwordBytes);
+        dataEnd += size;
+
+        // Renombrado: el userName anterior deja de llevar a este usuario.
+        if (replacing && !nameEquals(previous, userName)) {
+            removeName(previous);
+        }
+        publish(nameSlot, record);
+        if (nameValue == EMPTY) {
+            usedNameSlots++;
+        }
+        publish(idSlot, record);
+        if (previous == EMPTY) {
+            usedIdSlots++;
+        }
+        if (replacing) {
+            garbage += recordSize(previous);
+        } else {
+            live++;
+        }
+        return true;
+    }
+
+    void remove(long id) {
+        int idSlot = idSlot(id);
+        int previous = slot(idSlot);
+        if (previous <= TOMBSTONE) {
+            return;
+        }
+        removeName(previous);
+        publish(idSlot, TOMBSTONE);
+        garbage += recordSize(previous);
+        live--;
+    }
+
+    // Copia los registros vigentes a otro snapshot (compactación o crecimiento).
+    void copyInto(AuthSnapshot target) {
+        for (int i = 0; i < slots; i++) {
+            int record = slot(idIndex + i * Integer.BYTES);
+            if (record > TOMBSTONE && !target.put(buffer.getLong(record), userName(record), password(record),
+                    roles(record))) {
+                throw new IllegalStateException("El snapshot de destino es demasiado pequeño");
+            }
+        }
+    }
+
+    void delete() throws IOException {
+        // El fichero se puede borrar aunque algún lector aún lo tenga mapeado (el SO lo libera después).
+        Files.deleteIfExists(file);
+    }
+
+    private String userName(int record) {
+        int chars = buffer.getShort(record + 16);
+        char[] name = new char[chars];
+        for (int i = 0; i < chars; i++) {
+            name[i] = buffer.getChar(record + 18 + i * Character.BYTES);
+        }
+        return new String(name);
+    }
+
+    private int recordSize(int record) {
+        int nameChars = buffer.getShort(record + 16);
+        int at = record + 18 + nameChars * Character.BYTES;
+        return at + 1 + (buffer.get(at) & 0xff) - record;
+    }
+
+    private boolean nameEquals(int record, String userName) {
+        int chars = buffer.getShort(record + 16);
+        if (chars != userName.length()) {
+            return false;
+        }
+        for (int i = 0; i < chars; i++) {
+            if (buffer.getChar(record + 18 + i * Character.BYTES) != userName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Hueco del id: el que ya lo contiene o, si no está, donde se insertaría.
+    private int idSlot(long id) {
+        int mask = slots - 1;
+        int i = (int) mix(id) & mask;
+        int firstFree = -1;
+        for (int probes = 0; probes < slots; probes++) {
+            int position = idIndex + i * Integer.BYTES;
+            int value = slot(position);
+            if (value == EMPTY) {
+                return firstFree >= 0 ? firstFree : position;
+            }
+            if (value == TOMBSTONE) {
+                if (firstFree < 0) {
+                    firstFree = position;
+                }
+            } else if (buffer.getLong(value) == id) {
+                return position;
+            }
+            i = (i + 1) & mask;
+        }
+        return firstFree;
+    }
+
+    private int nameSlot(String userName) {
+        int mask = slots - 1;
+        int i = hash(userName) & mask;
+        int firstFree = -1;
+        for (int probes = 0; probes < slots; probes++) {
+            int position = nameIndex + i * Integer.BYTES;
+            int value = slot(position);
+            if (value == EMPTY) {
+                return firstFree >= 0 ? firstFree : position;
+            }
+            if (value == TOMBSTONE) {
+                if (firstFree < 0) {
+                    firstFree = position;
+                }
+            } else if (nameEquals(value, userName)) {
+                return position;
+            }
+            i = (i + 1) & mask;
+        }
+        return firstFree;
+    }
+
+    // Borra del índice de nombres la entrada que apunta a ese registro (si otro usuario ya
+    // ocupa el nombre, su entrada no se toca).
+    private void removeName(int record) {
+        int mask = slots - 1;
+        int i = hash(userName(record)) & mask;
+        for (int probes = 0; probes < slots; probes++) {
+            int position = nameIndex + i * Integer.BYTES;
+            int value = slot(position);
+            if (value == EMPTY) {
+                return;
+            }
+            if (value == record) {
+                publish(position, TOMBSTONE);
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private int slot(int position) {
+        return (int) SLOT.getAcquire(buffer, position);
+    }
+
+    private void publish(int position, int value) {
+        SLOT.setRelease(buffer, position, value);
+    }
+
+    // FNV-1a sobre los chars (sin convertir a bytes) y mezcla final de murmur3.
+    private static int hash(String userName) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < userName.length(); i++) {
+            h ^= userName.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return (int) mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,31 @@
+package com.springboot.backend.userapp.users_backend.auth.snapshot;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.springboot.backend.userapp.users_backend.events.InvalidationBus;
+import com.springboot.backend.userapp.users_backend.services.UserCountTracker;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Con users.auth-snapshot.enabled=true los logins se resuelven primero en el snapshot fuera del
+// heap (AuthSnapshotStore) y solo van a la base de datos si el usuario no está.
+@Configuration
+@EnableConfigurationProperties(AuthSnapshotProperties.class)
+@ConditionalOnProperty(name = "users.auth-snapshot.enabled", havingValue = "true")
+public class AuthSnapshotConfig {
+
+    @Bean(destroyMethod = "close")
+    AuthSnapshotStore authSnapshotStore(AuthSnapshotProperties properties, JdbcTemplate jdbcTemplate,
+            ShardTemplate shardTemplate, UserCountTracker countTracker, InvalidationBus invalidationBus,
+            MeterRegistry registry) throws IOException {
+        return new AuthSnapshotStore(properties, jdbcTemplate, shardTemplate, countTracker, invalidationBus,
+                registry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.springboot.backend.userapp.users_backend.auth.snapshot;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Configuración del snapshot de login fuera del heap (users.auth-snapshot.*).
+@ConfigurationProperties(prefix = "users.auth-snapshot")
+public class AuthSnapshotProperties {
+
+    // Desactivado por defecto: sin él los logins consultan la base de datos (JpaUserDetailsService).
+    private boolean enabled = false;
+
+    // Directorio de los ficheros mapeados; se vacía al arrancar (el snapshot se reconstruye siempre).
+    // Vacío: un directorio temporal privado que se borra al parar. Contiene los hashes de las
+    // contraseñas, así que el directorio y los ficheros solo los puede leer el usuario del proceso.
+    private String directory = "";
+
+    // Cada cuánto se vuelve a leer la tabla users entera. Es el tiempo máximo que un login puede
+    // seguir usando datos viejos (un borrado o un cambio de roles) si se pierde su evento.
+    private Duration rebuildInterval = Duration.ofMinutes(15);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+}
@@ -0,0 +1,480 @@
+package com.springboot.backend.userapp.users_backend.auth.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.springboot.backend.userapp.users_backend.events.InvalidationBus;
+import com.springboot.backend.userapp.users_backend.events.InvalidationListener;
+import com.springboot.backend.userapp.users_backend.events.UserChangeEvent;
+import com.springboot.backend.userapp.users_backend.services.UserCountTracker;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Datos de login (userName, hash de la contraseña y roles) de todos los usuarios en un
+// snapshot mapeado en memoria, para que JpaUserDetailsService no consulte la base de datos.
+
+// PROPOSITO:
+// El login solo necesita tres campos, pero cargarlos por JPA supone una consulta (o dos, con
+// los roles) y un grafo User/Role por intento. Con el snapshot, un login que acierta es un
+// sondeo en un índice hash fuera del heap, sin JDBC.
+
+// PUNTOS CLAVE:
+// - Los roles se guardan como una máscara de bits: cada nombre de rol recibe un bit la primera
+//   vez que aparece (hasta 64). Las listas de GrantedAuthority de cada máscara se reutilizan.
+// - Buscar en el índice no reserva memoria; solo se crean el hash de la contraseña como String
+//   y el UserDetails que pide Spring Security (que borra su contraseña tras autenticar).
+// - Se mantiene con los eventos del InvalidationBus (los que publica UserServiceImpl tras cada
+//   commit, las importaciones y los de otros nodos): los usuarios cambiados se releen por lotes
+//   (un "where id in (...)" por shard) y cada borrado se quita. Entre el commit y la llegada del
+//   evento el snapshot puede ir un flush del bus por detrás (users.invalidation.flush-interval-ms).
+// - Las bajas y los cambios de rol o de userName no esperan al bus en el nodo que los hace:
+//   UserServiceImpl llama a revoke() en el afterCommit y el usuario sale del snapshot (su login
+//   va a la base de datos) hasta que el evento lo recarga. Una relectura empezada antes de la
+//   revocación no lo vuelve a añadir con los datos viejos. En los demás nodos sigue llegando por el bus.
+// - Un fallo (userName que no está, snapshot aún sin construir) se resuelve en la base de datos.
+// - Al arrancar y cada rebuild-interval se reconstruye leyendo la tabla users de cada shard;
+//   los cambios que llegan mientras tanto se aplican a los dos snapshots y el recorrido no
+//   los pisa. Si se pierde un evento (un nodo caído, un hueco de la outbox que vence su
+//   gap-timeout), el login de ese usuario puede usar datos viejos hasta la siguiente
+//   reconstrucción: rebuild-interval es el peor caso de ese desfase. Si a uno le falta sitio se copia a otro fichero el doble de grande; si acumula
+//   demasiados registros sustituidos se compacta.
+public class AuthSnapshotStore implements InvalidationListener, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthSnapshotStore.class);
+
+    private static final int SCAN_PAGE_SIZE = 10_000;
+
+    private static final String SCAN = "select id, userName, password from users where id > ? order by id limit "
+            + SCAN_PAGE_SIZE;
+
+    private static final String SCAN_ROLES = "select ur.user_id, r.name from users_roles ur"
+            + " join roles r on r.id = ur.role_id where ur.user_id > ? and ur.user_id <= ?";
+
+    private static final String LOAD_USERS = "select id, userName, password from users where id in (";
+
+    private static final String LOAD_ROLES = "select ur.user_id, r.name from users_roles ur"
+            + " join roles r on r.id = ur.role_id where ur.user_id in (";
+
+    // Ids por consulta al releer los usuarios de un lote de eventos.
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    // Máscaras con las listas de autoridades ya construidas (las de los 8 primeros roles).
+    private static final int CACHED_MASKS = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ShardTemplate shardTemplate;
+
+    private final UserCountTracker countTracker;
+
+    private final Path directory;
+
+    // El directorio es temporal (no se configuró ninguno) y se borra al cerrar.
+    private final boolean temporaryDirectory;
+
+    private final Duration rebuildInterval;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final MeterRegistry registry;
+
+    private final ExecutorService rebuildExecutor;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong fileSequence = new AtomicLong();
+
+    private final AtomicReferenceArray<List<GrantedAuthority>> authoritiesByMask = new AtomicReferenceArray<>(
+            CACHED_MASKS);
+
+    // Nombre del rol de cada bit; solo crece (copia al añadir).
+    private volatile String[] roleNames = new String[0];
+
+    // null hasta la primera construcción: mientras tanto todos los logins van a la base de datos.
+    private volatile AuthSnapshot current;
+
+    private volatile long builtAt;
+
+    // Solo durante una reconstrucción (protegidos por this).
+    private AuthSnapshot next;
+
+    private Set<Long> touched;
+
+    // userId -> número de la revocación (revoke) aún sin recargar; protegidos por this.
+    private final Map<Long, Long> revoked = new HashMap<>();
+
+    private long revocations;
+
+    public AuthSnapshotStore(AuthSnapshotProperties properties, JdbcTemplate jdbcTemplate,
+            ShardTemplate shardTemplate, UserCountTracker countTracker, InvalidationBus invalidationBus,
+            MeterRegistry registry) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardTemplate = shardTemplate;
+        this.countTracker = countTracker;
+        this.temporaryDirectory = properties.getDirectory() == null || properties.getDirectory().isBlank();
+        this.directory = temporaryDirectory
+                ? Files.createTempDirectory("auth-snapshot-", AuthSnapshot.ownerOnly("rwx------"))
+                : privateDirectory(Path.of(properties.getDirectory()));
+        this.rebuildInterval = properties.getRebuildInterval();
+        this.registry = registry;
+        this.hits = registry.counter("users.auth_snapshot.lookups", "result", "hit");
+        this.misses = registry.counter("users.auth_snapshot.lookups", "result", "miss");
+        Gauge.builder("users.auth_snapshot.users", this, store -> {
+            AuthSnapshot snapshot = store.current;
+            return snapshot != null ? snapshot.size() : 0;
+        }).description("Usuarios en el snapshot de login").register(registry);
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("auth-snapshot-"));
+
+        // Los ficheros de una ejecución anterior no sirven: pueden estar desfasados.
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".snapshot")).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        invalidationBus.subscribe(this);
+    }
+
+    // UserDetails del snapshot, o null si no está (hay que ir a la base de datos).
+    public UserDetails find(String userName) {
+        AuthSnapshot snapshot = current;
+        int record = snapshot != null ? snapshot.findByName(userName) : -1;
+        if (record < 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new User(userName, snapshot.password(record), true, true, true, true,
+                authorities(snapshot.roles(record)));
+    }
+
+    @Override
+    public void onInvalidation(List<UserChangeEvent> events) {
+        long loadStartedAfter;
+        synchronized (this) {
+            loadStartedAfter = revocations;
+        }
+        Map<Integer, List<Long>> changedByShard = new HashMap<>();
+        for (UserChangeEvent event : events) {
+            int shard = shardTemplate.shardForId(event.userId());
+            if (event.type() == UserChangeEvent.Type.DELETED || shard < 0) {
+                applyLoaded(event.userId(), null, Long.MAX_VALUE);
+            } else {
+                changedByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(event.userId());
+            }
+        }
+        changedByShard.forEach((shard, ids) -> {
+            for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + LOAD_BATCH_SIZE, ids.size()));
+                Map<Long, AuthRow> rows = shardTemplate.onShard(shard, () -> load(batch));
+                for (Long id : batch) {
+                    applyLoaded(id, rows.get(id), loadStartedAfter);
+                }
+            }
+        });
+    }
+
+    // Quita al usuario del snapshot en cuanto se confirma una baja o un cambio de rol o de
+    // userName en este nodo. Su siguiente login va a la base de datos hasta que llega el evento.
+    public synchronized void revoke(Long userId) {
+        revoked.put(userId, ++revocations);
+        apply(userId, null);
+    }
+
+    // La primera ejecución (al arrancar) construye el snapshot; las siguientes lo reconstruyen
+    // cuando toca o lo compactan si hace falta. El recorrido va en su propio hilo.
+    @Scheduled(fixedDelayString = "${users.auth-snapshot.check-interval-ms:60000}")
+    public void maintain() {
+        if (current == null || System.nanoTime() - builtAt > rebuildInterval.toNanos()) {
+            rebuildAsync();
+            return;
+        }
+        synchronized (this) {
+            AuthSnapshot snapshot = current;
+            if (next == null && snapshot != null && snapshot.needsCompaction()) {
+                current = copy(snapshot, Math.max(snapshot.size() * 2L, 1024));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        rebuildExecutor.shutdownNow();
+        delete(current);
+        delete(next);
+        current = null;
+        next = null;
+        if (temporaryDirectory) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                log.debug("No se ha podido borrar {}", directory, e);
+            }
+        }
+    }
+
+    // Crea el directorio (o restringe uno existente) para que solo lo lea el usuario del proceso.
+    private static Path privateDirectory(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            if (AuthSnapshot.isPosix()) {
+                Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwx------"));
+            }
+            return directory;
+        }
+        return Files.createDirectories(directory, AuthSnapshot.ownerOnly("rwx------"));
+    }
+
+    private void rebuildAsync() {
+        if (rebuilding.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("No se ha podido reconstruir el snapshot de login", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    // Recorre la tabla users de cada shard y sustituye el snapshot.
+    void rebuild() throws IOException {
+        long started = System.nanoTime();
+        // El doble de lo que hay ahora: deja margen para las altas hasta la siguiente reconstrucción.
+        long capacity = Math.max(countTracker.get() * 2, 1024);
+        synchronized (this) {
+            next = AuthSnapshot.create(nextFile(), capacity);
+            touched = new HashSet<>();
+        }
+        AuthSnapshot built = null;
+        try {
+            for (int shard = 0; shard < shardTemplate.shardCount(); shard++) {
+                shardTemplate.runOnShard(shard, this::scan);
+            }
+            synchronized (this) {
+                AuthSnapshot previous = current;
+                built = next;
+                current = built;
+                builtAt = System.nanoTime();
+                delete(previous);
+            }
+        } finally {
+            synchronized (this) {
+                if (built == null) {
+                    delete(next);
+                }
+                next = null;
+                touched = null;
+            }
+        }
+        registry.timer("users.auth_snapshot.rebuild").record(Duration.ofNanos(System.nanoTime() - started));
+        log.debug("Snapshot de login reconstruido: {} usuarios", built.size());
+    }
+
+    private void scan() {
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<UserRow> rows = jdbcTemplate.query(SCAN,
+                    (rs, n) -> new UserRow(rs.getLong(1), rs.getString(2), rs.getString(3)), lastId);
+            if (rows.isEmpty()) {
+                return;
+            }
+            long firstId = lastId;
+            lastId = rows.get(rows.size() - 1).id();
+            Map<Long, List<String>> roles = new HashMap<>();
+            jdbcTemplate.query(SCAN_ROLES, rs -> {
+                roles.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2));
+            }, firstId, lastId);
+            synchronized (this) {
+                if (next == null) {
+                    return;
+                }
+                for (UserRow row : rows) {
+                    // Si llegó un evento de este usuario durante el recorrido, ese dato es más reciente.
+                    if (!touched.contains(row.id())) {
+                        next = write(next, row.id(), new AuthRow(row.userName(), row.password(),
+                                maskOf(roles.getOrDefault(row.id(), List.of()))));
+                    }
+                }
+            }
+            if (rows.size() < SCAN_PAGE_SIZE) {
+                return;
+            }
+        }
+    }
+
+    // Usuarios y roles de los ids de un mismo shard, en dos consultas. Los que ya no existen no vienen.
+    private Map<Long, AuthRow> load(List<Long> ids) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] args = ids.toArray();
+        List<UserRow> users = jdbcTemplate.query(LOAD_USERS + placeholders,
+                (rs, n) -> new UserRow(rs.getLong(1), rs.getString(2), rs.getString(3)), args);
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<String>> roles = new HashMap<>();
+        jdbcTemplate.query(LOAD_ROLES + placeholders, rs -> {
+            roles.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2));
+        }, args);
+        Map<Long, AuthRow> rows = new HashMap<>();
+        synchronized (this) {
+            for (UserRow user : users) {
+                rows.put(user.id(), new AuthRow(user.userName(), user.password(),
+                        maskOf(roles.getOrDefault(user.id(), List.of()))));
+            }
+        }
+        return rows;
+    }
+
+    // Aplica lo leído para un evento. Si el usuario se revocó después de empezar la lectura,
+    // lo leído puede ser anterior al cambio: se descarta y lo aplicará el evento de ese cambio.
+    private synchronized void applyLoaded(Long userId, AuthRow row, long loadStartedAfter) {
+        Long revokedAt = revoked.get(userId);
+        if (revokedAt != null) {
+            if (revokedAt > loadStartedAfter) {
+                return;
+            }
+            revoked.remove(userId);
+        }
+        apply(userId, row);
+    }
+
+    private synchronized void apply(Long userId, AuthRow row) {
+        if (touched != null) {
+            touched.add(userId);
+        }
+        if (current != null) {
+            current = write(current, userId, row);
+        }
+        if (next != null) {
+            next = write(next, userId, row);
+        }
+    }
+
+    // Aplica el cambio; devuelve el snapshot que queda (otro más grande si no cabía).
+    private AuthSnapshot write(AuthSnapshot snapshot, long userId, AuthRow row) {
+        // Sin fila o con roles que no caben en la máscara: el login de ese usuario irá a la base de datos.
+        if (row == null || row.roles() < 0) {
+            snapshot.remove(userId);
+            return snapshot;
+        }
+        if (snapshot.put(userId, row.userName(), row.password(), row.roles())) {
+            return snapshot;
+        }
+        AuthSnapshot bigger = copy(snapshot, Math.max(snapshot.size() * 2L, 1024));
+        if (bigger == snapshot || !bigger.put(userId, row.userName(), row.password(), row.roles())) {
+            // No se ha podido ampliar: mejor sin el usuario (irá a la base de datos) que con datos viejos.
+            bigger.remove(userId);
+        }
+        return bigger;
+    }
+
+    // Copia los registros vigentes a un fichero nuevo y borra el anterior. Si no se puede crear,
+    // se sigue con el actual.
+    private AuthSnapshot copy(AuthSnapshot snapshot, long capacity) {
+        try {
+            AuthSnapshot copy = AuthSnapshot.create(nextFile(), capacity);
+            snapshot.copyInto(copy);
+            delete(snapshot);
+            return copy;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se ha podido ampliar el snapshot de login", e);
+            return snapshot;
+        }
+    }
+
+    // Máscara de los roles, o -1 si alguno no cabe (más de 64 roles distintos).
+    private long maskOf(List<String> roles) {
+        long mask = 0;
+        for (String role : roles) {
+            int bit = Arrays.asList(roleNames).indexOf(role);
+            if (bit < 0) {
+                if (roleNames.length == Long.SIZE) {
+                    return -1;
+                }
+                bit = roleNames.length;
+                String[] names = Arrays.copyOf(roleNames, bit + 1);
+                names[bit] = role;
+                roleNames = names;
+            }
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    private List<GrantedAuthority> authorities(long mask) {
+        if (mask >= 0 && mask < CACHED_MASKS) {
+            List<GrantedAuthority> cached = authoritiesByMask.get((int) mask);
+            if (cached == null) {
+                cached = buildAuthorities(mask);
+                authoritiesByMask.set((int) mask, cached);
+            }
+            return cached;
+        }
+        return buildAuthorities(mask);
+    }
+
+    private List<GrantedAuthority> buildAuthorities(long mask) {
+        String[] names = roleNames;
+        List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(mask));
+        for (int bit = 0; bit < names.length; bit++) {
+            if ((mask & (1L << bit)) != 0) {
+                authorities.add(new SimpleGrantedAuthority(names[bit]));
+            }
+        }
+        return List.copyOf(authorities);
+    }
+
+    private Path nextFile() {
+        return directory.resolve("users-" + fileSequence.incrementAndGet() + ".snapshot");
+    }
+
+    private static void delete(AuthSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.delete();
+        } catch (IOException e) {
+            log.debug("No se ha podido borrar {}", snapshot.file(), e);
+        }
+    }
+
+    private record UserRow(long id, String userName, String password) {
+    }
+
+    private record AuthRow(String userName, String password, long roles) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.springboot.backend.userapp.users_backend.availability;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom de cadenas: mightContain() puede dar falsos positivos pero nunca falsos negativos.
+// Admite add() concurrentes sin bloqueo (los bits se activan con CAS) y no permite borrar:
+// los valores que dejan de existir se limpian reconstruyendo el filtro.
+class BloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final long bits;
+
+    private final int hashes;
+
+    // expectedInsertions valores con una tasa de falsos positivos de falsePositiveRate.
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        // Como mucho 2^31 palabras de 64 bits (AtomicLongArray se indexa con int).
+        long wordCount = Math.min((m + 63) / 64, Integer.MAX_VALUE);
+        this.words = new AtomicLongArray((int) Math.max(wordCount, 1));
+        this.bits = (long) words.length() * 64;
+        this.hashes = (int) Math.max(1, Math.round((double) bits / n * Math.log(2)));
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.weakCompareAndSetVolatile(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres y mezcla final de MurmurHash3.
+    // Las dos mitades del resultado son las dos funciones base del doble hashing.
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e49b9L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
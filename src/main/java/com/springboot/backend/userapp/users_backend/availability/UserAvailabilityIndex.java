@@ -0,0 +1,290 @@
+package com.springboot.backend.userapp.users_backend.availability;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.springboot.backend.userapp.users_backend.events.InvalidationBus;
+import com.springboot.backend.userapp.users_backend.events.InvalidationListener;
+import com.springboot.backend.userapp.users_backend.events.UserChangeEvent;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserCountTracker;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Disponibilidad de userName y email para los formularios (GET /api/users/availability).
+
+// PROPOSITO:
+// Responder mientras el usuario escribe sin una consulta a la tabla users por cada tecla.
+
+// PUNTOS CLAVE:
+// - Dos filtros de Bloom en memoria (userName y email) con los valores de la tabla users.
+//   Si el filtro dice que un valor no está, está libre y no se consulta la base de datos;
+//   solo un posible acierto se confirma con un exists en la base de datos.
+// - UserServiceImpl añade los valores nuevos en cuanto los guarda (antes del commit: un
+//   rollback solo deja un falso positivo). Los eventos del InvalidationBus cubren además las
+//   importaciones y los cambios hechos en otros nodos.
+// - Un filtro de Bloom no admite borrados: los nombres de usuarios borrados o renombrados
+//   siguen marcados hasta que el filtro se reconstruye. Se reconstruye cada rebuild-interval,
+//   o antes si los valores obsoletos o las altas superan lo previsto al dimensionarlo.
+// - Los valores se comparan en minúsculas (como la collation por defecto de MySQL); la
+//   consulta a la base de datos usa el valor tal cual.
+@Component
+public class UserAvailabilityIndex implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityIndex.class);
+
+    // Filas leídas por consulta al reconstruir (paginación por id, sin OFFSET).
+    private static final int SCAN_PAGE_SIZE = 10_000;
+
+    private static final String SCAN = "select id, userName, email from users where id > ? order by id limit "
+            + SCAN_PAGE_SIZE;
+
+    private final UserRepository repository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ShardTemplate shardTemplate;
+
+    private final UserCountTracker countTracker;
+
+    private final MeterRegistry registry;
+
+    private final double falsePositiveRate;
+
+    private final Duration rebuildInterval;
+
+    private final double staleRatio;
+
+    private final ExecutorService rebuildExecutor;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // null hasta la primera construcción: mientras tanto se consulta siempre la base de datos.
+    private volatile Filters current;
+
+    // Filtros en construcción; reciben también las altas que llegan durante el recorrido.
+    private volatile Filters next;
+
+    public UserAvailabilityIndex(UserRepository repository, JdbcTemplate jdbcTemplate, ShardTemplate shardTemplate,
+            UserCountTracker countTracker, InvalidationBus invalidationBus, MeterRegistry registry,
+            @Value("${users.availability.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${users.availability.rebuild-interval:PT1H}") Duration rebuildInterval,
+            @Value("${users.availability.stale-ratio:0.1}") double staleRatio) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardTemplate = shardTemplate;
+        this.countTracker = countTracker;
+        this.registry = registry;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.staleRatio = staleRatio;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("availability-rebuild-"));
+        invalidationBus.subscribe(this);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public boolean isUserNameAvailable(String userName) {
+        Filters filters = current;
+        if (filters != null && !filters.userNames.mightContain(normalize(userName))) {
+            count("userName", "bloom");
+            return true;
+        }
+        boolean taken = shardTemplate.onShard(shardTemplate.shardForUserName(userName),
+                () -> repository.existsByUserName(userName));
+        count("userName", taken ? "taken" : "false_positive");
+        return !taken;
+    }
+
+    public boolean isEmailAvailable(String email) {
+        Filters filters = current;
+        if (filters != null && !filters.emails.mightContain(normalize(email))) {
+            count("email", "bloom");
+            return true;
+        }
+        // El email no determina el shard: hay que preguntar a todos.
+        boolean taken = shardTemplate.scatter(shard -> repository.existsByEmail(email)).contains(Boolean.TRUE);
+        count("email", taken ? "taken" : "false_positive");
+        return !taken;
+    }
+
+    // Marca un userName y un email como ocupados.
+    // next se lee antes que current: si la reconstrucción termina entre las dos lecturas,
+    // el alta llega igualmente a los filtros nuevos (ver rebuild()).
+    public void add(String userName, String email) {
+        Filters building = next;
+        Filters filters = current;
+        if (building != null) {
+            building.add(userName, email);
+        }
+        if (filters != null && filters != building) {
+            filters.add(userName, email);
+        }
+    }
+
+    @Override
+    public void onInvalidation(List<UserChangeEvent> events) {
+        Filters filters = current;
+        for (UserChangeEvent event : events) {
+            if (event.type() == UserChangeEvent.Type.DELETED) {
+                if (filters != null) {
+                    filters.stale.incrementAndGet();
+                }
+                continue;
+            }
+            if (event.userName() != null) {
+                add(event.userName(), event.email());
+            } else {
+                // Los eventos de otros nodos solo traen el id.
+                addFromDatabase(event.userId());
+            }
+            if (event.type() == UserChangeEvent.Type.UPDATED && filters != null) {
+                // El nombre o el email anteriores pueden haber quedado libres.
+                filters.stale.incrementAndGet();
+            }
+        }
+    }
+
+    // La primera ejecución (al arrancar) construye los filtros; las siguientes solo
+    // reconstruyen si hace falta. El recorrido de la tabla va en su propio hilo para no
+    // retrasar las demás tareas programadas.
+    @Scheduled(fixedDelayString = "${users.availability.check-interval-ms:60000}")
+    public void maintain() {
+        Filters filters = current;
+        if (filters == null || filters.isStale(rebuildInterval, staleRatio)) {
+            rebuildAsync();
+        }
+    }
+
+    private void rebuildAsync() {
+        if (rebuilding.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("No se ha podido reconstruir el índice de disponibilidad", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    // Recorre la tabla users de cada shard y sustituye los filtros.
+    void rebuild() {
+        long started = System.nanoTime();
+        // El doble de lo que hay ahora: deja margen para las altas hasta la siguiente reconstrucción.
+        long capacity = Math.max(countTracker.get() * 2, 1024);
+        Filters building = new Filters(capacity, falsePositiveRate);
+        next = building;
+        try {
+            for (int shard = 0; shard < shardTemplate.shardCount(); shard++) {
+                shardTemplate.runOnShard(shard, () -> scan(building));
+            }
+        } catch (RuntimeException e) {
+            next = null;
+            throw e;
+        }
+        // Primero se publica y después se retira de next: un alta que ya no ve next
+        // encuentra los filtros nuevos en current (add() lee next antes que current).
+        current = building;
+        next = null;
+        registry.timer("users.availability.rebuild").record(Duration.ofNanos(System.nanoTime() - started));
+        log.debug("Índice de disponibilidad reconstruido: {} usuarios, {} bytes", building.entries.get(),
+                building.sizeInBytes());
+    }
+
+    private void scan(Filters building) {
+        long[] lastId = { Long.MIN_VALUE };
+        int[] rows = new int[1];
+        do {
+            rows[0] = 0;
+            jdbcTemplate.query(SCAN, rs -> {
+                lastId[0] = rs.getLong(1);
+                building.add(rs.getString(2), rs.getString(3));
+                rows[0]++;
+            }, lastId[0]);
+        } while (rows[0] == SCAN_PAGE_SIZE);
+    }
+
+    private void addFromDatabase(Long userId) {
+        int shard = shardTemplate.shardForId(userId);
+        if (shard < 0) {
+            return;
+        }
+        shardTemplate.runOnShard(shard, () -> jdbcTemplate.query("select userName, email from users where id = ?",
+                rs -> {
+                    add(rs.getString(1), rs.getString(2));
+                }, userId));
+    }
+
+    private void count(String field, String result) {
+        registry.counter("users.availability.checks", "field", field, "result", result).increment();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    // Los dos filtros de una misma construcción y sus contadores.
+    private static final class Filters {
+
+        final BloomFilter userNames;
+
+        final BloomFilter emails;
+
+        final long capacity;
+
+        final long builtAt = System.nanoTime();
+
+        // Valores añadidos y valores que pueden haber quedado libres desde la construcción.
+        final AtomicLong entries = new AtomicLong();
+
+        final AtomicLong stale = new AtomicLong();
+
+        Filters(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.userNames = new BloomFilter(capacity, falsePositiveRate);
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        void add(String userName, String email) {
+            if (userName != null) {
+                userNames.add(normalize(userName));
+            }
+            if (email != null) {
+                emails.add(normalize(email));
+            }
+            entries.incrementAndGet();
+        }
+
+        boolean isStale(Duration maxAge, double staleRatio) {
+            long added = entries.get();
+            return System.nanoTime() - builtAt > maxAge.toNanos()
+                    || stale.get() > Math.max(added, 1) * staleRatio
+                    || added > capacity;
+        }
+
+        long sizeInBytes() {
+            return userNames.sizeInBytes() + emails.sizeInBytes();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.springboot.backend.userapp.users_backend.bulkhead;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.springboot.backend.userapp.users_backend.metrics.SqlStatementCounter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Ejecutor acotado para una clase de endpoints (login, lecturas o escrituras).
+
+// PUNTOS CLAVE:
+// Como mucho maxConcurrent tareas a la vez y queueCapacity esperando; lo que no cabe se
+// rechaza al momento (BulkheadRejectedException -> 503) en lugar de acumularse en Tomcat.
+// Cada tarea tiene un plazo (timeout) contado desde que se encola. Si vence con la tarea aún
+// en cola, ya no se ejecuta y la petición responde 503 (se puede reintentar). Si ya había
+// empezado sigue hasta el final: en un bulkhead idempotente (login, lecturas) se responde
+// igualmente 503; en el de escrituras el resultado es desconocido (puede acabar haciendo
+// commit) y se responde con BulkheadOutcomeUnknownException, que no invita a reintentar.
+// La tarea corre en otro hilo con el SecurityContext y el contador de SQL de la petición.
+// Métricas (tag name): users.bulkhead.active, users.bulkhead.queued, users.bulkhead.rejected,
+// users.bulkhead.timeouts y users.bulkhead.queue.wait.
+public class Bulkhead {
+
+    // Estados de una tarea; el primero que la lleva a DONE (la tarea o el plazo) completa el resultado.
+    private static final int QUEUED = 0;
+
+    private static final int RUNNING = 1;
+
+    private static final int DONE = 2;
+
+    private final String name;
+
+    private final boolean idempotent;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService timer;
+
+    private final long timeoutMillis;
+
+    private final Counter rejected;
+
+    private final Counter timeouts;
+
+    private final Timer queueWait;
+
+    public Bulkhead(String name, BulkheadProperties.Limits limits, boolean idempotent,
+            ScheduledExecutorService timer, MeterRegistry registry) {
+        this.name = name;
+        this.idempotent = idempotent;
+        this.timer = timer;
+        this.timeoutMillis = limits.getTimeout().toMillis();
+
+        // Con capacidad 0 no hay cola: o hay un hilo libre o se rechaza.
+        BlockingQueue<Runnable> queue = limits.getQueueCapacity() > 0
+                ? new ArrayBlockingQueue<>(limits.getQueueCapacity())
+                : new SynchronousQueue<>();
+        this.executor = new ThreadPoolExecutor(limits.getMaxConcurrent(), limits.getMaxConcurrent(),
+                60, TimeUnit.SECONDS, queue, new CustomizableThreadFactory("bulkhead-" + name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("users.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Tareas ejecutándose en el bulkhead")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("users.bulkhead.queued", executor, e -> e.getQueue().size())
+                .description("Tareas esperando en la cola del bulkhead")
+                .tag("name", name)
+                .register(registry);
+        this.rejected = Counter.builder("users.bulkhead.rejected")
+                .description("Peticiones rechazadas por cola llena")
+                .tag("name", name)
+                .register(registry);
+        this.timeouts = Counter.builder("users.bulkhead.timeouts")
+                .description("Peticiones que superaron el timeout del bulkhead")
+                .tag("name", name)
+                .register(registry);
+        this.queueWait = Timer.builder("users.bulkhead.queue.wait")
+                .description("Tiempo en cola antes de empezar a ejecutarse")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    // Ejecuta la tarea en el bulkhead. El resultado se completa con la excepción
+    // BulkheadRejectedException si no hay sitio o si vence el plazo (o con
+    // BulkheadOutcomeUnknownException si vence con una escritura ya empezada).
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        AtomicInteger sqlCounter = SqlStatementCounter.current();
+        long enqueuedAt = System.nanoTime();
+
+        try {
+            executor.execute(() -> {
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                // Venció el plazo mientras esperaba: el cliente ya tiene su 503.
+                if (!state.compareAndSet(QUEUED, RUNNING)) {
+                    return;
+                }
+                SecurityContextHolder.setContext(securityContext);
+                SqlStatementCounter.bind(sqlCounter);
+                try {
+                    T result = task.get();
+                    if (state.compareAndSet(RUNNING, DONE)) {
+                        future.complete(result);
+                    }
+                } catch (Throwable e) {
+                    if (state.compareAndSet(RUNNING, DONE)) {
+                        future.completeExceptionally(e);
+                    }
+                } finally {
+                    SqlStatementCounter.clear();
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new BulkheadRejectedException(name, "cola llena"));
+        }
+
+        ScheduledFuture<?> deadline = timer.schedule(() -> expire(future, state), timeoutMillis,
+                TimeUnit.MILLISECONDS);
+        future.whenComplete((result, error) -> deadline.cancel(false));
+        return future;
+    }
+
+    private void expire(CompletableFuture<?> future, AtomicInteger state) {
+        RuntimeException error;
+        if (state.compareAndSet(QUEUED, DONE)) {
+            error = new BulkheadRejectedException(name, "timeout");
+        } else if (state.compareAndSet(RUNNING, DONE)) {
+            error = idempotent ? new BulkheadRejectedException(name, "timeout")
+                    : new BulkheadOutcomeUnknownException(name);
+        } else {
+            // La tarea terminó antes que el plazo.
+            return;
+        }
+        // El contador va antes de completar: quien espera el resultado ya lo ve actualizado.
+        timeouts.increment();
+        future.completeExceptionally(error);
+    }
+
+    // Variante bloqueante para código que no puede ser asíncrono (los filtros de seguridad):
+    // el hilo de Tomcat espera, pero el trabajo pesado queda limitado por el bulkhead.
+    public <T> T call(Supplier<T> task) {
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
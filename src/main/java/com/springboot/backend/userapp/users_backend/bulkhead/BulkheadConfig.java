@@ -0,0 +1,18 @@
+package com.springboot.backend.userapp.users_backend.bulkhead;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Crea los bulkheads con los límites de users.bulkhead.* y los detiene al cerrar la aplicación.
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    Bulkheads bulkheads(BulkheadProperties properties, MeterRegistry registry) {
+        return new Bulkheads(properties, registry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.springboot.backend.userapp.users_backend.bulkhead;
+
+// Venció el plazo de una escritura que ya se estaba ejecutando: sigue en marcha y puede
+// acabar haciendo commit. Se responde 504 sin Retry-After, porque reintentar a ciegas un
+// POST podría duplicar el usuario; el cliente debe consultar el recurso antes.
+public class BulkheadOutcomeUnknownException extends RuntimeException {
+
+    private final String bulkhead;
+
+    public BulkheadOutcomeUnknownException(String bulkhead) {
+        super("La operación no terminó a tiempo y puede haberse completado (" + bulkhead
+                + "); comprueba el resultado antes de reintentar", null, false, false);
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+}
@@ -0,0 +1,86 @@
+package com.springboot.backend.userapp.users_backend.bulkhead;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Límites de cada bulkhead (users.bulkhead.login.*, users.bulkhead.read.*, users.bulkhead.write.*).
+// max-concurrent: hilos del ejecutor (tareas a la vez).
+// queue-capacity: tareas que pueden esperar; si la cola está llena la petición se rechaza con 503.
+// timeout: tiempo máximo desde que se encola hasta que termina; al superarlo se responde 503.
+@ConfigurationProperties(prefix = "users.bulkhead")
+public class BulkheadProperties {
+
+    // El login es BCrypt puro: pocos hilos, del orden de los procesadores.
+    private Limits login = new Limits(4, 50, Duration.ofSeconds(5));
+
+    private Limits read = new Limits(50, 200, Duration.ofSeconds(3));
+
+    private Limits write = new Limits(20, 100, Duration.ofSeconds(5));
+
+    public Limits getLogin() {
+        return login;
+    }
+
+    public void setLogin(Limits login) {
+        this.login = login;
+    }
+
+    public Limits getRead() {
+        return read;
+    }
+
+    public void setRead(Limits read) {
+        this.read = read;
+    }
+
+    public Limits getWrite() {
+        return write;
+    }
+
+    public void setWrite(Limits write) {
+        this.write = write;
+    }
+
+    public static class Limits {
+
+        private int maxConcurrent;
+
+        private int queueCapacity;
+
+        private Duration timeout;
+
+        public Limits() {
+        }
+
+        public Limits(int maxConcurrent, int queueCapacity, Duration timeout) {
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+            this.timeout = timeout;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.springboot.backend.userapp.users_backend.bulkhead;
+
+// El bulkhead no ha podido atender la petición (cola llena o plazo vencido).
+// Se responde con 503 y Retry-After para que el cliente reintente más tarde.
+// Sin stack trace: bajo sobrecarga se crean muchas y no aportan nada.
+public class BulkheadRejectedException extends RuntimeException {
+
+    private final String bulkhead;
+
+    public BulkheadRejectedException(String bulkhead, String reason) {
+        super("Servicio saturado (" + bulkhead + ": " + reason + ")", null, false, false);
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+}
@@ -0,0 +1,54 @@
+package com.springboot.backend.userapp.users_backend.bulkhead;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Los tres bulkheads de la aplicación: login (BCrypt), lecturas y escrituras de /api/users.
+// Cada uno tiene sus propios hilos, así una avalancha de logins no retrasa GET /api/users/{id}.
+public class Bulkheads {
+
+    private final ScheduledExecutorService timer;
+
+    private final Bulkhead login;
+
+    private final Bulkhead read;
+
+    private final Bulkhead write;
+
+    public Bulkheads(BulkheadProperties properties, MeterRegistry registry) {
+        // Un único hilo para los plazos de los tres bulkheads; los que no vencen se quitan de la cola.
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("bulkhead-timeout-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.timer = scheduler;
+
+        // Login y lecturas se pueden repetir sin efectos; una escritura que vence a medias, no.
+        this.login = new Bulkhead("login", properties.getLogin(), true, timer, registry);
+        this.read = new Bulkhead("read", properties.getRead(), true, timer, registry);
+        this.write = new Bulkhead("write", properties.getWrite(), false, timer, registry);
+    }
+
+    public Bulkhead login() {
+        return login;
+    }
+
+    public Bulkhead read() {
+        return read;
+    }
+
+    public Bulkhead write() {
+        return write;
+    }
+
+    public void shutdown() {
+        login.shutdown();
+        read.shutdown();
+        write.shutdown();
+        timer.shutdown();
+    }
+}
@@ -0,0 +1,27 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+// Negociación de contenido binaria para los clientes internos (servicio a servicio).
+// Con Accept: application/cbor los endpoints devuelven CBOR en lugar de JSON, con el mismo
+// modelo de datos pero sin el coste de codificar y parsear texto.
+
+// Spring Boot coloca este conversor en el sitio del CBOR por defecto, detrás del de JSON,
+// así los navegadores (Accept: */*) siguen recibiendo JSON. Spring MVC ordena el Accept por
+// calidad (q) antes de elegir conversor; las respuestas del login y de los errores de
+// seguridad, que no pasan por los conversores, siguen la misma regla (SecurityJsonCodec.prefersCbor).
+@Configuration
+public class BinaryFormatsConfig {
+
+    // Usamos el builder de Spring Boot para que el ObjectMapper de CBOR tenga
+    // la misma configuración (módulos, spring.jackson.*) que el de JSON.
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,49 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import java.util.Collections;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.springboot.backend.userapp.users_backend.audit.AuditUnavailableException;
+import com.springboot.backend.userapp.users_backend.bulkhead.BulkheadOutcomeUnknownException;
+import com.springboot.backend.userapp.users_backend.bulkhead.BulkheadRejectedException;
+import com.springboot.backend.userapp.users_backend.limiter.ConcurrencyLimitExceededException;
+
+// Peticiones descartadas por un bulkhead, por el limitador de concurrencia o por un log de
+// auditoría saturado: 503 con Retry-After en lugar de esperar sin límite.
+@RestControllerAdvice
+public class BulkheadExceptionHandler {
+
+    @ExceptionHandler(BulkheadRejectedException.class)
+    public ResponseEntity<?> rejected(BulkheadRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Collections.singletonMap("error", e.getMessage()));
+    }
+
+    // Escritura que venció ya empezada: 504 sin Retry-After (el resultado es desconocido).
+    @ExceptionHandler(BulkheadOutcomeUnknownException.class)
+    public ResponseEntity<?> outcomeUnknown(BulkheadOutcomeUnknownException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Collections.singletonMap("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<?> limited(ConcurrencyLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Collections.singletonMap("error", e.getMessage()));
+    }
+
+    // Lanzada antes del commit: la operación no se ha aplicado y se puede reintentar.
+    @ExceptionHandler(AuditUnavailableException.class)
+    public ResponseEntity<?> auditUnavailable(AuditUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Collections.singletonMap("error", e.getMessage()));
+    }
+}
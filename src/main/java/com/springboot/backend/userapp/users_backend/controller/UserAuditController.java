@@ -0,0 +1,44 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.springboot.backend.userapp.users_backend.audit.AuditLog;
+
+// Historial de cambios de un usuario (GET /api/users/{id}/audit), del más reciente al más antiguo.
+
+// Uso:
+// GET /api/users/42/audit?limit=20 devuelve {"entries": [...], "next": 1234}
+// GET /api/users/42/audit?cursor=1234&limit=20 devuelve la página siguiente (next null = no hay más).
+// Se lee del log de auditoría de este nodo (AuditLog), no de la base de datos: el historial solo
+// incluye los cambios (altas, modificaciones, bajas e importaciones) hechos a través de este nodo.
+// Con varias instancias cada una tiene su parte del historial; los cambios hechos directamente en
+// la base de datos no aparecen.
+@CrossOrigin(origins = { "http://localhost:4200" })
+@RestController
+@RequestMapping("/api/users/{id}/audit")
+public class UserAuditController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @GetMapping
+    public ResponseEntity<?> history(@PathVariable Long id, @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", "limit debe estar entre 1 y " + MAX_LIMIT));
+        }
+        return ResponseEntity.ok(auditLog.history(id, cursor, limit));
+    }
+}
@@ -1,9 +1,15 @@
 package com.springboot.backend.userapp.users_backend.controller;
 
 import org.springframework.web.bind.annotation.RestController;
+import com.springboot.backend.userapp.users_backend.availability.UserAvailabilityIndex;
+import com.springboot.backend.userapp.users_backend.bulkhead.Bulkheads;
 import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.models.FieldSet;
+import com.springboot.backend.userapp.users_backend.models.InvalidFieldSetException;
+import com.springboot.backend.userapp.users_backend.models.UserPatchRequest;
 import com.springboot.backend.userapp.users_backend.models.UserRequest;
 import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.sharding.UserShardConflictException;
 
 import jakarta.validation.Valid;
 
@@ -11,7 +17,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,11 +29,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PutMapping;
 
 @CrossOrigin(origins = { "http://localhost:4200" }) // Permite que el frontend en Angular, que corre en localhost:4200,
@@ -41,28 +52,77 @@ public class UserController {
     // Hay que inyectar lo mas generico posible
     private UserService service;
 
+    // Las lecturas y las escrituras se ejecutan en su propio bulkhead (ejecutor acotado).
+    // Devolver un CompletableFuture libera el hilo de Tomcat mientras tanto; si el
+    // bulkhead está saturado se responde 503 (BulkheadExceptionHandler).
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private UserAvailabilityIndex availabilityIndex;
+
     // Método para obtener todos los usuarios (GET /api/users)
+    // Con ?fields=id,userName,email solo se consultan y devuelven esos campos;
+    // los roles solo se cargan si se incluye "roles".
     @GetMapping
-    public List<User> list() {
+    public CompletableFuture<List<?>> list(@RequestParam(required = false) String fields) {
         // Llama al servicio para obtener todos los usuarios y los devuelve como una
         // lista
-        return service.findAll();
+        if (fields != null) {
+            // ?fields se valida antes de ocupar un hilo del bulkhead.
+            FieldSet fieldSet = FieldSet.parse(fields);
+            return bulkheads.read().submit(() -> service.findAll(fieldSet));
+        }
+        return bulkheads.read().submit(() -> service.findAll());
     }
 
     // Maneja solicitudes GET en la ruta "/api/users/page/{page}"
+    // El total de elementos es aproximado (UserCountTracker) salvo que se pida exactCount=true
     @GetMapping("/page/{page}")
-    public Page<User> listPageable(@PathVariable Integer page) {
+    public CompletableFuture<Page<?>> listPageable(@PathVariable Integer page,
+            @RequestParam(defaultValue = "false") boolean exactCount,
+            @RequestParam(required = false) String fields) {
         // Crea un objeto Pageable para solicitar la página especificada con 5 usuarios
         // por página
         // Los métodos «of» restantes exigen como mínimo el número de página y su tamaño
         // máximo:
         Pageable pageable = PageRequest.of(page, 5);
-        return service.findAll(pageable);
+        if (fields != null) {
+            FieldSet fieldSet = FieldSet.parse(fields);
+            return bulkheads.read().submit(() -> service.findAll(fieldSet, pageable, exactCount));
+        }
+        return bulkheads.read().submit(() -> service.findAll(pageable, exactCount));
+    }
+
+    // Disponibilidad de userName y/o email para los formularios (GET /api/users/availability)
+    // Responde {"userName": true, "email": false} con los parámetros recibidos (true = libre).
+    // Casi siempre lo resuelve el filtro de Bloom, sin consultar la base de datos.
+    @GetMapping("/availability")
+    public CompletableFuture<ResponseEntity<?>> availability(@RequestParam(required = false) String userName,
+            @RequestParam(required = false) String email) {
+        if ((userName == null || userName.isBlank()) && (email == null || email.isBlank())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", "Indica userName o email")));
+        }
+        return bulkheads.read().submit(() -> {
+            Map<String, Boolean> availability = new LinkedHashMap<>();
+            if (userName != null && !userName.isBlank()) {
+                availability.put("userName", availabilityIndex.isUserNameAvailable(userName));
+            }
+            if (email != null && !email.isBlank()) {
+                availability.put("email", availabilityIndex.isEmailAvailable(email));
+            }
+            return ResponseEntity.ok(availability);
+        });
     }
 
     // Método para buscar un usuario por su ID (GET /api/users/{id})
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> findById(@PathVariable Long id) {
+        return bulkheads.read().submit(() -> findByIdResponse(id));
+    }
+
+    private ResponseEntity<?> findByIdResponse(Long id) {
         // Busca el usuario por ID
         Optional<User> userOptional = service.findById(id);
         // Si el usuario está presente, devuelve el usuario con estado HTTP 200 (OK)
@@ -81,42 +141,70 @@ public class UserController {
 
     // Método para crear un nuevo usuario (POST /api/users)
     @PostMapping
-    public ResponseEntity<?> create(@Valid @RequestBody User user, BindingResult result) {
+    public CompletableFuture<ResponseEntity<?>> create(@Valid @RequestBody User user, BindingResult result) {
         if (result.hasErrors()) {
-            return validation(result);
+            return CompletableFuture.completedFuture(validation(result));
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.save(user));
+        return bulkheads.write().submit(() -> ResponseEntity.status(HttpStatus.CREATED).body(service.save(user)));
     }
 
     // Método para actualizar un usuario existente (PUT /api/users/{id})
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@Valid @RequestBody UserRequest user, BindingResult result, @PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> update(@Valid @RequestBody UserRequest user, BindingResult result,
+            @PathVariable Long id) {
         if (result.hasErrors()) {
-            return validation(result);
+            return CompletableFuture.completedFuture(validation(result));
         }
-        // Busca el usuario por ID
-        Optional<User> userOptional = service.update(user, id);
-        // Si el usuario está presente, lo actualiza con los nuevos datos
-        if (userOptional.isPresent()) {
-            return ResponseEntity.ok(userOptional.orElseThrow());
+        // Busca el usuario por ID y, si está presente, lo actualiza con los nuevos datos
+        return bulkheads.write().submit(() -> okOrNotFound(service.update(user, id)));
+    }
+
+    // Método para actualizar solo algunos campos de un usuario (PATCH /api/users/{id})
+    // Los campos que no se envían (o llegan a null) no se modifican.
+    @PatchMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> patch(@Valid @RequestBody UserPatchRequest user,
+            BindingResult result, @PathVariable Long id) {
+        if (result.hasErrors()) {
+            return CompletableFuture.completedFuture(validation(result));
         }
-        return ResponseEntity.notFound().build();
+        return bulkheads.write().submit(() -> okOrNotFound(service.patch(user, id)));
     }
 
     // Método para eliminar un usuario por ID (DELETE /api/users/{id})
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable Long id) {
-        // Busca el usuario por ID
-        Optional<User> userOptional = service.findById(id);
-        // Si el usuario está presente, lo elimina
-        if (userOptional.isPresent()) {
-            service.deleteById(id);
+    public CompletableFuture<ResponseEntity<?>> delete(@PathVariable Long id) {
+        return bulkheads.write().submit(() -> deleteResponse(id));
+    }
+
+    private ResponseEntity<?> deleteResponse(Long id) {
+        // Un único DELETE: el número de filas borradas decide entre 204 y 404,
+        // sin necesidad de buscar antes el usuario.
+        if (service.deleteById(id) > 0) {
             return ResponseEntity.noContent().build(); // Responde con estado HTTP 204 (NO CONTENT) sin cuerpo
         }
         // Si no se encuentra el usuario, devuelve estado HTTP 404 (NOT FOUND)
         return ResponseEntity.notFound().build();
     }
 
+    private ResponseEntity<?> okOrNotFound(Optional<User> userOptional) {
+        if (userOptional.isPresent()) {
+            return ResponseEntity.ok(userOptional.orElseThrow());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    // Un campo desconocido en ?fields= devuelve 400 con el motivo.
+    @ExceptionHandler(InvalidFieldSetException.class)
+    public ResponseEntity<?> invalidFields(InvalidFieldSetException e) {
+        return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+    }
+
+    // Con sharding, un cambio de userName que movería al usuario de shard devuelve 409.
+    @ExceptionHandler(UserShardConflictException.class)
+    public ResponseEntity<?> shardConflict(UserShardConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("error", e.getMessage()));
+    }
+
     // Método privado que se encarga de validar los resultados de la vinculación de
     // datos
     // y devuelve una respuesta HTTP que incluye los errores de validación si los
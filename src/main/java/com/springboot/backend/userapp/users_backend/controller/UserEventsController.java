@@ -0,0 +1,32 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.springboot.backend.userapp.users_backend.events.UserChangeFeed;
+
+// Feed de cambios en tiempo real (GET /api/users/events) con Server-Sent Events.
+// El cliente Angular lo abre con EventSource y actualiza sus listas con los eventos
+// created / updated / deleted en lugar de volver a pedir /api/users periódicamente.
+// Al reconectar, EventSource envía Last-Event-ID y se repiten los eventos que se haya perdido.
+@CrossOrigin(origins = { "http://localhost:4200" })
+@RestController
+@RequestMapping("/api/users/events")
+public class UserEventsController {
+
+    private final UserChangeFeed feed;
+
+    public UserEventsController(UserChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return feed.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,96 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.springboot.backend.userapp.users_backend.entities.ImportJob;
+import com.springboot.backend.userapp.users_backend.imports.UserImportFormat;
+import com.springboot.backend.userapp.users_backend.imports.UserImportService;
+import com.springboot.backend.userapp.users_backend.repositories.ImportJobRepository;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Importación masiva de usuarios (POST /api/users/import) y consulta de su progreso.
+
+// Uso:
+// POST /api/users/import?jobId=carga-clientes con Content-Type text/csv o application/x-ndjson
+// y el fichero como cuerpo. Si la importación falla, se reanuda enviando el mismo fichero con el mismo jobId.
+// GET /api/users/import/carga-clientes devuelve el progreso y los primeros errores por fila,
+// también mientras la importación sigue en curso.
+@CrossOrigin(origins = { "http://localhost:4200" })
+@RestController
+@RequestMapping("/api/users/import")
+public class UserImportController {
+
+    private final UserImportService service;
+
+    private final ImportJobRepository jobRepository;
+
+    public UserImportController(UserImportService service, ImportJobRepository jobRepository) {
+        this.service = service;
+        this.jobRepository = jobRepository;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> importUsers(@RequestParam(required = false) String jobId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, HttpServletRequest request)
+            throws IOException {
+        Optional<UserImportFormat> format = UserImportFormat.fromContentType(contentType);
+        if (format.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body(Collections.singletonMap("error", "Formatos admitidos: text/csv y application/x-ndjson"));
+        }
+        if (jobId == null) {
+            jobId = UUID.randomUUID().toString();
+        } else if (!jobId.matches("[A-Za-z0-9_-]{1,36}")) {
+            return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", "El jobId solo admite letras, números, - y _ (máximo 36)"));
+        }
+        try {
+            // Leemos directamente del stream de la petición: el fichero nunca se carga entero en memoria.
+            ImportJob job = service.importUsers(jobId, format.get(), request.getInputStream());
+            return ResponseEntity.ok(report(job));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            // Todos los hilos de escritura ocupados: el cliente puede volver a enviar el fichero más tarde.
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "10")
+                    .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> progress(@PathVariable String jobId) {
+        Optional<ImportJob> job = jobRepository.findById(jobId);
+        if (job.isPresent()) {
+            return ResponseEntity.ok(report(job.orElseThrow()));
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Collections.singletonMap("error", "La importación no existe, jobId: " + jobId));
+    }
+
+    private Map<String, Object> report(ImportJob job) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("job", job);
+        body.put("errors", service.findErrors(job.getId()));
+        return body;
+    }
+}
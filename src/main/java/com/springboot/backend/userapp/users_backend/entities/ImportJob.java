@@ -0,0 +1,125 @@
+package com.springboot.backend.userapp.users_backend.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Estado de una importación masiva de usuarios.
+// committedLine es la última línea del fichero cuyo lote ya está confirmado en la base de datos;
+// al reanudar una importación fallida se saltan todas las líneas hasta ella.
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    // Lo elige el cliente (o se genera), y es la clave para consultar el progreso y reanudar.
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "committed_line", nullable = false)
+    private long committedLine;
+
+    @Column(name = "imported_rows", nullable = false)
+    private long importedRows;
+
+    @Column(name = "failed_rows", nullable = false)
+    private long failedRows;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public ImportJob() {
+    }
+
+    public ImportJob(String id) {
+        this.id = id;
+        this.status = Status.RUNNING;
+        this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getCommittedLine() {
+        return committedLine;
+    }
+
+    public void setCommittedLine(long committedLine) {
+        this.committedLine = committedLine;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public void setFailedRows(long failedRows) {
+        this.failedRows = failedRows;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,69 @@
+package com.springboot.backend.userapp.users_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Fila del fichero de importación que no se ha podido insertar, con el motivo.
+@Entity
+@Table(name = "import_row_errors")
+public class ImportRowError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @Column(nullable = false)
+    private long line;
+
+    @Column(nullable = false, length = 500)
+    private String message;
+
+    public ImportRowError() {
+    }
+
+    public ImportRowError(String jobId, long line, String message) {
+        this.jobId = jobId;
+        this.line = line;
+        // La columna tiene 500 caracteres; los mensajes de los drivers pueden ser más largos.
+        this.message = message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
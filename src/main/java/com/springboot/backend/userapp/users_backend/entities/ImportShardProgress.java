@@ -0,0 +1,42 @@
+package com.springboot.backend.userapp.users_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Progreso de una importación en un shard distinto del de por defecto.
+// Vive en la base de datos de ese shard y se escribe en la misma transacción que sus filas:
+// committedLine es la última línea del lote cuyas filas de este shard ya están confirmadas,
+// aunque la transacción del shard por defecto (la que avanza ImportJob.committedLine) fallara después.
+// UserImportService la escribe y la lee con JDBC; la entidad solo declara la tabla.
+@Entity
+@Table(name = "import_shard_progress")
+public class ImportShardProgress {
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "committed_line", nullable = false)
+    private long committedLine;
+
+    public ImportShardProgress() {
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getCommittedLine() {
+        return committedLine;
+    }
+
+    public void setCommittedLine(long committedLine) {
+        this.committedLine = committedLine;
+    }
+}
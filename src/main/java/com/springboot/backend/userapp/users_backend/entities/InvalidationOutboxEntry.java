@@ -0,0 +1,73 @@
+package com.springboot.backend.userapp.users_backend.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+// Fila de la outbox de invalidación: un lote de eventos ya fusionados escrito por un nodo.
+@Entity
+@Table(name = "invalidation_outbox")
+public class InvalidationOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Identificador del nodo que escribió el lote, para que no lo procese dos veces.
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public InvalidationOutboxEntry() {
+    }
+
+    public InvalidationOutboxEntry(String nodeId, String payload, Instant createdAt) {
+        this.nodeId = nodeId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
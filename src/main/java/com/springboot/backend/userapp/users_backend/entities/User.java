@@ -1,16 +1,21 @@
 package com.springboot.backend.userapp.users_backend.entities;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
-import static jakarta.persistence.GenerationType.*;
+import jakarta.persistence.FetchType;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.springboot.backend.userapp.users_backend.models.IUser;
+import com.springboot.backend.userapp.users_backend.sharding.ShardedUserIdGenerator;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Id;
@@ -27,10 +32,15 @@ import jakarta.validation.constraints.Size;
 
 @Entity
 @Table(name = "users")
+// DynamicUpdate: el UPDATE solo incluye las columnas que han cambiado (PATCH de un solo campo).
+@DynamicUpdate
 public class User implements IUser{
 
+    // Sin sharding el id lo asigna AUTO_INCREMENT (como @GeneratedValue(strategy = IDENTITY)).
+    // Con sharding lo asigna UserIdAllocator y lleva codificado el shard del usuario (ver ShardedIds).
     @Id
-    @GeneratedValue(strategy = IDENTITY)
+    @GeneratedValue(generator = "user-id")
+    @GenericGenerator(name = "user-id", type = ShardedUserIdGenerator.class)
     private Long id;
 
     @NotBlank
@@ -78,6 +88,10 @@ public class User implements IUser{
             inverseJoinColumns = { @JoinColumn(name = "role_id") },
             // Agrega una restricción de unicidad para asegurarte de que no haya combinaciones duplicadas de user_id y role_id en la tabla intermedia.
             uniqueConstraints = { @UniqueConstraint(columnNames = { "user_id", "role_id" }) })       
+    // La FK user_id de users_roles se declara con ON DELETE CASCADE, así borrar un usuario
+    // es una única sentencia DELETE sobre users y la base de datos limpia la tabla intermedia.
+    // Los esquemas MySQL ya existentes se migran con db/mysql/users_roles_user_id_on_delete_cascade.sql.
+    @OnDelete(action = OnDeleteAction.CASCADE)
     
     // En User, necesitas inicializar la lista porque los usuarios pueden tener roles asignados
     // y necesitas un contenedor para esas relaciones.       
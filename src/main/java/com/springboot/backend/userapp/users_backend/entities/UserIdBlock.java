@@ -0,0 +1,39 @@
+package com.springboot.backend.userapp.users_backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Contador de ids de usuario de un shard (ver UserIdAllocator): next_value es el final del
+// último bloque reservado. UserIdAllocator lo lee y actualiza con JDBC; la entidad solo declara la tabla.
+@Entity
+@Table(name = "user_id_blocks")
+public class UserIdBlock {
+
+    @Id
+    @Column(name = "shard_id")
+    private Integer shardId;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    public UserIdBlock() {
+    }
+
+    public Integer getShardId() {
+        return shardId;
+    }
+
+    public void setShardId(Integer shardId) {
+        this.shardId = shardId;
+    }
+
+    public long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,126 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+// Base común de los buses: acumula los eventos pendientes por id de usuario y
+// los entrega en lotes, de forma que una ráfaga de escrituras sobre las mismas
+// filas se convierte en un único envío.
+// publish() nunca envía en el hilo que escribe (va en el afterCommit de la escritura): un lote
+// lleno solo despierta al hilo de envío. Si un envío falla, el lote vuelve a pendientes.
+public abstract class CoalescingInvalidationBus implements InvalidationBus, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingInvalidationBus.class);
+
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Eventos pendientes, uno por usuario, en orden de llegada.
+    private final Map<Long, UserChangeEvent> pending = new LinkedHashMap<>();
+
+    // Serializa los envíos para que los lotes lleguen en orden.
+    private final Object dispatchLock = new Object();
+
+    private final int maxBatchSize;
+
+    // Envía los lotes llenos sin esperar al siguiente tick del planificador.
+    private final ExecutorService flushExecutor = Executors
+            .newSingleThreadExecutor(new CustomizableThreadFactory("invalidation-flush-"));
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    protected CoalescingInvalidationBus(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // Se llama después del commit, así que el momento de la publicación sirve como committedAt.
+    @Override
+    public void publish(UserChangeEvent event) {
+        if (event.committedAt() == null) {
+            event = event.withCommittedAt(Instant.now());
+        }
+        boolean full;
+        synchronized (pending) {
+            // Si coalesce devuelve null, Map.merge elimina la entrada (creado y borrado en la misma ventana).
+            pending.merge(event.userId(), event, UserChangeEvent::coalesce);
+            full = pending.size() >= maxBatchSize;
+        }
+        // Si el lote ya está lleno no esperamos al siguiente tick del planificador, pero tampoco
+        // enviamos aquí: un fallo o la espera del envío no deben recaer en una escritura ya confirmada.
+        if (full && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${users.invalidation.flush-interval-ms:100}")
+    public void flush() {
+        synchronized (dispatchLock) {
+            List<UserChangeEvent> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            try {
+                dispatch(batch);
+            } catch (RuntimeException e) {
+                log.warn("No se ha podido enviar un lote de {} invalidaciones; se reintentará", batch.size(), e);
+                restore(batch);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flushExecutor.shutdownNow();
+    }
+
+    // Devuelve a pendientes un lote que no se ha podido enviar, delante de lo que ha llegado
+    // mientras tanto y fusionado con ello (lo más reciente manda).
+    private void restore(List<UserChangeEvent> batch) {
+        synchronized (pending) {
+            Map<Long, UserChangeEvent> restored = new LinkedHashMap<>();
+            for (UserChangeEvent event : batch) {
+                restored.put(event.userId(), event);
+            }
+            pending.forEach((userId, event) -> restored.merge(userId, event, UserChangeEvent::coalesce));
+            pending.clear();
+            pending.putAll(restored);
+        }
+    }
+
+    // Envía un lote ya fusionado. Cada implementación decide cómo llega al resto de nodos.
+    protected abstract void dispatch(List<UserChangeEvent> batch);
+
+    protected void notifyListeners(List<UserChangeEvent> batch) {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidation(batch);
+            } catch (RuntimeException e) {
+                // Un listener que falla no debe impedir que el resto reciba el lote.
+                log.warn("Error al procesar un lote de invalidación en {}", listener, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+// Bus de invalidación entre nodos.
+// Los servicios publican los cambios una vez confirmada la transacción y el bus
+// se encarga de agruparlos y repartirlos a los listeners de este nodo y del resto.
+public interface InvalidationBus {
+
+    void publish(UserChangeEvent event);
+
+    void subscribe(InvalidationListener listener);
+
+}
@@ -0,0 +1,46 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.springboot.backend.userapp.users_backend.repositories.InvalidationOutboxRepository;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+// Selecciona la implementación del bus con la propiedad users.invalidation.bus:
+// local (por defecto) -> solo este nodo
+// outbox -> tabla invalidation_outbox compartida por todos los nodos
+//           (en MySQL se crea con db/mysql/create_invalidation_outbox.sql)
+@Configuration
+@EnableScheduling
+public class InvalidationBusConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "users.invalidation.bus", havingValue = "local", matchIfMissing = true)
+    InvalidationBus localInvalidationBus(@Value("${users.invalidation.max-batch-size:500}") int maxBatchSize) {
+        return new LocalInvalidationBus(maxBatchSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "users.invalidation.bus", havingValue = "outbox")
+    InvalidationBus outboxInvalidationBus(InvalidationOutboxRepository repository,
+            PlatformTransactionManager transactionManager, ShardTemplate shardTemplate,
+            @Value("${users.invalidation.max-batch-size:500}") int maxBatchSize,
+            @Value("${users.invalidation.outbox.retention:PT10M}") Duration retention,
+            @Value("${users.invalidation.outbox.gap-timeout:PT30S}") Duration gapTimeout) {
+        // REQUIRES_NEW: un lote lleno se envía desde publish(), que se llama en el afterCommit de la
+        // escritura. Con REQUIRED el insert se uniría a esa transacción ya confirmada (y a la conexión
+        // de su shard) y nunca llegaría a hacer commit.
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new OutboxInvalidationBus(repository, transactionTemplate, shardTemplate, maxBatchSize, retention,
+                gapTimeout);
+    }
+}
@@ -0,0 +1,12 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import java.util.List;
+
+// Receptor de los lotes de eventos que entrega el InvalidationBus.
+// Cada lote ya viene fusionado: como mucho un evento por usuario.
+@FunctionalInterface
+public interface InvalidationListener {
+
+    void onInvalidation(List<UserChangeEvent> events);
+
+}
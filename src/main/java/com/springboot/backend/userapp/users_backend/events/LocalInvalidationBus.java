@@ -0,0 +1,17 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import java.util.List;
+
+// Implementación dentro de la JVM: los lotes solo llegan a los listeners de este nodo.
+// Es la opción por defecto y la adecuada cuando se despliega una sola instancia.
+public class LocalInvalidationBus extends CoalescingInvalidationBus {
+
+    public LocalInvalidationBus(int maxBatchSize) {
+        super(maxBatchSize);
+    }
+
+    @Override
+    protected void dispatch(List<UserChangeEvent> batch) {
+        notifyListeners(batch);
+    }
+}
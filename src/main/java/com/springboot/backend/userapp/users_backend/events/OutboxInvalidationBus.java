@@ -0,0 +1,155 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.springboot.backend.userapp.users_backend.entities.InvalidationOutboxEntry;
+import com.springboot.backend.userapp.users_backend.repositories.InvalidationOutboxRepository;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+// Implementación respaldada por la base de datos (patrón outbox).
+// No necesita infraestructura adicional: cada lote se guarda como una fila en la tabla
+// invalidation_outbox y el resto de nodos la leen periódicamente.
+
+// PUNTOS CLAVE:
+// Un lote = una fila, así una ráfaga de escrituras no genera una fila por usuario.
+// Cada nodo ignora las filas que él mismo ha escrito (ya notificó a sus listeners al enviarlas).
+// Las filas antiguas se purgan pasado el tiempo de retención.
+// Los ids (AUTO_INCREMENT) se asignan al insertar pero las filas se ven al hacer commit: una
+// fila con id menor puede aparecer después de otra mayor (otro nodo, otro hilo). Los huecos
+// que deja el cursor se vuelven a buscar en cada sondeo durante gap-timeout; pasado ese
+// tiempo se dan por perdidos (un rollback también gasta el id).
+// La tabla vive en el shard por defecto aunque el lote se envíe desde una escritura en otro shard.
+public class OutboxInvalidationBus extends CoalescingInvalidationBus {
+
+    private final InvalidationOutboxRepository repository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ShardTemplate shardTemplate;
+
+    // Huecos pendientes como mucho; si hay más se olvidan los más antiguos.
+    private static final int MAX_GAPS = 1000;
+
+    private final Duration retention;
+
+    private final Duration gapTimeout;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Último id de la outbox que ya hemos procesado. -1 hasta el primer sondeo.
+    private long lastSeenId = -1;
+
+    // Ids por debajo de lastSeenId que aún no hemos visto, con el momento en que se detectaron.
+    private final Map<Long, Instant> gaps = new LinkedHashMap<>();
+
+    public OutboxInvalidationBus(InvalidationOutboxRepository repository, TransactionTemplate transactionTemplate,
+            ShardTemplate shardTemplate, int maxBatchSize, Duration retention, Duration gapTimeout) {
+        super(maxBatchSize);
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardTemplate = shardTemplate;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+    }
+
+    @Override
+    protected void dispatch(List<UserChangeEvent> batch) {
+        InvalidationOutboxEntry entry = new InvalidationOutboxEntry(nodeId, encode(batch), Instant.now());
+        shardTemplate.runOnShard(ShardTemplate.DEFAULT_SHARD,
+                () -> transactionTemplate.executeWithoutResult(status -> repository.save(entry)));
+        notifyListeners(batch);
+    }
+
+    @Scheduled(fixedDelayString = "${users.invalidation.outbox.poll-interval-ms:500}")
+    public synchronized void poll() {
+        // En el primer sondeo empezamos desde el final: lo anterior ya está reflejado en la base de datos.
+        if (lastSeenId < 0) {
+            lastSeenId = repository.findMaxId().orElse(0L);
+            return;
+        }
+        Instant now = Instant.now();
+        gaps.values().removeIf(detected -> detected.plus(gapTimeout).isBefore(now));
+
+        // Primero las filas de huecos anteriores que ya han hecho commit, luego las nuevas.
+        List<InvalidationOutboxEntry> entries = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            for (InvalidationOutboxEntry entry : repository.findByIdIn(new ArrayList<>(gaps.keySet()))) {
+                gaps.remove(entry.getId());
+                entries.add(entry);
+            }
+        }
+        for (InvalidationOutboxEntry entry : repository.findTop100ByIdGreaterThanOrderByIdAsc(lastSeenId)) {
+            long firstMissing = Math.max(lastSeenId + 1, entry.getId() - MAX_GAPS);
+            for (long missing = firstMissing; missing < entry.getId(); missing++) {
+                gaps.put(missing, now);
+            }
+            lastSeenId = entry.getId();
+            entries.add(entry);
+        }
+        if (gaps.size() > MAX_GAPS) {
+            gaps.keySet().removeIf(id -> gaps.size() > MAX_GAPS);
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        // Fusionamos todas las filas remotas leídas en este sondeo en un único lote.
+        Map<Long, UserChangeEvent> remote = new LinkedHashMap<>();
+        for (InvalidationOutboxEntry entry : entries) {
+            if (nodeId.equals(entry.getNodeId())) {
+                continue;
+            }
+            for (UserChangeEvent event : decode(entry.getPayload())) {
+                remote.merge(event.userId(), event, UserChangeEvent::coalesce);
+            }
+        }
+        if (!remote.isEmpty()) {
+            notifyListeners(new ArrayList<>(remote.values()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${users.invalidation.outbox.purge-interval-ms:60000}")
+    public void purge() {
+        repository.deleteOlderThan(Instant.now().minus(retention));
+    }
+
+    // Formato compacto: "C:12:<committedAt en ms>,U:15:<ms>,D:20:<ms>".
+    static String encode(List<UserChangeEvent> batch) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (UserChangeEvent event : batch) {
+            String token = event.type().name().charAt(0) + ":" + event.userId();
+            joiner.add(event.committedAt() != null ? token + ":" + event.committedAt().toEpochMilli() : token);
+        }
+        return joiner.toString();
+    }
+
+    static List<UserChangeEvent> decode(String payload) {
+        List<UserChangeEvent> events = new ArrayList<>();
+        if (payload == null || payload.isEmpty()) {
+            return events;
+        }
+        for (String token : payload.split(",")) {
+            // Las filas escritas antes de añadir committedAt solo traen "C:12".
+            String[] parts = token.split(":");
+            Long userId = Long.valueOf(parts[1]);
+            Instant committedAt = parts.length > 2 ? Instant.ofEpochMilli(Long.parseLong(parts[2])) : null;
+            UserChangeEvent event = switch (parts[0].charAt(0)) {
+                case 'C' -> UserChangeEvent.created(userId, null, null);
+                case 'D' -> UserChangeEvent.deleted(userId);
+                default -> UserChangeEvent.updated(userId, null, null);
+            };
+            events.add(event.withCommittedAt(committedAt));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,66 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import java.time.Instant;
+
+// Evento que describe un cambio confirmado (commit) sobre un usuario.
+// Se publica desde UserServiceImpl y lo consumen los componentes que guardan
+// estado en memoria derivado de las tablas users y roles.
+
+// userName y email solo vienen informados en los eventos generados en este nodo;
+// los que llegan de otros nodos traen únicamente el tipo, el id y committedAt.
+// committedAt lo pone el bus al publicarlo (justo después del commit, con el reloj del nodo que
+// escribió); UserCountTracker lo usa para saber si un count(*) ya incluía el cambio.
+// null en los eventos aún sin publicar y en los de filas de la outbox antiguas.
+public record UserChangeEvent(Type type, Long userId, String userName, String email, Instant committedAt) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public UserChangeEvent(Type type, Long userId, String userName, String email) {
+        this(type, userId, userName, email, null);
+    }
+
+    public static UserChangeEvent created(Long userId, String userName, String email) {
+        return new UserChangeEvent(Type.CREATED, userId, userName, email);
+    }
+
+    public static UserChangeEvent updated(Long userId, String userName, String email) {
+        return new UserChangeEvent(Type.UPDATED, userId, userName, email);
+    }
+
+    public static UserChangeEvent deleted(Long userId) {
+        return new UserChangeEvent(Type.DELETED, userId, null, null);
+    }
+
+    public UserChangeEvent withCommittedAt(Instant committedAt) {
+        return new UserChangeEvent(type, userId, userName, email, committedAt);
+    }
+
+    // Fusiona dos eventos pendientes del mismo usuario en uno solo.
+    // Devuelve null cuando se anulan entre sí (creado y borrado antes de publicarse),
+    // lo que permite usarlo directamente con Map.merge.
+    public static UserChangeEvent coalesce(UserChangeEvent previous, UserChangeEvent next) {
+        switch (previous.type()) {
+            case CREATED:
+                if (next.type() == Type.DELETED) {
+                    return null;
+                }
+                // Sigue siendo una creación (confirmada cuando la primera), pero con los datos más recientes.
+                return new UserChangeEvent(Type.CREATED, next.userId(), next.userName(), next.email(),
+                        previous.committedAt());
+            case DELETED:
+                // Un id borrado no vuelve a crearse; si llega otro evento lo tratamos como actualización.
+                return next.type() == Type.DELETED ? previous
+                        : new UserChangeEvent(Type.UPDATED, next.userId(), next.userName(), next.email(),
+                                next.committedAt());
+            default:
+                return next.type() == Type.CREATED
+                        ? new UserChangeEvent(Type.UPDATED, next.userId(), next.userName(), next.email(),
+                                next.committedAt())
+                        : next;
+        }
+    }
+}
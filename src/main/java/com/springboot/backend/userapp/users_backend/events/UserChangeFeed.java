@@ -0,0 +1,340 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+// Feed de cambios de usuarios para los clientes SSE de /api/users/events.
+
+// PUNTOS CLAVE:
+// Se alimenta del InvalidationBus, así que solo emite cambios ya confirmados (y también los de otros nodos con la outbox).
+// Guarda los últimos N eventos en un buffer circular para reanudar con Last-Event-ID.
+// Los ids de evento son "<epoch>:<secuencia>"; si el epoch no coincide (otro nodo o reinicio) o el
+// id ya no está en el buffer, el cliente recibe un evento "reset" y debe volver a pedir la lista.
+// Cada cliente tiene una cola acotada; si se llena porque el cliente no lee, se le desconecta.
+// Las conexiones abiertas no ocupan hilos: SseEmitter usa el modo asíncrono del servlet y los envíos
+// se hacen desde un pool pequeño compartido.
+// emitter.send bloquea mientras el socket no admite más datos. Un envío que dura más de
+// write-timeout desconecta al cliente y el pool crece un hilo mientras ese envío siga bloqueado,
+// así un cliente TCP atascado no deja sin enviar al resto. El hilo atascado se libera cuando
+// vence el timeout de escritura del contenedor.
+// Los métodos del emitter son synchronized: solo lo cierra un hilo que no esté enviando (el
+// propio hilo de envío si hay uno en curso), nunca quien publica los eventos.
+@Component
+public class UserChangeFeed implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    // Evento especial que se envía como comentario para mantener viva la conexión.
+    private static final FeedEvent HEARTBEAT = new FeedEvent(-1, null, null);
+
+    private static final FeedEvent RESET = new FeedEvent(-2, null, null);
+
+    // Motivo de cierre de un cliente desconectado sin error.
+    private static final Throwable CLOSED = new Throwable("closed", null, false, false) {
+    };
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private final FeedEvent[] buffer;
+
+    // Número de secuencia del último evento publicado; protegido por el lock del buffer.
+    private long lastSequence;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor sender;
+
+    private final int senderThreads;
+
+    // Hilos atascados en un envío de un cliente ya desconectado.
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+
+    private final int clientQueueCapacity;
+
+    private final long timeoutMillis;
+
+    private final long writeTimeoutNanos;
+
+    public UserChangeFeed(InvalidationBus invalidationBus,
+            @Value("${users.events.replay-buffer-size:1024}") int replayBufferSize,
+            @Value("${users.events.client-queue-size:256}") int clientQueueCapacity,
+            @Value("${users.events.sender-threads:2}") int senderThreads,
+            @Value("${users.events.timeout:PT30M}") Duration timeout,
+            @Value("${users.events.write-timeout:PT10S}") Duration writeTimeout) {
+        this.buffer = new FeedEvent[replayBufferSize];
+        this.clientQueueCapacity = clientQueueCapacity;
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.senderThreads = senderThreads;
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "user-events-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        invalidationBus.subscribe(this);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        clients.forEach(client -> disconnect(client, CLOSED));
+        sender.shutdownNow();
+    }
+
+    public int connectedClients() {
+        return clients.size();
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        Client client = new Client(emitter, new ArrayBlockingQueue<>(clientQueueCapacity));
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(e -> clients.remove(client));
+
+        // La repetición y el alta del cliente se hacen bajo el mismo lock que la publicación,
+        // así ningún evento se pierde ni llega dos veces entre ambas.
+        synchronized (buffer) {
+            for (FeedEvent event : replay(lastEventId)) {
+                if (!client.queue.offer(event)) {
+                    // La repetición no cabe en la cola: es más barato que el cliente recargue la lista.
+                    client.queue.clear();
+                    client.queue.offer(RESET);
+                    break;
+                }
+            }
+            clients.add(client);
+        }
+        drain(client);
+        return emitter;
+    }
+
+    @Override
+    public void onInvalidation(List<UserChangeEvent> events) {
+        synchronized (buffer) {
+            for (UserChangeEvent event : events) {
+                FeedEvent feedEvent = new FeedEvent(++lastSequence, event.type(), event.userId());
+                buffer[(int) (feedEvent.sequence() % buffer.length)] = feedEvent;
+                for (Client client : clients) {
+                    if (!client.queue.offer(feedEvent)) {
+                        log.debug("Cliente SSE desconectado por no leer los eventos a tiempo");
+                        disconnect(client, CLOSED);
+                    }
+                }
+            }
+        }
+        clients.forEach(this::drain);
+    }
+
+    // Comentario periódico para que proxies y balanceadores no cierren las conexiones inactivas.
+    @Scheduled(fixedDelayString = "${users.events.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        for (Client client : clients) {
+            if (client.queue.offer(HEARTBEAT)) {
+                drain(client);
+            }
+        }
+    }
+
+    // Desconecta a los clientes con un envío bloqueado más de write-timeout. Su hilo sigue
+    // atascado hasta que el socket falle, así que se añade otro al pool mientras tanto.
+    @Scheduled(fixedDelayString = "${users.events.write-timeout-check-ms:1000}")
+    public void evictStalledClients() {
+        long now = System.nanoTime();
+        for (Client client : clients) {
+            // Con el lock del cliente el envío no puede terminar a medias de marcarlo como atascado.
+            synchronized (client) {
+                long since = client.sendingSince;
+                if (since == 0 || now - since <= writeTimeoutNanos || client.stalled) {
+                    continue;
+                }
+                client.stalled = true;
+            }
+            log.debug("Cliente SSE desconectado: envío bloqueado más de {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+            resizeSender(stalledSenders.incrementAndGet());
+            disconnect(client, CLOSED);
+        }
+    }
+
+    // Devuelve los eventos posteriores a lastEventId que siguen en el buffer,
+    // o un único RESET si no se puede reanudar desde ese punto.
+    private List<FeedEvent> replay(String lastEventId) {
+        List<FeedEvent> events = new ArrayList<>();
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return events;
+        }
+        long from = parseSequence(lastEventId);
+        long oldest = Math.max(1, lastSequence - buffer.length + 1);
+        if (from < 0 || from > lastSequence || from < oldest - 1) {
+            events.add(RESET);
+            return events;
+        }
+        for (long sequence = from + 1; sequence <= lastSequence; sequence++) {
+            events.add(buffer[(int) (sequence % buffer.length)]);
+        }
+        return events;
+    }
+
+    private long parseSequence(String lastEventId) {
+        int separator = lastEventId.indexOf(':');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Quita al cliente del feed. Si no hay un envío en curso se cierra el emitter ahora; si lo
+    // hay, lo cierra el hilo de envío al terminar (así nunca se espera al lock del emitter).
+    private void disconnect(Client client, Throwable reason) {
+        clients.remove(client);
+        client.queue.clear();
+        client.closing = reason;
+        // Quedarse con draining (y no soltarlo) impide que se programen más envíos.
+        if (client.draining.compareAndSet(false, true)) {
+            close(client);
+        }
+    }
+
+    private void close(Client client) {
+        Throwable reason = client.closing;
+        if (reason == CLOSED) {
+            client.emitter.complete();
+        } else {
+            client.emitter.completeWithError(reason);
+        }
+    }
+
+    // Programa el envío de la cola del cliente; como mucho una tarea por cliente a la vez.
+    private void drain(Client client) {
+        if (client.queue.isEmpty() || !client.draining.compareAndSet(false, true)) {
+            return;
+        }
+        sender.execute(() -> {
+            try {
+                FeedEvent event;
+                while (client.closing == null && (event = client.queue.poll()) != null) {
+                    client.sendingSince = System.nanoTime();
+                    send(client.emitter, event);
+                    client.sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se ha ido o el emitter ya estaba cerrado.
+                disconnect(client, e);
+            } finally {
+                boolean wasStalled;
+                synchronized (client) {
+                    client.sendingSince = 0;
+                    wasStalled = client.stalled;
+                    client.stalled = false;
+                }
+                if (wasStalled) {
+                    resizeSender(stalledSenders.decrementAndGet());
+                }
+            }
+            if (client.closing != null) {
+                // Desconectado mientras enviábamos: draining se queda a true.
+                close(client);
+                return;
+            }
+            client.draining.set(false);
+            if (client.closing != null && client.draining.compareAndSet(false, true)) {
+                // disconnect llegó justo entre la comprobación anterior y soltar draining.
+                close(client);
+            } else if (clients.contains(client)) {
+                // Puede haber llegado algo justo después de vaciar la cola.
+                drain(client);
+            }
+        });
+    }
+
+    // senderThreads hilos libres más uno por cada envío atascado.
+    private void resizeSender(int stalled) {
+        synchronized (sender) {
+            int size = senderThreads + Math.max(stalled, 0);
+            if (size > sender.getMaximumPoolSize()) {
+                sender.setMaximumPoolSize(size);
+                sender.setCorePoolSize(size);
+            } else {
+                sender.setCorePoolSize(size);
+                sender.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, FeedEvent event) throws IOException {
+        if (event == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("keepalive"));
+        } else if (event == RESET) {
+            emitter.send(SseEmitter.event().id(epoch + ":" + lastSequenceSnapshot()).name("reset").data(""));
+        } else {
+            emitter.send(SseEmitter.event()
+                    .id(epoch + ":" + event.sequence())
+                    .name(event.type().name().toLowerCase())
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private long lastSequenceSnapshot() {
+        synchronized (buffer) {
+            return lastSequence;
+        }
+    }
+
+    // Lo que recibe el cliente en el campo data: {"sequence":15,"type":"UPDATED","userId":3}
+    public record FeedEvent(long sequence, UserChangeEvent.Type type, Long userId) {
+    }
+
+    private static final class Client {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<FeedEvent> queue;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // System.nanoTime() al empezar el envío en curso, 0 si no hay ninguno.
+        private volatile long sendingSince;
+
+        // Desconectado por un envío bloqueado: su hilo cuenta como atascado hasta que vuelva.
+        // Protegido por el lock del cliente (junto con la puesta a 0 final de sendingSince).
+        private boolean stalled;
+
+        // Motivo de la desconexión (CLOSED o el error), null mientras está conectado.
+        private volatile Throwable closing;
+
+        private Client(SseEmitter emitter, BlockingQueue<FeedEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
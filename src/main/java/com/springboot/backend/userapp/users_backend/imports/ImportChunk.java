@@ -0,0 +1,67 @@
+package com.springboot.backend.userapp.users_backend.imports;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Lote de filas que viaja por el pipeline de importación: lectura -> hash -> escritura.
+// lastLine es la última línea del fichero incluida en el lote (válida o no);
+// cuando el lote se confirma pasa a ser el committedLine del ImportJob.
+class ImportChunk {
+
+    private final List<UserImportRow> rows = new ArrayList<>();
+
+    private final List<UserImportRow> rejected = new ArrayList<>();
+
+    // Filas que ya están en su shard por un intento anterior: no se insertan, pero cuentan como importadas.
+    private int alreadyImported;
+
+    private long lastLine;
+
+    void add(UserImportRow row) {
+        if (row.isValid()) {
+            rows.add(row);
+        } else {
+            rejected.add(row);
+        }
+        lastLine = row.line();
+    }
+
+    void skipImported(UserImportRow row) {
+        alreadyImported++;
+        lastLine = row.line();
+    }
+
+    void reject(UserImportRow row) {
+        rejected.add(row);
+    }
+
+    int size() {
+        return rows.size() + rejected.size() + alreadyImported;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    List<UserImportRow> rows() {
+        return rows;
+    }
+
+    List<UserImportRow> rejected() {
+        return rejected;
+    }
+
+    int alreadyImported() {
+        return alreadyImported;
+    }
+
+    long lastLine() {
+        return lastLine;
+    }
+
+    // Sustituye las filas por sus versiones con la contraseña ya cifrada.
+    void replaceRows(List<UserImportRow> hashed) {
+        rows.clear();
+        rows.addAll(hashed);
+    }
+}
@@ -0,0 +1,15 @@
+package com.springboot.backend.userapp.users_backend.imports;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Crea los hilos de escritura de las importaciones y los detiene al cerrar la aplicación.
+@Configuration
+public class UserImportConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    UserImportWriters userImportWriters(@Value("${users.import.max-concurrent:2}") int maxConcurrent) {
+        return new UserImportWriters(maxConcurrent);
+    }
+}
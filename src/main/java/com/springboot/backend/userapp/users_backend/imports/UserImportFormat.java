@@ -0,0 +1,36 @@
+package com.springboot.backend.userapp.users_backend.imports;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+
+// Formatos aceptados por la importación, elegidos por el Content-Type de la petición.
+public enum UserImportFormat {
+
+    CSV(MediaType.valueOf("text/csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    UserImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static Optional<UserImportFormat> fromContentType(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (UserImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public UserRowReader open(InputStream in) {
+        return this == CSV ? new UserRowReader.Csv(in) : new UserRowReader.Ndjson(in);
+    }
+}
@@ -0,0 +1,23 @@
+package com.springboot.backend.userapp.users_backend.imports;
+
+// Una fila del fichero de importación. Si no se ha podido interpretar, error trae el motivo
+// y el resto de campos pueden venir a null.
+public record UserImportRow(long line, String name, String lastName, String email, String userName,
+        String password, boolean admin, String error) {
+
+    public static UserImportRow invalid(long line, String error) {
+        return new UserImportRow(line, null, null, null, null, null, false, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    public UserImportRow withPassword(String password) {
+        return new UserImportRow(line, name, lastName, email, userName, password, admin, error);
+    }
+
+    public UserImportRow withError(String error) {
+        return new UserImportRow(line, name, lastName, email, userName, password, admin, error);
+    }
+}
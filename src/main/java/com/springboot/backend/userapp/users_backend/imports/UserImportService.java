@@ -0,0 +1,527 @@
+package com.springboot.backend.userapp.users_backend.imports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.springboot.backend.userapp.users_backend.audit.AuditAction;
+import com.springboot.backend.userapp.users_backend.audit.AuditLog;
+import com.springboot.backend.userapp.users_backend.entities.ImportJob;
+import com.springboot.backend.userapp.users_backend.entities.ImportRowError;
+import com.springboot.backend.userapp.users_backend.entities.Role;
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.events.InvalidationBus;
+import com.springboot.backend.userapp.users_backend.events.UserChangeEvent;
+import com.springboot.backend.userapp.users_backend.repositories.ImportJobRepository;
+import com.springboot.backend.userapp.users_backend.repositories.ImportRowErrorRepository;
+import com.springboot.backend.userapp.users_backend.repositories.RoleRepository;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+import com.springboot.backend.userapp.users_backend.sharding.UserIdAllocator;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+// Importación masiva de usuarios desde un CSV o NDJSON.
+
+// PROPOSITO:
+// Cargar cientos de miles de usuarios sin pasar uno a uno por POST /api/users,
+// donde cada alta paga el BCrypt y la búsqueda de roles en serie.
+
+// PUNTOS CLAVE:
+// Pipeline de tres etapas conectadas por una cola acotada:
+//   1. Lectura (hilo de la petición): interpreta el fichero línea a línea y valida cada fila.
+//   2. Hash (ForkJoinPool): cifra las contraseñas de cada lote en paralelo.
+//   3. Escritura (un hilo por importación, de UserImportWriters): inserta cada lote en su propia
+//      transacción con JDBC batch. Como mucho hay users.import.max-concurrent importaciones a la vez;
+//      las demás se rechazan (RejectedExecutionException) antes de tocar el ImportJob.
+// La cola solo admite inFlightBatches lotes; si la escritura va por detrás, la lectura espera (back-pressure).
+// El progreso (committedLine) se guarda en la misma transacción que el lote, así una importación
+// que falla se puede reanudar enviando de nuevo el fichero con el mismo jobId.
+// Las filas que no se pueden insertar se guardan en import_row_errors sin abortar el lote.
+// Con sharding cada fila va al shard de su userName: las de otros shards se confirman primero,
+// cada shard en su transacción, y las del shard por defecto junto con los errores y el progreso.
+// Un lote no es atómico entre shards; sin sharding todo sigue siendo una única transacción.
+// Por eso cada shard guarda también su propio progreso (import_shard_progress) en la transacción
+// de sus filas: si después falla la del shard por defecto, al reanudar no se vuelven a insertar
+// (users no tiene claves únicas que lo impidan). Esas filas cuentan como importadas; si la base de
+// datos había rechazado alguna, su error se pierde con la transacción que falló.
+// Cada alta queda en el log de auditoría (CREATED) con el usuario que lanzó la importación. Los
+// huecos de la cola se reservan antes del commit de cada shard, igual que en UserServiceImpl, así
+// que users.audit.queue-capacity tiene que ser mayor que users.import.batch-size.
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_USER = "insert into users (id, name, lastName, email, userName, password) values (?, ?, ?, ?, ?, ?)";
+
+    // Sin sharding el id lo pone AUTO_INCREMENT, como en las altas por JPA.
+    private static final String INSERT_USER_IDENTITY = "insert into users (name, lastName, email, userName, password) values (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_ROLE = "insert into users_roles (user_id, role_id) values (?, ?)";
+
+    private static final String READ_SHARD_PROGRESS = "select committed_line from import_shard_progress where job_id = ?";
+
+    private static final String UPDATE_SHARD_PROGRESS = "update import_shard_progress set committed_line = ? where job_id = ?";
+
+    private static final String INSERT_SHARD_PROGRESS = "insert into import_shard_progress (job_id, committed_line) values (?, ?)";
+
+    // Marca de fin de fichero para el hilo de escritura.
+    private static final Future<ImportChunk> END = CompletableFuture.completedFuture(null);
+
+    private final ImportJobRepository jobRepository;
+
+    private final ImportRowErrorRepository errorRepository;
+
+    private final RoleRepository roleRepository;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final InvalidationBus invalidationBus;
+
+    private final AuditLog auditLog;
+
+    private final ShardTemplate shardTemplate;
+
+    // null sin sharding.
+    private final UserIdAllocator idAllocator;
+
+    private final Validator validator;
+
+    private final ForkJoinPool hashPool;
+
+    private final UserImportWriters writers;
+
+    private final int batchSize;
+
+    private final int inFlightBatches;
+
+    // Importaciones en curso en este nodo; no se permite procesar dos veces el mismo jobId a la vez.
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public UserImportService(ImportJobRepository jobRepository, ImportRowErrorRepository errorRepository,
+            RoleRepository roleRepository, PasswordEncoder passwordEncoder, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, InvalidationBus invalidationBus, AuditLog auditLog,
+            ShardTemplate shardTemplate, ObjectProvider<UserIdAllocator> idAllocator, Validator validator,
+            UserImportWriters writers,
+            @Value("${users.import.batch-size:500}") int batchSize,
+            @Value("${users.import.in-flight-batches:4}") int inFlightBatches,
+            @Value("${users.import.hash-parallelism:0}") int hashParallelism) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.invalidationBus = invalidationBus;
+        this.auditLog = auditLog;
+        this.shardTemplate = shardTemplate;
+        this.idAllocator = idAllocator.getIfAvailable();
+        this.validator = validator;
+        this.writers = writers;
+        this.batchSize = batchSize;
+        this.inFlightBatches = inFlightBatches;
+        // 0 = un hilo por procesador.
+        this.hashPool = new ForkJoinPool(hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    public ImportJob importUsers(String jobId, UserImportFormat format, InputStream body) {
+        if (!running.add(jobId)) {
+            throw new IllegalStateException("La importación " + jobId + " ya está en curso");
+        }
+        if (!writers.tryAcquire()) {
+            running.remove(jobId);
+            throw new RejectedExecutionException("Hay " + writers.maxConcurrent()
+                    + " importaciones en curso; inténtalo más tarde");
+        }
+        try {
+            ImportJob job = jobRepository.findById(jobId).orElseGet(() -> jobRepository.save(new ImportJob(jobId)));
+            if (job.getStatus() == ImportJob.Status.COMPLETED) {
+                return job;
+            }
+            jobRepository.updateStatus(jobId, ImportJob.Status.RUNNING, null, Instant.now());
+
+            // El principal se toma en el hilo de la petición; las filas se escriben en otro hilo.
+            Throwable failure = run(job, format, body, AuditLog.currentPrincipal());
+            if (failure == null) {
+                jobRepository.updateStatus(jobId, ImportJob.Status.COMPLETED, null, Instant.now());
+            } else {
+                log.warn("La importación {} ha fallado; se puede reanudar con el mismo jobId", jobId, failure);
+                jobRepository.updateStatus(jobId, ImportJob.Status.FAILED, truncate(failure.toString()), Instant.now());
+            }
+            return jobRepository.findById(jobId).orElseThrow();
+        } finally {
+            writers.release();
+            running.remove(jobId);
+        }
+    }
+
+    public List<ImportRowError> findErrors(String jobId) {
+        return errorRepository.findTop100ByJobIdOrderByLineAsc(jobId);
+    }
+
+    // Ejecuta el pipeline y devuelve el primer error que lo haya detenido (o null).
+    private Throwable run(ImportJob job, UserImportFormat format, InputStream body, String principal) {
+        long resumeAfter = job.getCommittedLine();
+        // Líneas ya confirmadas en cada shard; en el shard por defecto coinciden con committedLine.
+        long[] shardResumeAfter = new long[shardTemplate.shardCount()];
+        for (int shard = 0; shard < shardResumeAfter.length; shard++) {
+            shardResumeAfter[shard] = shard == ShardTemplate.DEFAULT_SHARD ? resumeAfter
+                    : shardTemplate.onShard(shard, () -> jdbcTemplate.queryForList(READ_SHARD_PROGRESS, Long.class,
+                            job.getId())).stream().findFirst().orElse(0L);
+        }
+        // Cada shard tiene su propia tabla roles.
+        List<RoleIds> roles = new ArrayList<>();
+        for (int shard = 0; shard < shardTemplate.shardCount(); shard++) {
+            roles.add(shardTemplate.onShard(shard, () -> new RoleIds(
+                    roleRepository.findByName("ROLE_USER").map(Role::getId).orElse(null),
+                    roleRepository.findByName("ROLE_ADMIN").map(Role::getId).orElse(null))));
+        }
+
+        BlockingQueue<Future<ImportChunk>> pipeline = new ArrayBlockingQueue<>(inFlightBatches);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Future<?> writer = writers.submit(() -> write(job.getId(), pipeline, roles, principal, failure));
+
+        try (UserRowReader reader = format.open(body)) {
+            ImportChunk chunk = new ImportChunk();
+            UserImportRow row;
+            while (failure.get() == null && (row = reader.next()) != null) {
+                // Al reanudar, las líneas ya confirmadas se leen pero no se procesan.
+                if (row.line() <= resumeAfter) {
+                    continue;
+                }
+                UserImportRow validated = validate(row);
+                if (validated.isValid()
+                        && row.line() <= shardResumeAfter[shardTemplate.shardForUserName(row.userName())]) {
+                    chunk.skipImported(validated);
+                } else {
+                    chunk.add(validated);
+                }
+                if (chunk.size() >= batchSize) {
+                    submit(pipeline, chunk);
+                    chunk = new ImportChunk();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(pipeline, chunk);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            try {
+                pipeline.put(END);
+                writer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e.getCause());
+            }
+        }
+        return failure.get();
+    }
+
+    // Lanza el cifrado del lote en el ForkJoinPool y lo encola para el escritor.
+    // put() bloquea la lectura mientras haya inFlightBatches lotes pendientes.
+    private void submit(BlockingQueue<Future<ImportChunk>> pipeline, ImportChunk chunk) throws InterruptedException {
+        pipeline.put(hashPool.submit(() -> hash(chunk)));
+    }
+
+    private ImportChunk hash(ImportChunk chunk) {
+        // Un parallelStream lanzado desde una tarea del ForkJoinPool se ejecuta en ese mismo pool.
+        chunk.replaceRows(chunk.rows().parallelStream()
+                .map(row -> row.withPassword(passwordEncoder.encode(row.password())))
+                .toList());
+        return chunk;
+    }
+
+    private void write(String jobId, BlockingQueue<Future<ImportChunk>> pipeline, List<RoleIds> roles,
+            String principal, AtomicReference<Throwable> failure) {
+        while (true) {
+            Future<ImportChunk> next;
+            try {
+                next = pipeline.take();
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+                return;
+            }
+            if (next == END) {
+                return;
+            }
+            // Tras un fallo seguimos vaciando la cola para que la lectura no se quede bloqueada.
+            if (failure.get() != null) {
+                next.cancel(true);
+                continue;
+            }
+            try {
+                writeChunk(jobId, next.get(), roles, principal);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e.getCause());
+            } catch (InterruptedException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    private void writeChunk(String jobId, ImportChunk chunk, List<RoleIds> roles, String principal) {
+        Map<Integer, List<UserImportRow>> byShard = new TreeMap<>();
+        for (UserImportRow row : chunk.rows()) {
+            int shard = shardTemplate.shardForUserName(row.userName());
+            byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(row);
+        }
+        List<Inserted> inserted = new ArrayList<>();
+        byShard.forEach((shard, rows) -> {
+            if (shard != ShardTemplate.DEFAULT_SHARD) {
+                inserted.addAll(shardTemplate.onShard(shard, () -> transactionTemplate.execute(status -> {
+                    List<Inserted> users = insert(chunk, rows, shard, roles.get(shard));
+                    saveShardProgress(jobId, chunk.lastLine());
+                    auditAfterCommit(users, principal);
+                    return users;
+                })));
+            }
+        });
+        List<UserImportRow> defaultRows = byShard.getOrDefault(ShardTemplate.DEFAULT_SHARD, List.of());
+        inserted.addAll(shardTemplate.onShard(ShardTemplate.DEFAULT_SHARD, () -> transactionTemplate.execute(status -> {
+            List<Inserted> users = insert(chunk, defaultRows, ShardTemplate.DEFAULT_SHARD,
+                    roles.get(ShardTemplate.DEFAULT_SHARD));
+            auditAfterCommit(users, principal);
+            List<ImportRowError> errors = chunk.rejected().stream()
+                    .map(row -> new ImportRowError(jobId, row.line(), row.error()))
+                    .collect(Collectors.toList());
+            errorRepository.saveAll(errors);
+            jobRepository.updateProgress(jobId, chunk.lastLine(),
+                    inserted.size() + users.size() + chunk.alreadyImported(), errors.size(), Instant.now());
+            return users;
+        })));
+        // Ya confirmado: avisamos al resto de componentes (y nodos) de las altas.
+        for (Inserted user : inserted) {
+            invalidationBus.publish(UserChangeEvent.created(user.id(), user.row().userName(), user.row().email()));
+        }
+    }
+
+    // Registra las altas de la transacción en curso solo si hace commit. Como en UserServiceImpl,
+    // los huecos se reservan en beforeCommit: si el log de auditoría está saturado el lote se
+    // deshace (y la importación se puede reanudar) en lugar de perder sus registros.
+    private void auditAfterCommit(List<Inserted> users, String principal) {
+        if (users.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean reserved;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                auditLog.reserve(users.size());
+                reserved = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!reserved) {
+                    return;
+                }
+                if (status == STATUS_COMMITTED) {
+                    for (Inserted user : users) {
+                        auditLog.recordReserved(AuditAction.CREATED, user.id(), principal);
+                    }
+                } else {
+                    auditLog.cancelReservation(users.size());
+                }
+            }
+        });
+    }
+
+    // En la transacción en curso del shard activo.
+    private void saveShardProgress(String jobId, long line) {
+        if (jdbcTemplate.update(UPDATE_SHARD_PROGRESS, line, jobId) == 0) {
+            jdbcTemplate.update(INSERT_SHARD_PROGRESS, jobId, line);
+        }
+    }
+
+    // Inserta las filas de un shard (usuarios y roles) en la transacción en curso.
+    private List<Inserted> insert(ImportChunk chunk, List<UserImportRow> rows, int shard, RoleIds roles) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Inserted>>) con -> {
+            List<Inserted> result = insertUsers(con, chunk, rows, shard);
+            insertRoles(con, result, roles.user(), roles.admin());
+            return result;
+        });
+    }
+
+    // Intenta insertar las filas con un único executeBatch. Si falla alguna
+    // (por ejemplo una restricción de la base de datos) se vuelve al savepoint y se insertan
+    // una a una para identificar las filas erróneas sin perder el resto.
+    private List<Inserted> insertUsers(Connection con, ImportChunk chunk, List<UserImportRow> rows, int shard)
+            throws SQLException {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Savepoint savepoint = con.setSavepoint();
+        try {
+            List<Inserted> inserted = insertBatch(con, rows, shard);
+            con.releaseSavepoint(savepoint);
+            return inserted;
+        } catch (SQLException e) {
+            con.rollback(savepoint);
+        }
+        List<Inserted> inserted = new ArrayList<>();
+        for (UserImportRow row : rows) {
+            Savepoint rowSavepoint = con.setSavepoint();
+            try {
+                inserted.addAll(insertBatch(con, List.of(row), shard));
+                con.releaseSavepoint(rowSavepoint);
+            } catch (SQLException e) {
+                con.rollback(rowSavepoint);
+                chunk.reject(row.withError(e.getMessage()));
+            }
+        }
+        return inserted;
+    }
+
+    // Con sharding los ids se reservan antes (UserIdAllocator), igual que en las altas por JPA.
+    private List<Inserted> insertBatch(Connection con, List<UserImportRow> rows, int shard) throws SQLException {
+        if (idAllocator == null) {
+            return insertBatchWithIdentity(con, rows);
+        }
+        long[] ids = idAllocator.nextIds(shard, rows.size());
+        List<Inserted> inserted = new ArrayList<>(rows.size());
+        try (PreparedStatement ps = con.prepareStatement(INSERT_USER)) {
+            for (int i = 0; i < rows.size(); i++) {
+                UserImportRow row = rows.get(i);
+                ps.setLong(1, ids[i]);
+                setColumns(ps, 2, row);
+                ps.addBatch();
+                inserted.add(new Inserted(ids[i], row));
+            }
+            ps.executeBatch();
+        }
+        return inserted;
+    }
+
+    // Sin sharding: los ids generados por AUTO_INCREMENT vuelven en el mismo orden que las filas.
+    private List<Inserted> insertBatchWithIdentity(Connection con, List<UserImportRow> rows) throws SQLException {
+        List<Inserted> inserted = new ArrayList<>(rows.size());
+        try (PreparedStatement ps = con.prepareStatement(INSERT_USER_IDENTITY, new String[] { "id" })) {
+            for (UserImportRow row : rows) {
+                setColumns(ps, 1, row);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (UserImportRow row : rows) {
+                    if (!keys.next()) {
+                        throw new SQLException("La base de datos no ha devuelto el id de " + row.userName());
+                    }
+                    inserted.add(new Inserted(keys.getLong(1), row));
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static void setColumns(PreparedStatement ps, int first, UserImportRow row) throws SQLException {
+        ps.setString(first, row.name());
+        ps.setString(first + 1, row.lastName());
+        ps.setString(first + 2, row.email());
+        ps.setString(first + 3, row.userName());
+        ps.setString(first + 4, row.password());
+    }
+
+    private void insertRoles(Connection con, List<Inserted> users, Long roleUser, Long roleAdmin)
+            throws SQLException {
+        if (users.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = con.prepareStatement(INSERT_USER_ROLE)) {
+            for (Inserted user : users) {
+                if (roleUser != null) {
+                    ps.setLong(1, user.id());
+                    ps.setLong(2, roleUser);
+                    ps.addBatch();
+                }
+                if (user.row().admin() && roleAdmin != null) {
+                    ps.setLong(1, user.id());
+                    ps.setLong(2, roleAdmin);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // Aplica las mismas validaciones que POST /api/users (anotaciones de la entidad User).
+    private UserImportRow validate(UserImportRow row) {
+        if (!row.isValid()) {
+            return row;
+        }
+        User user = new User();
+        user.setName(row.name());
+        user.setLastName(row.lastName());
+        user.setEmail(row.email());
+        user.setUserName(row.userName());
+        user.setPassword(row.password());
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return row;
+        }
+        return row.withError(violations.stream()
+                .map(v -> "El campo " + v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private record Inserted(long id, UserImportRow row) {
+    }
+
+    private record RoleIds(Long user, Long admin) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.springboot.backend.userapp.users_backend.imports;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+// Hilos de escritura de las importaciones: uno por importación en curso, como mucho maxConcurrent.
+// Una importación reserva su hilo (tryAcquire) antes de empezar; si no queda ninguno se rechaza
+// en lugar de esperar o de crear otro hilo.
+// No se expone como Executor para no ocupar el lugar del applicationTaskExecutor de Spring Boot.
+public class UserImportWriters {
+
+    private final ThreadPoolExecutor executor;
+
+    private final Semaphore slots;
+
+    public UserImportWriters(int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("users.import.max-concurrent debe ser mayor que 0");
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-import-writer-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        this.slots = new Semaphore(maxConcurrent);
+    }
+
+    public int maxConcurrent() {
+        return executor.getMaximumPoolSize();
+    }
+
+    // false si ya hay maxConcurrent importaciones en curso.
+    public boolean tryAcquire() {
+        return slots.tryAcquire();
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    // Solo tras tryAcquire(): con un permiso siempre hay un hilo libre (o a punto de quedarlo).
+    public Future<?> submit(Runnable writer) {
+        return executor.submit(writer);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.springboot.backend.userapp.users_backend.imports;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+// Lee el fichero de importación línea a línea, sin cargarlo entero en memoria.
+// Cada llamada a next() devuelve la siguiente fila (válida o con su error) o null al terminar.
+public abstract class UserRowReader implements Closeable {
+
+    private final BufferedReader reader;
+
+    private long lineNumber;
+
+    protected UserRowReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public UserImportRow next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            UserImportRow row = parse(lineNumber, line);
+            if (row != null) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    // Devuelve null para las líneas que no son datos (la cabecera del CSV).
+    protected abstract UserImportRow parse(long line, String text);
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // CSV con cabecera: name,lastName,email,userName,password,admin (en cualquier orden; admin es opcional).
+    // Admite campos entre comillas dobles con "" como comilla escapada; no admite saltos de línea dentro de un campo.
+    static class Csv extends UserRowReader {
+
+        private Map<String, Integer> columns;
+
+        Csv(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        protected UserImportRow parse(long line, String text) {
+            List<String> fields = split(text);
+            if (columns == null) {
+                columns = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    columns.put(fields.get(i).trim(), i);
+                }
+                return null;
+            }
+            if (fields.size() < columns.size() - (columns.containsKey("admin") ? 1 : 0)) {
+                return UserImportRow.invalid(line, "Número de columnas incorrecto: " + fields.size());
+            }
+            return new UserImportRow(line, field(fields, "name"), field(fields, "lastName"),
+                    field(fields, "email"), field(fields, "userName"), field(fields, "password"),
+                    Boolean.parseBoolean(field(fields, "admin")), null);
+        }
+
+        private String field(List<String> fields, String name) {
+            Integer index = columns.get(name);
+            return index == null || index >= fields.size() ? null : fields.get(index);
+        }
+
+        private static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    // Un objeto JSON por línea con los mismos campos que el CSV.
+    static class Ndjson extends UserRowReader {
+
+        private static final ObjectReader READER = new ObjectMapper().readerFor(NdjsonUser.class);
+
+        Ndjson(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        protected UserImportRow parse(long line, String text) {
+            try {
+                NdjsonUser user = READER.readValue(text);
+                return new UserImportRow(line, user.name(), user.lastName(), user.email(), user.userName(),
+                        user.password(), user.admin(), null);
+            } catch (JsonProcessingException e) {
+                return UserImportRow.invalid(line, "JSON no válido: " + e.getOriginalMessage());
+            }
+        }
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        record NdjsonUser(String name, String lastName, String email, String userName, String password,
+                boolean admin) {
+        }
+    }
+}
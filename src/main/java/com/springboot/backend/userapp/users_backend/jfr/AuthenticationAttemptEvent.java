@@ -0,0 +1,24 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JwtAuthenticationFilter.attemptAuthentication: lectura de credenciales + AuthenticationManager
+// (incluye la espera en el bulkhead de login y BCrypt).
+@Name("users.AuthenticationAttempt")
+@Label("Authentication Attempt")
+@Category({ "Users", "Security" })
+@Description("Intento de login en JwtAuthenticationFilter")
+@StackTrace(false)
+public class AuthenticationAttemptEvent extends jdk.jfr.Event {
+
+    @Label("User Name Hash")
+    @Description("Primeros 8 bytes del SHA-256 del nombre de usuario (nunca el nombre)")
+    public long userNameHash;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,97 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Duration;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.springboot.backend.userapp.users_backend.services.UserService;
+
+import jdk.jfr.Recording;
+
+// Eventos JFR propios (paquete jfr) y grabación continua.
+
+// PUNTOS CLAVE:
+// Los métodos de UserService se instrumentan con un Advisor (sin AspectJ): se aplica con el
+// mismo mecanismo de proxies que @Transactional y va por fuera de la transacción, así la
+// duración incluye el commit.
+// Con users.jfr.recording.enabled=true (desactivada por defecto) se arranca una grabación en
+// disco con jfr/users.jfc, limitada por antigüedad y tamaño. Se vuelca con
+//   jcmd <pid> JFR.dump name=users-backend filename=users.jfr
+// o al parar la aplicación en users.jfr.recording.directory/destination. La grabación lleva
+// hashes de userName, trazas y las propiedades de la JVM, así que el directorio se crea solo
+// para el usuario del proceso (rwx------ en sistemas POSIX). El resumen de latencias se obtiene con JfrSummary.
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor userServiceJfrAdvisor() {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                // Solo los métodos declarados en la interfaz UserService.
+                return UserService.class.isAssignableFrom(targetClass)
+                        && ClassUtils.hasMethod(UserService.class, method.getName(), method.getParameterTypes());
+            }
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new UserServiceEventInterceptor());
+        // Antes que el advisor de transacciones (LOWEST_PRECEDENCE).
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(name = "users.jfr.recording.enabled", havingValue = "true")
+    Recording usersRecording(@Value("${users.jfr.recording.max-age:PT6H}") Duration maxAge,
+            @Value("${users.jfr.recording.max-size:256MB}") DataSize maxSize,
+            @Value("${users.jfr.recording.directory:jfr}") String directory,
+            @Value("${users.jfr.recording.destination:users-backend.jfr}") String destination)
+            throws IOException, ParseException {
+        Path target = ownerOnlyDirectory(Path.of(directory)).resolve(destination);
+        jdk.jfr.Configuration settings;
+        try (Reader reader = new InputStreamReader(new ClassPathResource("jfr/users.jfc").getInputStream(),
+                StandardCharsets.UTF_8)) {
+            settings = jdk.jfr.Configuration.create(reader);
+        }
+        Recording recording = new Recording(settings);
+        recording.setName("users-backend");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        // stop() (al cerrar el contexto) escribe aquí la grabación.
+        recording.setDestination(target);
+        recording.start();
+        return recording;
+    }
+
+    // Crea el directorio (o ajusta uno existente) con permisos solo para el propietario.
+    private static Path ownerOnlyDirectory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwx------"));
+        }
+        return directory;
+    }
+}
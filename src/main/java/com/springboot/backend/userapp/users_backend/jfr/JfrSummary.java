@@ -0,0 +1,103 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// Resume una grabación JFR en histogramas de latencia por tipo de evento propio (users.*).
+// Las llamadas a UserService se separan además por método.
+//
+// Uso: java -cp target/classes com.springboot.backend.userapp.users_backend.jfr.JfrSummary users.jfr
+public final class JfrSummary {
+
+    // Límites superiores (exclusivos) de cada cubeta del histograma, en nanosegundos.
+    private static final long[] BUCKETS = { 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, Long.MAX_VALUE };
+
+    private static final String[] BUCKET_LABELS = { "< 10us", "< 100us", "< 1ms", "< 10ms", "< 100ms", "< 1s",
+            ">= 1s" };
+
+    private static final int BAR_WIDTH = 40;
+
+    private JfrSummary() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: JfrSummary <grabacion.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    // Duraciones (ns) agrupadas por tipo de evento (y método para users.ServiceCall).
+    public static Map<String, List<Long>> summarize(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (!type.startsWith("users.")) {
+                    continue;
+                }
+                String key = event.hasField("method") ? type + " " + event.getString("method") : type;
+                durations.computeIfAbsent(key, k -> new ArrayList<>()).add(event.getDuration().toNanos());
+            }
+        }
+        return durations;
+    }
+
+    public static void print(Map<String, List<Long>> durations, PrintStream out) {
+        if (durations.isEmpty()) {
+            out.println("La grabación no contiene eventos users.*");
+            return;
+        }
+        durations.forEach((key, values) -> {
+            values.sort(null);
+            long[] counts = new long[BUCKETS.length];
+            for (long value : values) {
+                int bucket = 0;
+                while (value >= BUCKETS[bucket]) {
+                    bucket++;
+                }
+                counts[bucket]++;
+            }
+            long max = 0;
+            for (long count : counts) {
+                max = Math.max(max, count);
+            }
+
+            out.printf("%s  n=%d  p50=%s  p90=%s  p99=%s  max=%s%n", key, values.size(),
+                    format(percentile(values, 0.50)), format(percentile(values, 0.90)),
+                    format(percentile(values, 0.99)), format(values.get(values.size() - 1)));
+            for (int i = 0; i < counts.length; i++) {
+                int width = (int) (counts[i] * BAR_WIDTH / max);
+                out.printf("  %-8s %8d %s%n", BUCKET_LABELS[i], counts[i], "#".repeat(width));
+            }
+            out.println();
+        });
+    }
+
+    // Percentil por el método del rango más cercano sobre la lista ya ordenada.
+    private static long percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static String format(long nanos) {
+        if (nanos < 1_000_000L) {
+            return (nanos / 1_000) + "us";
+        }
+        if (nanos < 1_000_000_000L) {
+            return String.format("%.1fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.2fs", nanos / 1_000_000_000.0);
+    }
+}
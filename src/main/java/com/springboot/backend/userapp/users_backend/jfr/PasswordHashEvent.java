@@ -0,0 +1,23 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Cada llamada a BCrypt (encode o matches), ver RecordingPasswordEncoder.
+@Name("users.PasswordHash")
+@Label("Password Hash")
+@Category({ "Users", "Security" })
+@Description("Llamada a BCrypt")
+@StackTrace(false)
+public class PasswordHashEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("encode o matches")
+    public String operation;
+
+    @Label("Matched")
+    public boolean matched;
+}
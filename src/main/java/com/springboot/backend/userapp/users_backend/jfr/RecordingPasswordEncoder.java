@@ -0,0 +1,52 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// PasswordEncoder que delega en otro (BCrypt) y emite un PasswordHashEvent por llamada.
+// Si JFR no está grabando el evento, el coste es una comprobación de un booleano.
+public class RecordingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    public RecordingPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "encode";
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matched = false;
+        try {
+            matched = delegate.matches(rawPassword, encodedPassword);
+            return matched;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "matches";
+                event.matched = matched;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
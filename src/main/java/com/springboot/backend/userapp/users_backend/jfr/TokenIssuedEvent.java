@@ -0,0 +1,20 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JwtAuthenticationFilter.successfulAuthentication: firma del JWT y escritura de la respuesta.
+@Name("users.TokenIssued")
+@Label("Token Issued")
+@Category({ "Users", "Security" })
+@Description("Emisión del JWT tras un login correcto")
+@StackTrace(false)
+public class TokenIssuedEvent extends jdk.jfr.Event {
+
+    @Label("User Name Hash")
+    @Description("Primeros 8 bytes del SHA-256 del nombre de usuario (nunca el nombre)")
+    public long userNameHash;
+}
@@ -0,0 +1,20 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JwtValidationFilter: verificación de firma y lectura de roles de un Bearer token.
+@Name("users.TokenValidation")
+@Label("Token Validation")
+@Category({ "Users", "Security" })
+@Description("Verificación del JWT en JwtValidationFilter")
+@StackTrace(false)
+public class TokenValidationEvent extends jdk.jfr.Event {
+
+    @Label("Outcome")
+    @Description("VALID o el tipo de JwtException (ExpiredJwtException, SignatureException...)")
+    public String outcome;
+}
@@ -0,0 +1,30 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Identificador estable de un nombre de usuario para los eventos JFR:
+// permite agrupar los logins de un mismo usuario sin guardar el nombre en la grabación.
+public final class UserNameHash {
+
+    private UserNameHash() {
+    }
+
+    public static long of(String userName) {
+        if (userName == null) {
+            return 0;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(userName.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 está garantizado en cualquier JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Cada método de UserService, incluida su transacción (ver UserServiceEventInterceptor).
+@Name("users.ServiceCall")
+@Label("User Service Call")
+@Category({ "Users", "Persistence" })
+@Description("Llamada a un método de UserService")
+@StackTrace(false)
+public class UserServiceEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    @Description("Nombre y tipos de parámetros, p. ej. findAll(Pageable,boolean)")
+    public String method;
+
+    @Label("Outcome")
+    @Description("OK o el tipo de la excepción lanzada")
+    public String outcome;
+}
@@ -0,0 +1,47 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Emite un UserServiceEvent por cada llamada a UserService (ver JfrConfig).
+public class UserServiceEventInterceptor implements MethodInterceptor {
+
+    // "findAll(Pageable,boolean)" se calcula una sola vez por método.
+    private final Map<Method, String> signatures = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        UserServiceEvent event = new UserServiceEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        String outcome = "OK";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = signatures.computeIfAbsent(invocation.getMethod(), UserServiceEventInterceptor::signature);
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private static String signature(Method method) {
+        StringJoiner parameters = new StringJoiner(",", method.getName() + "(", ")");
+        for (Class<?> type : method.getParameterTypes()) {
+            parameters.add(type.getSimpleName());
+        }
+        return parameters.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+// Limitador adaptativo de las llamadas en curso a la base de datos.
+
+// PROPOSITO:
+// Con un pool de Hikari fijo y los hilos de los bulkheads, si MySQL se ralentiza las peticiones
+// se acumulan esperando conexión hasta que todas vencen. El limitador mide la latencia de cada
+// llamada y ajusta cuántas deja entrar a la vez: si la latencia sube, el límite baja y lo que
+// sobra se rechaza al momento (503) en vez de alargar la cola.
+
+// PUNTOS CLAVE:
+// - call() no espera nunca: o hay sitio o lanza ConcurrencyLimitExceededException.
+// - El nuevo límite lo calcula un LimitAlgorithm (GradientLimit o AimdLimit) con la latencia
+//   de cada llamada terminada. Los errores transitorios de la base de datos (timeouts, sin
+//   conexión) cuentan como descarte; los demás errores no aportan muestra.
+// - Reentrante por hilo: una llamada a un repositorio dentro de una de UserService no ocupa
+//   otro hueco ni se mide aparte. ShardRoutingUserService queda fuera: no accede a la base de
+//   datos, y los hilos del scatter no comparten el hueco del hilo de la petición, así que cada
+//   llamada a un shard ocupa el suyo.
+// - Métricas: users.limiter.limit, users.limiter.in_flight, users.limiter.rtt (latencia de
+//   referencia del algoritmo) y users.limiter.rejected.
+public class AdaptiveConcurrencyLimiter {
+
+    private static final ThreadLocal<Boolean> HOLDING = new ThreadLocal<>();
+
+    private final LimitAlgorithm algorithm;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter rejected;
+
+    // Valor exacto (lo modifica update) y su parte entera, que es lo que consulta tryAcquire.
+    private double limit;
+
+    private volatile int currentLimit;
+
+    // shards: con sharding un listado ocupa un hueco por shard a la vez; el límite nunca baja de
+    // ahí, o todos los listados se rechazarían.
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, int shards, MeterRegistry registry) {
+        this(algorithm(properties), properties.getInitialLimit(), Math.max(properties.getMinLimit(), shards),
+                properties.getMaxLimit(), registry);
+    }
+
+    AdaptiveConcurrencyLimiter(LimitAlgorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+            MeterRegistry registry) {
+        this.algorithm = algorithm;
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+        this.currentLimit = (int) limit;
+
+        Gauge.builder("users.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Llamadas a la base de datos permitidas a la vez")
+                .register(registry);
+        Gauge.builder("users.limiter.in_flight", inFlight, AtomicInteger::get)
+                .description("Llamadas a la base de datos en curso")
+                .register(registry);
+        TimeGauge.builder("users.limiter.rtt", algorithm, TimeUnit.NANOSECONDS, LimitAlgorithm::estimateNanos)
+                .description("Latencia de referencia con la que se calcula el límite")
+                .register(registry);
+        this.rejected = Counter.builder("users.limiter.rejected")
+                .description("Llamadas rechazadas por superar el límite")
+                .register(registry);
+    }
+
+    private static LimitAlgorithm algorithm(ConcurrencyLimitProperties properties) {
+        return switch (properties.getAlgorithm()) {
+            case AIMD -> new AimdLimit(properties.getLatencyThreshold().toNanos(), properties.getBackoffRatio());
+            case GRADIENT -> new GradientLimit(properties.getTolerance(), properties.getSmoothing(),
+                    properties.getLongWindow());
+        };
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Ejecuta la llamada si hay sitio y alimenta el algoritmo con su latencia.
+    public <T> T call(Supplier<T> task) {
+        try {
+            return invoke(task::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Variante para el interceptor (la llamada puede lanzar excepciones comprobadas).
+    <T> T invoke(Call<T> task) throws Throwable {
+        if (HOLDING.get() != null) {
+            return task.proceed();
+        }
+        int started = tryAcquire();
+        HOLDING.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        try {
+            T result = task.proceed();
+            release(System.nanoTime() - start, started, false);
+            return result;
+        } catch (Throwable e) {
+            if (isDrop(e)) {
+                release(System.nanoTime() - start, started, true);
+            } else {
+                inFlight.decrementAndGet();
+            }
+            throw e;
+        } finally {
+            HOLDING.remove();
+        }
+    }
+
+    // Devuelve las llamadas en curso al entrar (incluida esta).
+    private int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                rejected.increment();
+                throw new ConcurrencyLimitExceededException(currentLimit);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void release(long rttNanos, int started, boolean dropped) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            limit = Math.min(Math.max(algorithm.update(limit, rttNanos, started, dropped), minLimit), maxLimit);
+            currentLimit = (int) limit;
+        }
+    }
+
+    // Errores que indican que la base de datos no da abasto (no los de validación o de datos).
+    private static boolean isDrop(Throwable e) {
+        // TransientDataAccessException incluye QueryTimeoutException; CannotCreateTransaction es
+        // el timeout de Hikari al pedir conexión.
+        return e instanceof TransientDataAccessException || e instanceof CannotCreateTransactionException;
+    }
+
+    @FunctionalInterface
+    interface Call<T> {
+        T proceed() throws Throwable;
+    }
+}
@@ -0,0 +1,33 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+// Límite AIMD (aumento aditivo, reducción multiplicativa), como la ventana de congestión de TCP.
+// Cada llamada más lenta que latencyThreshold, o descartada, multiplica el límite por
+// backoffRatio; cada llamada rápida con el límite en uso lo sube en 1.
+final class AimdLimit implements LimitAlgorithm {
+
+    private final long thresholdNanos;
+
+    private final double backoffRatio;
+
+    private long lastRtt;
+
+    AimdLimit(long thresholdNanos, double backoffRatio) {
+        this.thresholdNanos = thresholdNanos;
+        this.backoffRatio = backoffRatio;
+    }
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        lastRtt = rttNanos;
+        if (dropped || rttNanos > thresholdNanos) {
+            return limit * backoffRatio;
+        }
+        // Solo se sube si el límite se está usando (si no, crecería sin haberse probado).
+        return inFlight * 2 >= limit ? limit + 1 : limit;
+    }
+
+    @Override
+    public long estimateNanos() {
+        return lastRtt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+// El limitador de concurrencia no tiene sitio para otra llamada a la base de datos.
+// Se responde con 503 y Retry-After, igual que un bulkhead saturado.
+// Sin stack trace: bajo sobrecarga se crean muchas y no aportan nada.
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(int limit) {
+        super("Base de datos saturada (límite de concurrencia: " + limit + ")", null, false, false);
+    }
+}
@@ -0,0 +1,23 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.function.SingletonSupplier;
+
+// Pasa cada llamada a UserService y a los repositorios por el limitador (ver ConcurrencyLimiterConfig).
+public class ConcurrencyLimitInterceptor implements MethodInterceptor {
+
+    private final Supplier<AdaptiveConcurrencyLimiter> limiter;
+
+    public ConcurrencyLimitInterceptor(ObjectProvider<AdaptiveConcurrencyLimiter> limiter) {
+        this.limiter = SingletonSupplier.of(limiter::getObject);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        return limiter.get().invoke(invocation::proceed);
+    }
+}
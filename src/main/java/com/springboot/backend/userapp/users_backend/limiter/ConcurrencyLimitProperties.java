@@ -0,0 +1,123 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Configuración del limitador adaptativo de concurrencia hacia la base de datos (users.limiter.*).
+@ConfigurationProperties(prefix = "users.limiter")
+public class ConcurrencyLimitProperties {
+
+    // GRADIENT: compara la latencia reciente con la de referencia y ajusta el límite en proporción.
+    // AIMD: suma 1 mientras la latencia está por debajo de latency-threshold y multiplica por
+    // backoff-ratio cuando la supera o la base de datos da un error transitorio.
+    public enum Algorithm {
+        GRADIENT,
+        AIMD
+    }
+
+    private boolean enabled = true;
+
+    private Algorithm algorithm = Algorithm.GRADIENT;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 2;
+
+    // Por encima del pool de Hikari (10 por defecto) no se gana nada: las llamadas esperarían conexión.
+    private int maxLimit = 50;
+
+    // GRADIENT: latencia reciente admitida respecto a la de referencia antes de reducir el límite.
+    private double tolerance = 2.0;
+
+    // GRADIENT: peso de cada nuevo cálculo del límite (0-1); amortigua las oscilaciones.
+    private double smoothing = 0.2;
+
+    // GRADIENT: muestras que abarca la media de la latencia de referencia.
+    private int longWindow = 600;
+
+    // AIMD
+    private Duration latencyThreshold = Duration.ofMillis(200);
+
+    private double backoffRatio = 0.9;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public Duration getLatencyThreshold() {
+        return latencyThreshold;
+    }
+
+    public void setLatencyThreshold(Duration latencyThreshold) {
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+}
@@ -0,0 +1,70 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+
+import com.springboot.backend.userapp.users_backend.repositories.RoleRepository;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.sharding.ShardRoutingUserService;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Limitador adaptativo delante de la base de datos (users.limiter.*).
+// Como el advisor de JFR, se aplica con un Advisor a los métodos de UserService y de los
+// repositorios de usuarios y roles. Va justo después del de JFR y antes del de transacciones:
+// una llamada rechazada no llega a pedir conexión a Hikari y la latencia medida incluye el commit.
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(name = "users.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimiterConfig {
+
+    private static final List<Class<?>> LIMITED = List.of(UserService.class, UserRepository.class,
+            RoleRepository.class);
+
+    @Bean
+    AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties,
+            ShardTemplate shardTemplate, MeterRegistry registry) {
+        return new AdaptiveConcurrencyLimiter(properties, shardTemplate.shardCount(), registry);
+    }
+
+    // El advisor se crea antes que el resto de beans: el limitador (y su MeterRegistry) se
+    // obtiene en la primera llamada, no al crearlo.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor concurrencyLimitAdvisor(ObjectProvider<AdaptiveConcurrencyLimiter> limiter) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                // Solo reparte entre shards: si ocupara un hueco, cada listado gastaría shards + 1.
+                if (ShardRoutingUserService.class.isAssignableFrom(targetClass)) {
+                    return false;
+                }
+                for (Class<?> type : LIMITED) {
+                    if (type.isAssignableFrom(targetClass)
+                            && ClassUtils.hasMethod(type, method.getName(), method.getParameterTypes())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ConcurrencyLimitInterceptor(limiter));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+}
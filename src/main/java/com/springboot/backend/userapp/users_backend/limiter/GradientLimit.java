@@ -0,0 +1,55 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+// Límite por gradiente de latencia.
+// La latencia de referencia es una media exponencial larga (long-window muestras); el gradiente
+// es referencia * tolerance / latencia de la llamada, acotado entre 0,5 y 1. Con la base de
+// datos sana vale 1 y el límite crece en sqrt(límite) (la cola que se permite formar); si la
+// latencia sube, el gradiente baja y el límite se reduce en proporción, antes de que MySQL
+// llegue a saturarse.
+final class GradientLimit implements LimitAlgorithm {
+
+    private final double tolerance;
+
+    private final double smoothing;
+
+    private final double longFactor;
+
+    // Media exponencial de la latencia (ns); 0 hasta la primera muestra.
+    private double longRtt;
+
+    GradientLimit(double tolerance, double smoothing, int longWindow) {
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longFactor = 2.0 / (Math.max(longWindow, 1) + 1);
+    }
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            return limit / 2;
+        }
+        rttNanos = Math.max(rttNanos, 1);
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+        } else {
+            longRtt += (rttNanos - longRtt) * longFactor;
+        }
+        // Si la latencia lleva tiempo muy por debajo de la referencia (la base de datos se ha
+        // recuperado), la referencia se acerca antes a la realidad para no frenar el crecimiento.
+        if (longRtt / rttNanos > 2) {
+            longRtt *= 0.95;
+        }
+        // Con pocas llamadas en curso la latencia no dice nada del límite: no se sube.
+        if (inFlight < limit / 2) {
+            return limit;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / rttNanos));
+        double next = limit * gradient + Math.sqrt(limit);
+        return limit * (1 - smoothing) + next * smoothing;
+    }
+
+    @Override
+    public long estimateNanos() {
+        return (long) longRtt;
+    }
+}
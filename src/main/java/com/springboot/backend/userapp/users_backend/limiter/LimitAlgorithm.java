@@ -0,0 +1,13 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+// Cálculo del nuevo límite de llamadas en curso a partir de cada llamada terminada.
+// AdaptiveConcurrencyLimiter lo llama de uno en uno: las implementaciones no necesitan sincronizarse.
+interface LimitAlgorithm {
+
+    // limit: límite actual; inFlight: llamadas en curso cuando empezó esta;
+    // dropped: la base de datos no pudo atenderla (timeout, sin conexiones...).
+    double update(double limit, long rttNanos, int inFlight, boolean dropped);
+
+    // Latencia que el algoritmo considera normal (la de referencia), en nanosegundos.
+    long estimateNanos();
+}
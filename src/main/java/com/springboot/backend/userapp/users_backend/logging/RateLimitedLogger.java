@@ -0,0 +1,79 @@
+package com.springboot.backend.userapp.users_backend.logging;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Logger que limita cuántos eventos de un mismo tipo se escriben por intervalo.
+// Pensado para los fallos de autenticación: con tráfico malicioso pueden llegar miles por segundo
+// y escribirlos todos (y mucho menos su stack trace) bloquearía los hilos de las peticiones.
+
+// PUNTOS CLAVE:
+// Cada clave (tipo de evento) tiene su ventana: como máximo maxPerWindow eventos por ventana.
+// Los que se descartan se cuentan y se informa del total al abrir la ventana siguiente.
+// Las claves deben ser constantes (no usar el username ni la IP como clave).
+public class RateLimitedLogger {
+
+    private final Logger logger;
+
+    private final long windowNanos;
+
+    private final int maxPerWindow;
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public RateLimitedLogger(Class<?> type, int maxPerWindow, Duration window) {
+        this.logger = LoggerFactory.getLogger(type);
+        this.maxPerWindow = maxPerWindow;
+        this.windowNanos = window.toNanos();
+    }
+
+    public void warn(String key, String message, Object... args) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        Window window = windows.computeIfAbsent(key, k -> new Window(System.nanoTime()));
+        window.rollIfExpired(key);
+        if (window.count.incrementAndGet() <= maxPerWindow) {
+            logger.warn(message, args);
+        } else {
+            window.suppressed.incrementAndGet();
+        }
+    }
+
+    private final class Window {
+
+        private volatile long start;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        private void rollIfExpired(String key) {
+            long now = System.nanoTime();
+            if (now - start < windowNanos) {
+                return;
+            }
+            synchronized (this) {
+                if (now - start < windowNanos) {
+                    return;
+                }
+                start = now;
+                count.set(0);
+                long dropped = suppressed.getAndSet(0);
+                if (dropped > 0) {
+                    logger.warn("{} eventos '{}' suprimidos en el último intervalo", dropped, key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.springboot.backend.userapp.users_backend.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+// TurboFilter de Logback que deja pasar solo 1 de cada N eventos de un logger (y sus hijos).
+// Se usa para el log de SQL de Hibernate (org.hibernate.SQL): en lugar de escribir cada
+// sentencia en stdout como hacía spring.jpa.show-sql, se registra una muestra.
+// Los hijos se separan con un punto: org.hibernate.SQL_SLOW (consultas lentas) no es hijo
+// de org.hibernate.SQL y se registra siempre.
+
+// Los TurboFilter se ejecutan antes de crear el evento de log, así que los eventos descartados
+// no generan ninguna asignación de memoria ni llegan a la cola del AsyncAppender.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerName;
+
+    private int sampleRate = 100;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        if (!isStarted() || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // format == null corresponde a las llamadas isDebugEnabled() y similares:
+        // no las contamos, si no la muestra se consumiría dos veces por sentencia.
+        if (format == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        return name.startsWith(loggerName)
+                && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.');
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null || sampleRate < 1) {
+            addError("SamplingTurboFilter necesita loggerName y un sampleRate >= 1");
+            return;
+        }
+        super.start();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
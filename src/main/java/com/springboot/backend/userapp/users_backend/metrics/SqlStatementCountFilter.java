@@ -0,0 +1,85 @@
+package com.springboot.backend.userapp.users_backend.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Filtro que mide cuántas sentencias SQL ejecuta cada petición HTTP.
+
+// PUNTOS CLAVE:
+// Abre un SqlStatementCounter al empezar la petición y lo cierra al terminar
+// (en peticiones asíncronas, cuando se completa la respuesta).
+// El total se publica como métrica (http.server.requests.sql.statements) por método y ruta.
+// El contador se deja también como atributo de la petición para que los tests
+// puedan comprobar el presupuesto de sentencias de cada endpoint.
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String COUNTER_ATTRIBUTE = SqlStatementCountFilter.class.getName() + ".COUNTER";
+
+    public static final String METRIC_NAME = "http.server.requests.sql.statements";
+
+    private final MeterRegistry registry;
+
+    public SqlStatementCountFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        AtomicInteger counter = SqlStatementCounter.start();
+        request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.clear();
+            if (request.isAsyncStarted()) {
+                // Petición asíncrona (bulkhead): el trabajo sigue en otro hilo con el mismo
+                // contador y la métrica se registra cuando termina.
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, counter.get());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, counter.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        // Usamos el patrón de la ruta (/api/users/{id}) y no la URI real para no crear una serie por id.
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRIC_NAME)
+                .description("Sentencias SQL ejecutadas por petición")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .register(registry)
+                .record(statements);
+    }
+}
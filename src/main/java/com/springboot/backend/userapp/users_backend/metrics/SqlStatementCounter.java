@@ -0,0 +1,46 @@
+package com.springboot.backend.userapp.users_backend.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Cuenta las sentencias SQL que Hibernate prepara en el hilo actual.
+// Hibernate llama a inspect() antes de preparar cada sentencia JDBC; si hay un contador
+// asociado al hilo (lo abre SqlStatementCountFilter al empezar cada petición) se incrementa.
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger counter = CURRENT.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        // No modificamos la sentencia.
+        return sql;
+    }
+
+    // Abre un contador nuevo para el hilo actual y lo devuelve.
+    public static AtomicInteger start() {
+        AtomicInteger counter = new AtomicInteger();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    // Asocia al hilo actual un contador abierto en otro hilo (tareas de un bulkhead
+    // que trabajan para la misma petición). Con null no se cuenta nada.
+    public static void bind(AtomicInteger counter) {
+        if (counter != null) {
+            CURRENT.set(counter);
+        }
+    }
+
+    public static AtomicInteger current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
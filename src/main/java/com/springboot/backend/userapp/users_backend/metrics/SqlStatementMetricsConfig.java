@@ -0,0 +1,30 @@
+package com.springboot.backend.userapp.users_backend.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class SqlStatementMetricsConfig {
+
+    // Registra el contador como StatementInspector de Hibernate.
+    @Bean
+    HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Bean
+    FilterRegistrationBean<SqlStatementCountFilter> sqlStatementCountFilter(MeterRegistry registry) {
+        FilterRegistrationBean<SqlStatementCountFilter> bean = new FilterRegistrationBean<>(
+                new SqlStatementCountFilter(registry));
+        // Justo después del filtro de CORS y antes de Spring Security,
+        // así también se cuentan las consultas del login.
+        bean.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return bean;
+    }
+}
@@ -0,0 +1,88 @@
+package com.springboot.backend.userapp.users_backend.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+// Conjunto de campos pedido con ?fields=id,userName,email.
+
+// PUNTOS CLAVE:
+// Se interpreta una sola vez por combinación distinta y se guarda en caché; las siguientes
+// peticiones con el mismo parámetro reutilizan la misma instancia.
+// Guarda ya calculado todo lo que necesitan la consulta (columnas a seleccionar) y el serializador
+// (nombres JSON pre-codificados), así cada petición no hace ni parsing ni reflexión.
+public final class FieldSet {
+
+    // Límite de combinaciones en caché, para que un cliente no pueda hacerla crecer sin fin.
+    private static final int MAX_CACHED = 256;
+
+    private static final Map<String, FieldSet> CACHE = new ConcurrentHashMap<>();
+
+    private final List<UserField> fields;
+
+    private final List<UserField> columns;
+
+    private final SerializedString[] names;
+
+    private final boolean roles;
+
+    private FieldSet(EnumSet<UserField> requested) {
+        this.fields = Collections.unmodifiableList(new ArrayList<>(requested));
+        List<UserField> columnList = new ArrayList<>();
+        for (UserField field : requested) {
+            if (field.isColumn()) {
+                columnList.add(field);
+            }
+        }
+        this.columns = Collections.unmodifiableList(columnList);
+        this.names = new SerializedString[fields.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = new SerializedString(fields.get(i).attribute());
+        }
+        this.roles = requested.contains(UserField.ROLES);
+    }
+
+    public static FieldSet parse(String raw) {
+        FieldSet cached = CACHE.get(raw);
+        if (cached != null) {
+            return cached;
+        }
+        EnumSet<UserField> requested = EnumSet.noneOf(UserField.class);
+        for (String name : raw.split(",")) {
+            if (!name.isBlank()) {
+                requested.add(UserField.fromAttribute(name.trim()));
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new InvalidFieldSetException("El parámetro fields no puede estar vacío");
+        }
+        FieldSet fieldSet = new FieldSet(requested);
+        if (CACHE.size() < MAX_CACHED) {
+            CACHE.putIfAbsent(raw, fieldSet);
+        }
+        return fieldSet;
+    }
+
+    // Campos en el orden en que se escriben en el JSON (el del enum, no el de la petición).
+    public List<UserField> fields() {
+        return fields;
+    }
+
+    // Campos que son columnas de la tabla users (todos menos roles).
+    public List<UserField> columns() {
+        return columns;
+    }
+
+    public SerializedString name(int index) {
+        return names[index];
+    }
+
+    public boolean includesRoles() {
+        return roles;
+    }
+}
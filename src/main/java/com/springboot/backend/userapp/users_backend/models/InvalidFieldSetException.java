@@ -0,0 +1,10 @@
+package com.springboot.backend.userapp.users_backend.models;
+
+// El parámetro fields contiene un campo que no existe o no se puede pedir.
+public class InvalidFieldSetException extends IllegalArgumentException {
+
+    public InvalidFieldSetException(String message) {
+        super(message);
+    }
+
+}
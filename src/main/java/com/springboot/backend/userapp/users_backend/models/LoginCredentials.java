@@ -0,0 +1,9 @@
+package com.springboot.backend.userapp.users_backend.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// Cuerpo de POST /login. Solo las dos credenciales: no hace falta construir una entidad User
+// completa para autenticar. Se ignoran otros campos que pueda enviar el cliente.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LoginCredentials(String userName, String password) {
+}
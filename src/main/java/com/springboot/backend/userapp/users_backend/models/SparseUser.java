@@ -0,0 +1,43 @@
+package com.springboot.backend.userapp.users_backend.models;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.springboot.backend.userapp.users_backend.entities.Role;
+
+// Usuario con solo los campos pedidos en ?fields=.
+// values sigue el orden de fieldSet.fields(); la posición de roles (si se pidió) va a null
+// y su valor está en roles.
+// id se guarda siempre (aunque no se haya pedido) para poder mezclar por id los resultados de
+// varios shards; solo se serializa si está en el FieldSet.
+@JsonSerialize(using = SparseUser.Serializer.class)
+public record SparseUser(Long id, FieldSet fieldSet, Object[] values, List<Role> roles) {
+
+    // Escribe directamente los valores con los nombres ya codificados del FieldSet,
+    // sin introspección de la clase User.
+    public static class Serializer extends StdSerializer<SparseUser> {
+
+        public Serializer() {
+            super(SparseUser.class);
+        }
+
+        @Override
+        public void serialize(SparseUser user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            FieldSet fieldSet = user.fieldSet();
+            gen.writeStartObject();
+            for (int i = 0; i < fieldSet.fields().size(); i++) {
+                gen.writeFieldName(fieldSet.name(i));
+                if (fieldSet.fields().get(i) == UserField.ROLES) {
+                    provider.defaultSerializeValue(user.roles(), gen);
+                } else {
+                    provider.defaultSerializeValue(user.values()[i], gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.springboot.backend.userapp.users_backend.models;
+
+// Campos de User que se pueden pedir con ?fields= en los listados.
+// El nombre coincide con el atributo de la entidad y con la clave JSON.
+public enum UserField {
+
+    ID("id"),
+    NAME("name"),
+    LAST_NAME("lastName"),
+    EMAIL("email"),
+    USER_NAME("userName"),
+    // Colección: no es una columna de users, se carga aparte y solo si se pide.
+    ROLES("roles");
+
+    private final String attribute;
+
+    UserField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public boolean isColumn() {
+        return this != ROLES;
+    }
+
+    public static UserField fromAttribute(String attribute) {
+        for (UserField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        throw new InvalidFieldSetException("Campo desconocido: " + attribute);
+    }
+}
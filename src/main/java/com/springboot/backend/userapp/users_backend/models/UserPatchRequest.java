@@ -0,0 +1,68 @@
+package com.springboot.backend.userapp.users_backend.models;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+// Cuerpo de PATCH /api/users/{id}.
+// A diferencia de UserRequest todos los campos son opcionales: null significa "no cambiar".
+public class UserPatchRequest {
+
+    // Ningún campo que se envíe puede estar en blanco (como @NotBlank en User).
+    @Pattern(regexp = ".*\\S.*")
+    private String name;
+
+    @Pattern(regexp = ".*\\S.*")
+    private String lastName;
+
+    @Email
+    @Pattern(regexp = ".*\\S.*")
+    private String email;
+
+    @Pattern(regexp = ".*\\S.*")
+    @Size(min = 4, max = 12)
+    private String userName;
+
+    private Boolean admin;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public Boolean getAdmin() {
+        return admin;
+    }
+
+    public void setAdmin(Boolean admin) {
+        this.admin = admin;
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.springboot.backend.userapp.users_backend.reactive;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Configuración de la API de lectura reactiva (users.reactive.*).
+@ConfigurationProperties(prefix = "users.reactive")
+public class ReactiveProperties {
+
+    // Desactivada por defecto: abre un segundo pool contra la base de datos y expone rutas
+    // que solo sirven para comparar los dos caminos de lectura.
+    private boolean enabled = false;
+
+    // URL R2DBC de la misma base de datos que spring.datasource.url (r2dbc:mysql://...).
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    // Conexiones del pool R2DBC, independiente del pool Hikari de JPA.
+    private int maxPoolSize = 20;
+
+    // Tiempo máximo de una lectura; al superarlo se responde 503.
+    private Duration timeout = Duration.ofSeconds(3);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
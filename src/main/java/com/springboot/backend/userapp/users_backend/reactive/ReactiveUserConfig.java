@@ -0,0 +1,70 @@
+package com.springboot.backend.userapp.users_backend.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import com.springboot.backend.userapp.users_backend.services.UserCountTracker;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+// API de lectura reactiva bajo /reactive/api/users, junto a la de UserController.
+
+// PROPOSITO:
+// Comparar, con la misma carga, cuántas peticiones concurrentes atiende cada núcleo con el
+// camino bloqueante (JPA + bulkhead) y con uno sin bloqueos (R2DBC).
+
+// PUNTOS CLAVE:
+// - Endpoints funcionales de Spring MVC que responden de forma asíncrona con un Mono: pasan por
+//   la misma cadena de Spring Security, así que el token lo valida el mismo JwtValidationFilter.
+// - El pool R2DBC es propio (users.reactive.*) y no se registra como ConnectionFactory de Spring
+//   Boot: así la inicialización SQL y las transacciones siguen siendo las de JDBC/JPA.
+// - Solo lecturas; las escrituras siguen en UserServiceImpl.
+// - Sin sharding: con users.sharding.enabled=true estos endpoints no se registran.
+// - Desactivada por defecto (users.reactive.enabled=false): se activa solo para la comparación.
+@Configuration
+@EnableConfigurationProperties(ReactiveProperties.class)
+@ConditionalOnExpression("${users.reactive.enabled:false} and !${users.sharding.enabled:false}")
+public class ReactiveUserConfig {
+
+    @Bean(destroyMethod = "close")
+    ReactiveUserRepository reactiveUserRepository(ReactiveProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null && !properties.getPassword().isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("reactive-users")
+                .maxSize(properties.getMaxPoolSize())
+                .maxAcquireTime(properties.getTimeout())
+                .build());
+        return new ReactiveUserRepository(pool);
+    }
+
+    @Bean
+    ReactiveUserHandler reactiveUserHandler(ReactiveUserRepository repository, UserCountTracker countTracker,
+            ReactiveProperties properties) {
+        return new ReactiveUserHandler(repository, countTracker, properties.getTimeout());
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> reactiveUserRoutes(ReactiveUserHandler handler) {
+        return RouterFunctions.route()
+                .path("/reactive/api/users", users -> users
+                        .GET("", handler::list)
+                        .GET("/page/{page:\\d+}", handler::listPageable)
+                        .GET("/{id:\\d+}", handler::findById))
+                .build();
+    }
+}
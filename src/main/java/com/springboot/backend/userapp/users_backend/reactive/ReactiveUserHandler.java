@@ -0,0 +1,74 @@
+package com.springboot.backend.userapp.users_backend.reactive;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import com.springboot.backend.userapp.users_backend.services.UserCountTracker;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Lecturas de /reactive/api/users: mismas respuestas que UserController, sin bulkhead.
+// Cada handler devuelve ServerResponse.async: el hilo de Tomcat se libera en cuanto se lanza
+// la consulta y la respuesta se escribe cuando R2DBC entrega las filas, así que el número de
+// peticiones en curso no depende del número de hilos.
+public class ReactiveUserHandler {
+
+    private final ReactiveUserRepository repository;
+
+    private final UserCountTracker countTracker;
+
+    private final Duration timeout;
+
+    public ReactiveUserHandler(ReactiveUserRepository repository, UserCountTracker countTracker, Duration timeout) {
+        this.repository = repository;
+        this.countTracker = countTracker;
+        this.timeout = timeout;
+    }
+
+    // GET /reactive/api/users
+    public ServerResponse list(ServerRequest request) {
+        return async(repository.findAll().map(users -> ServerResponse.ok().body(users)));
+    }
+
+    // GET /reactive/api/users/page/{page}
+    // Como en UserController, el total es el aproximado de UserCountTracker salvo con exactCount=true.
+    public ServerResponse listPageable(ServerRequest request) {
+        Pageable pageable = PageRequest.of(Integer.parseInt(request.pathVariable("page")), 5);
+        boolean exactCount = request.param("exactCount").map(Boolean::parseBoolean).orElse(false);
+        // countTracker.get() hace un count(*) por JDBC (bloqueante) si aún no se ha contado:
+        // se ejecuta en boundedElastic, no en el hilo de R2DBC ni en el de Tomcat.
+        Mono<Long> total = exactCount ? repository.count()
+                : Mono.fromSupplier(countTracker::get).subscribeOn(Schedulers.boundedElastic());
+        return async(Mono.zip(repository.findPage(pageable), total)
+                .map(page -> ServerResponse.ok().body(new PageImpl<>(page.getT1(), pageable, page.getT2()))));
+    }
+
+    // GET /reactive/api/users/{id}
+    public ServerResponse findById(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        return async(repository.findById(id)
+                .map(user -> ServerResponse.ok().body(user))
+                .switchIfEmpty(Mono.fromSupplier(() -> ServerResponse.status(HttpStatus.NOT_FOUND)
+                        .body(Collections.singletonMap("error", "El usuario no se ha encontrado, id: " + id)))));
+    }
+
+    // Una consulta que supera el timeout se responde como un bulkhead saturado: 503 + Retry-After.
+    private ServerResponse async(Mono<ServerResponse> response) {
+        return ServerResponse.async(response
+                .timeout(timeout)
+                .onErrorResume(TimeoutException.class, e -> Mono.just(ServerResponse
+                        .status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(Collections.singletonMap("error", "La lectura ha superado " + timeout)))));
+    }
+}
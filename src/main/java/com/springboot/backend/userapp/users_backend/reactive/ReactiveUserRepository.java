@@ -0,0 +1,115 @@
+package com.springboot.backend.userapp.users_backend.reactive;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.springboot.backend.userapp.users_backend.entities.Role;
+import com.springboot.backend.userapp.users_backend.entities.User;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Lecturas de users y users_roles con R2DBC: ninguna consulta bloquea un hilo mientras
+// espera a la base de datos.
+// Devuelve las mismas entidades User que el camino JPA (sin sesión de Hibernate detrás), así
+// las dos APIs responden el mismo JSON. Los roles de un conjunto de usuarios se cargan con
+// una consulta por cada ROLES_BATCH_SIZE usuarios (como default_batch_fetch_size en JPA), no una
+// por usuario; así el in (:ids) de GET /reactive/api/users no crece con la tabla (MySQL admite
+// como mucho 65.535 parámetros por sentencia).
+public class ReactiveUserRepository implements AutoCloseable {
+
+    // Ids por consulta de roles, como AuthSnapshotStore.LOAD_BATCH_SIZE.
+    private static final int ROLES_BATCH_SIZE = 500;
+
+    private static final String SELECT_USERS = "select id, name, lastName, email, userName, password from users";
+
+    private static final String SELECT_ROLES = "select ur.user_id, r.id, r.name from users_roles ur"
+            + " join roles r on r.id = ur.role_id where ur.user_id in (:ids)";
+
+    private final ConnectionPool pool;
+
+    private final DatabaseClient client;
+
+    public ReactiveUserRepository(ConnectionPool pool) {
+        this.pool = pool;
+        this.client = DatabaseClient.create(pool);
+    }
+
+    public Mono<List<User>> findAll() {
+        return withRoles(client.sql(SELECT_USERS + " order by id")
+                .map(ReactiveUserRepository::toUser)
+                .all());
+    }
+
+    public Mono<List<User>> findPage(Pageable pageable) {
+        return withRoles(client.sql(SELECT_USERS + " order by id limit :limit offset :offset")
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(ReactiveUserRepository::toUser)
+                .all());
+    }
+
+    public Mono<User> findById(Long id) {
+        return withRoles(client.sql(SELECT_USERS + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .all())
+                .flatMap(users -> Mono.justOrEmpty(users.stream().findFirst()));
+    }
+
+    public Mono<Long> count() {
+        return client.sql("select count(*) from users")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+
+    private Mono<List<User>> withRoles(Flux<User> users) {
+        return users.collectList().flatMap(list -> {
+            if (list.isEmpty()) {
+                return Mono.just(list);
+            }
+            Map<Long, User> byId = new LinkedHashMap<>();
+            list.forEach(user -> byId.put(user.getId(), user));
+            List<Long> ids = new ArrayList<>(byId.keySet());
+            List<List<Long>> batches = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += ROLES_BATCH_SIZE) {
+                batches.add(ids.subList(from, Math.min(from + ROLES_BATCH_SIZE, ids.size())));
+            }
+            // Una consulta detrás de otra: los map() rellenan los mismos User sin sincronizar.
+            return Flux.fromIterable(batches)
+                    .concatMap(batch -> client.sql(SELECT_ROLES)
+                            .bind("ids", batch)
+                            .map(row -> {
+                                Role role = new Role(row.get(2, String.class));
+                                role.setId(row.get(1, Long.class));
+                                byId.get(row.get(0, Long.class)).getRoles().add(role);
+                                return role;
+                            })
+                            .all())
+                    .then(Mono.just(list));
+        });
+    }
+
+    private static User toUser(Readable row) {
+        User user = new User();
+        user.setId(row.get(0, Long.class));
+        user.setName(row.get(1, String.class));
+        user.setLastName(row.get(2, String.class));
+        user.setEmail(row.get(3, String.class));
+        user.setUserName(row.get(4, String.class));
+        user.setPassword(row.get(5, String.class));
+        return user;
+    }
+}
@@ -0,0 +1,33 @@
+package com.springboot.backend.userapp.users_backend.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.springboot.backend.userapp.users_backend.entities.ImportJob;
+
+public interface ImportJobRepository extends CrudRepository<ImportJob, String> {
+
+    // Se ejecuta en la misma transacción que inserta el lote, así el progreso guardado
+    // coincide siempre con lo que realmente está en la base de datos.
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.committedLine = :line, j.importedRows = j.importedRows + :imported, "
+            + "j.failedRows = j.failedRows + :failed, j.updatedAt = :now where j.id = :id")
+    int updateProgress(@Param("id") String id, @Param("line") long line, @Param("imported") long imported,
+            @Param("failed") long failed, @Param("now") Instant now);
+
+    // clearAutomatically: si quien llama mantiene abierto un contexto de persistencia (una transacción
+    // propia, o spring.jpa.open-in-view activado, como en la configuración de los tests), el ImportJob
+    // leído al empezar seguiría en él y findById devolvería el estado anterior a la actualización.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ImportJob j set j.status = :status, j.lastError = :error, j.updatedAt = :now where j.id = :id")
+    int updateStatus(@Param("id") String id, @Param("status") ImportJob.Status status,
+            @Param("error") String error, @Param("now") Instant now);
+
+}
@@ -0,0 +1,13 @@
+package com.springboot.backend.userapp.users_backend.repositories;
+
+import java.util.List;
+
+import org.springframework.data.repository.CrudRepository;
+
+import com.springboot.backend.userapp.users_backend.entities.ImportRowError;
+
+public interface ImportRowErrorRepository extends CrudRepository<ImportRowError, Long> {
+
+    List<ImportRowError> findTop100ByJobIdOrderByLineAsc(String jobId);
+
+}
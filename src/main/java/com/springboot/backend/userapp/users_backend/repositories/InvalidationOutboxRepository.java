@@ -0,0 +1,30 @@
+package com.springboot.backend.userapp.users_backend.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.springboot.backend.userapp.users_backend.entities.InvalidationOutboxEntry;
+
+public interface InvalidationOutboxRepository extends CrudRepository<InvalidationOutboxEntry, Long> {
+
+    List<InvalidationOutboxEntry> findTop100ByIdGreaterThanOrderByIdAsc(Long id);
+
+    List<InvalidationOutboxEntry> findByIdIn(Collection<Long> ids);
+
+    @Query("select max(e.id) from InvalidationOutboxEntry e")
+    Optional<Long> findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query("delete from InvalidationOutboxEntry e where e.createdAt < :limit")
+    int deleteOlderThan(@Param("limit") Instant limit);
+
+}
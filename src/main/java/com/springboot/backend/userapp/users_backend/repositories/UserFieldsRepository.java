@@ -0,0 +1,16 @@
+package com.springboot.backend.userapp.users_backend.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+
+import com.springboot.backend.userapp.users_backend.models.FieldSet;
+import com.springboot.backend.userapp.users_backend.models.SparseUser;
+
+// Consultas de usuarios que solo seleccionan las columnas pedidas con ?fields=.
+public interface UserFieldsRepository {
+
+    // pageable puede ser Pageable.unpaged() para traer todos los usuarios.
+    List<SparseUser> findAll(FieldSet fields, Pageable pageable);
+
+}
@@ -0,0 +1,100 @@
+package com.springboot.backend.userapp.users_backend.repositories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+
+import com.springboot.backend.userapp.users_backend.entities.Role;
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.models.FieldSet;
+import com.springboot.backend.userapp.users_backend.models.SparseUser;
+import com.springboot.backend.userapp.users_backend.models.UserField;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+// Implementación del fragmento UserFieldsRepository (Spring Data la encuentra por el sufijo Impl).
+
+// PUNTOS CLAVE:
+// La consulta es de tipo Tuple con solo las columnas del FieldSet: el SELECT generado no incluye
+// el resto de columnas ni carga entidades User en el contexto de persistencia.
+// Los roles solo se consultan si se piden, con una consulta por cada ROLES_BATCH_SIZE usuarios
+// (una sola para una página); el listado sin paginar no mete toda la tabla en un mismo in (:ids).
+public class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    // Ids por consulta de roles, como ReactiveUserRepository y AuthSnapshotStore.
+    private static final int ROLES_BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SparseUser> findAll(FieldSet fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+
+        // El id siempre se selecciona (posición 0): hace falta para cargar los roles y mezclar shards.
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id"));
+        for (UserField column : fields.columns()) {
+            selections.add(root.get(column.attribute()));
+        }
+        query.multiselect(selections).orderBy(cb.asc(root.get("id")));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Tuple> rows = typedQuery.getResultList();
+
+        Map<Long, List<Role>> roles = fields.includesRoles() ? findRoles(rows) : Map.of();
+
+        List<SparseUser> users = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long id = (Long) row.get(0);
+            Object[] values = new Object[fields.fields().size()];
+            int column = 1;
+            for (int i = 0; i < values.length; i++) {
+                UserField field = fields.fields().get(i);
+                if (field.isColumn()) {
+                    values[i] = row.get(column++);
+                }
+            }
+            users.add(new SparseUser(id, fields, values,
+                    fields.includesRoles() ? roles.getOrDefault(id, List.of()) : null));
+        }
+        return users;
+    }
+
+    private Map<Long, List<Role>> findRoles(List<Tuple> rows) {
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            ids.add((Long) row.get(0));
+        }
+        Map<Long, List<Role>> roles = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ROLES_BATCH_SIZE) {
+            List<Object[]> pairs = entityManager
+                    .createQuery("select u.id, r from User u join u.roles r where u.id in :ids", Object[].class)
+                    .setParameter("ids", ids.subList(from, Math.min(from + ROLES_BATCH_SIZE, ids.size())))
+                    .getResultList();
+            for (Object[] pair : pairs) {
+                roles.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((Role) pair[1]);
+            }
+        }
+        return roles;
+    }
+}
@@ -2,16 +2,40 @@ package com.springboot.backend.userapp.users_backend.repositories;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.springboot.backend.userapp.users_backend.entities.User;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends CrudRepository<User, Long>, UserFieldsRepository {
 
+    // Las páginas se ordenan por id, como los campos parciales (UserFieldsRepository), la API
+    // reactiva y la mezcla de shards: sin ORDER BY, LIMIT/OFFSET puede repetir o saltarse usuarios.
+    @Query(value = "select u from User u order by u.id", countQuery = "select count(u) from User u")
     Page<User> findAll(Pageable pageable);
 
+    // Solo el contenido de la página, sin el count(*) que lanza findAll(Pageable).
+    @Query("select u from User u order by u.id")
+    List<User> findPage(Pageable pageable);
+
     Optional<User> findByUserName(String name);
 
+    // Comprobaciones de disponibilidad (UserAvailabilityIndex) sin cargar la entidad.
+    boolean existsByUserName(String userName);
+
+    boolean existsByEmail(String email);
+
+    // Borrado en una sola sentencia, sin cargar antes la entidad.
+    // Devuelve el número de filas afectadas (0 si el usuario no existía).
+    // Es nativa porque el DELETE masivo de JPQL limpia antes la tabla users_roles con otra sentencia;
+    // de eso ya se encarga el ON DELETE CASCADE de la FK (ver @OnDelete en User).
+    @Modifying
+    @Query(value = "delete from users where id = :id", nativeQuery = true)
+    int deleteUserById(@Param("id") Long id);
+
 }
@@ -11,10 +11,13 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.springboot.backend.userapp.users_backend.auth.snapshot.AuthSnapshotStore;
 import com.springboot.backend.userapp.users_backend.entities.User;
 import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
 
 // 1. JpaUserDetailsService
 // Esta clase implementa UserDetailsService, una interfaz central en Spring Security
@@ -32,9 +35,38 @@ public class JpaUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository repository; 
 
-    @Transactional(readOnly = true)
+    @Autowired
+    private ShardTemplate shardTemplate;
+
+    // Snapshot de login fuera del heap (solo con users.auth-snapshot.enabled=true).
+    @Autowired(required = false)
+    private AuthSnapshotStore snapshotStore;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Transacción de solo lectura abierta a mano: con sharding tiene que empezar después de
+    // fijar el shard del usuario, y @Transactional la abriría antes.
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String userName) throws UsernameNotFoundException {
+        // Si el usuario está en el snapshot no hace falta ni shard ni transacción.
+        if (snapshotStore != null) {
+            UserDetails details = snapshotStore.find(userName);
+            if (details != null) {
+                return details;
+            }
+        }
+        // El login solo consulta el shard donde vive ese userName.
+        return shardTemplate.onShard(shardTemplate.shardForUserName(userName),
+                () -> readOnlyTransaction.execute(status -> load(userName)));
+    }
+
+    private UserDetails load(String userName) {
         // Busca al usuario en la base de datos utilizando el método findByUsername del repositorio.
         // Usar Optional te obliga a manejar explícitamente la posibilidad de que el valor no exista, 
         // evitando errores en tiempo de ejecución.
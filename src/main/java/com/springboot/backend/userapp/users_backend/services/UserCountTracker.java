@@ -0,0 +1,135 @@
+package com.springboot.backend.userapp.users_backend.services;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.springboot.backend.userapp.users_backend.events.InvalidationBus;
+import com.springboot.backend.userapp.users_backend.events.InvalidationListener;
+import com.springboot.backend.userapp.users_backend.events.UserChangeEvent;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+// Total de usuarios mantenido en memoria para las respuestas paginadas.
+
+// PROPOSITO:
+// Evitar el SELECT count(*) FROM users de cada página, que en InnoDB recorre un índice entero
+// y suele costar más que traer la propia página.
+
+// PUNTOS CLAVE:
+// Se inicializa con un count(*) y después se ajusta con los eventos del InvalidationBus
+// (+1 por cada alta, -1 por cada baja), incluidos los de otros nodos si el bus es la outbox.
+// Cada cierto tiempo se vuelve a contar para corregir cualquier desviación.
+// Es un valor aproximado: quien necesite el total exacto puede pedirlo (exactCount=true).
+// Con sharding el recuento es la suma de los count(*) de todos los shards.
+// Los eventos llegan con retraso (el bus los agrupa y la outbox se sondea), así que tras un
+// recuento aún pueden llegar altas y bajas que ese count(*) ya incluía. Antes de contar cada
+// shard se anota el momento (countedAt); los eventos de ese shard confirmados antes se ignoran.
+// Los que se confirman después y llegan mientras se cuenta se suman al nuevo total (lateDelta).
+// committedAt viene del reloj del nodo que escribió: con relojes desfasados o un evento confirmado
+// justo al empezar el count(*) puede quedar una diferencia pequeña hasta el siguiente recuento.
+@Component
+public class UserCountTracker implements InvalidationListener {
+
+    private final UserRepository repository;
+
+    private final ShardTemplate shardTemplate;
+
+    // -1 mientras no se ha contado por primera vez.
+    private final AtomicLong count = new AtomicLong(-1);
+
+    // Protege countedAt, counting y lateDelta; nunca se mantiene durante un count(*).
+    private final Object lock = new Object();
+
+    // Por shard, cuándo empezó el count(*) del último recuento terminado.
+    private Instant[] countedAt;
+
+    // Por shard, cuándo empezó el count(*) del recuento en curso (null si aún no se ha contado);
+    // el array es null fuera de un recuento.
+    private Instant[] counting;
+
+    // Altas menos bajas confirmadas después de contar su shard y recibidas durante el recuento en curso.
+    private long lateDelta;
+
+    public UserCountTracker(UserRepository repository, ShardTemplate shardTemplate, InvalidationBus invalidationBus) {
+        this.repository = repository;
+        this.shardTemplate = shardTemplate;
+        this.countedAt = new Instant[shardTemplate.shardCount()];
+        invalidationBus.subscribe(this);
+    }
+
+    public long get() {
+        long current = count.get();
+        if (current < 0) {
+            reconcile();
+            current = count.get();
+        }
+        return Math.max(current, 0);
+    }
+
+    // La primera ejecución (al arrancar) hace de inicialización.
+    @Scheduled(fixedDelayString = "${users.count.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        Instant[] marks = new Instant[shardTemplate.shardCount()];
+        synchronized (lock) {
+            counting = marks;
+            lateDelta = 0;
+        }
+        // Uno detrás de otro: reconcile() también se llama desde hilos que ya están en un scatter.
+        long total = 0;
+        try {
+            for (int shard = 0; shard < marks.length; shard++) {
+                synchronized (lock) {
+                    marks[shard] = Instant.now();
+                }
+                total += shardTemplate.onShard(shard, repository::count);
+            }
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                counting = null;
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            count.set(total + lateDelta);
+            countedAt = marks;
+            counting = null;
+        }
+    }
+
+    @Override
+    public void onInvalidation(List<UserChangeEvent> events) {
+        synchronized (lock) {
+            long delta = 0;
+            for (UserChangeEvent event : events) {
+                long change = event.type() == UserChangeEvent.Type.CREATED ? 1
+                        : event.type() == UserChangeEvent.Type.DELETED ? -1 : 0;
+                if (change == 0) {
+                    continue;
+                }
+                int shard = event.userId() == null ? -1 : shardTemplate.shardForId(event.userId());
+                if (!countedBefore(countedAt, shard, event)) {
+                    delta += change;
+                }
+                if (counting != null && shard >= 0 && counting[shard] != null
+                        && !countedBefore(counting, shard, event)) {
+                    lateDelta += change;
+                }
+            }
+            if (delta != 0) {
+                final long change = delta;
+                // Si aún no se ha contado no hay nada que ajustar: el primer count(*) ya incluirá el cambio.
+                count.updateAndGet(current -> current < 0 ? current : current + change);
+            }
+        }
+    }
+
+    // true si el count(*) que empezó en marks[shard] ya incluía el cambio del evento.
+    private static boolean countedBefore(Instant[] marks, int shard, UserChangeEvent event) {
+        return shard >= 0 && marks[shard] != null && event.committedAt() != null
+                && event.committedAt().isBefore(marks[shard]);
+    }
+}
@@ -8,6 +8,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 
 import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.models.FieldSet;
+import com.springboot.backend.userapp.users_backend.models.SparseUser;
+import com.springboot.backend.userapp.users_backend.models.UserPatchRequest;
 import com.springboot.backend.userapp.users_backend.models.UserRequest;
 
 public interface UserService {
@@ -16,12 +19,23 @@ public interface UserService {
 
     Page<User> findAll(Pageable pageable);
 
+    // Con exactCount=false el total de la página sale de UserCountTracker (sin count(*)).
+    Page<User> findAll(Pageable pageable, boolean exactCount);
+
+    // Variantes con ?fields=: solo se consultan y serializan los campos pedidos.
+    List<SparseUser> findAll(FieldSet fields);
+
+    Page<SparseUser> findAll(FieldSet fields, Pageable pageable, boolean exactCount);
+
     Optional<User> findById(@NonNull Long id);
 
     User save(User user);
 
     Optional<User> update(UserRequest user, Long id);
 
-    void deleteById(Long id);
+    Optional<User> patch(UserPatchRequest user, Long id);
+
+    // Devuelve el número de usuarios borrados (0 o 1).
+    int deleteById(Long id);
 }
 
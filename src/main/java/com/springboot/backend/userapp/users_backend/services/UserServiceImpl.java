@@ -2,18 +2,33 @@ package com.springboot.backend.userapp.users_backend.services;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.springboot.backend.userapp.users_backend.audit.AuditAction;
+import com.springboot.backend.userapp.users_backend.audit.AuditLog;
+import com.springboot.backend.userapp.users_backend.auth.snapshot.AuthSnapshotStore;
+import com.springboot.backend.userapp.users_backend.availability.UserAvailabilityIndex;
 import com.springboot.backend.userapp.users_backend.entities.Role;
 import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.events.InvalidationBus;
+import com.springboot.backend.userapp.users_backend.events.UserChangeEvent;
+import com.springboot.backend.userapp.users_backend.models.FieldSet;
 import com.springboot.backend.userapp.users_backend.models.IUser;
+import com.springboot.backend.userapp.users_backend.models.SparseUser;
+import com.springboot.backend.userapp.users_backend.models.UserPatchRequest;
 import com.springboot.backend.userapp.users_backend.models.UserRequest;
 import com.springboot.backend.userapp.users_backend.repositories.RoleRepository;
 import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
@@ -33,11 +48,29 @@ public class UserServiceImpl implements UserService {
 
     private RoleRepository roleRepository;
 
+    private InvalidationBus invalidationBus;
+
+    private UserCountTracker countTracker;
+
+    private UserAvailabilityIndex availabilityIndex;
+
+    private AuditLog auditLog;
+
+    // Snapshot de login (solo con users.auth-snapshot.enabled=true).
+    private ObjectProvider<AuthSnapshotStore> authSnapshotStore;
+
     // Inyección de dependencias a través del constructor
-    public UserServiceImpl(UserRepository repository, PasswordEncoder passwordEncoder, RoleRepository roleRepository) {
+    public UserServiceImpl(UserRepository repository, PasswordEncoder passwordEncoder, RoleRepository roleRepository,
+            InvalidationBus invalidationBus, UserCountTracker countTracker, UserAvailabilityIndex availabilityIndex,
+            AuditLog auditLog, ObjectProvider<AuthSnapshotStore> authSnapshotStore) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
         this.roleRepository = roleRepository;
+        this.invalidationBus = invalidationBus;
+        this.countTracker = countTracker;
+        this.availabilityIndex = availabilityIndex;
+        this.auditLog = auditLog;
+        this.authSnapshotStore = authSnapshotStore;
     }
 
     // Recordar! ->
@@ -50,20 +83,45 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public Page<User> findAll(Pageable pageable) {
-        return this.repository.findAll(pageable);
+        return initializeRoles(this.repository.findAll(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<User> findAll(Pageable pageable, boolean exactCount) {
+        if (exactCount) {
+            return findAll(pageable);
+        }
+        // PageImpl corrige el total si la página resulta ser la última.
+        return initializeRoles(new PageImpl<>(this.repository.findPage(pageable), pageable, countTracker.get()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SparseUser> findAll(FieldSet fields) {
+        return this.repository.findAll(fields, Pageable.unpaged());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SparseUser> findAll(FieldSet fields, Pageable pageable, boolean exactCount) {
+        long total = exactCount ? this.repository.count() : countTracker.get();
+        return new PageImpl<>(this.repository.findAll(fields, pageable), pageable, total);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<User> findAll() {
         // return (List) this.repository.findAll();
-        return (List<User>) this.repository.findAll();
+        return initializeRoles((List<User>) this.repository.findAll());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findById(@NonNull Long id) {
-        return repository.findById(id);
+        Optional<User> user = repository.findById(id);
+        user.ifPresent(u -> Hibernate.initialize(u.getRoles()));
+        return user;
     }
 
     @Override
@@ -71,7 +129,12 @@ public class UserServiceImpl implements UserService {
     public User save(User user) {
         user.setRoles(getRoles(user));
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return this.repository.save(user);
+        User saved = this.repository.save(user);
+        // Ocupados desde ya en /api/users/availability, sin esperar al evento.
+        availabilityIndex.add(saved.getUserName(), saved.getEmail());
+        publishAfterCommit(UserChangeEvent.created(saved.getId(), saved.getUserName(), saved.getEmail()));
+        auditAfterCommit(AuditAction.CREATED, saved.getId());
+        return saved;
     }
 
     @Override
@@ -83,31 +146,179 @@ public class UserServiceImpl implements UserService {
         // Si el usuario está presente, lo actualiza con los nuevos datos
         if (userOptional.isPresent()) {
             User userDb = userOptional.get(); // Obtiene el usuario de la base de datos
+            boolean renamed = !Objects.equals(user.getUserName(), userDb.getUserName());
             userDb.setName(user.getName()); // Actualiza el nombre
             userDb.setLastName(user.getLastName()); // Actualiza el apellido
             userDb.setEmail(user.getEmail()); // Actualiza el email
             userDb.setUserName(user.getUserName()); // Actualiza el nombre de usuario
 
-            userDb.setRoles(getRoles(user));
-            return Optional.of(repository.save(userDb));
+            // Solo reescribimos users_roles si cambia el rol de administrador.
+            if (updateAdmin(userDb, user.isAdmin()) || renamed) {
+                revokeLoginAfterCommit(userDb.getId());
+            }
+            User saved = repository.save(userDb);
+            availabilityIndex.add(saved.getUserName(), saved.getEmail());
+            publishAfterCommit(UserChangeEvent.updated(saved.getId(), saved.getUserName(), saved.getEmail()));
+            auditAfterCommit(AuditAction.UPDATED, saved.getId());
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
 
     @Override
     @Transactional
-    public void deleteById(Long id) {
-        this.repository.deleteById(id);
+    public Optional<User> patch(UserPatchRequest user, Long id) {
+        Optional<User> userOptional = repository.findById(id);
+        if (userOptional.isEmpty()) {
+            return Optional.empty();
+        }
+        // Solo se modifican los campos enviados. Gracias a @DynamicUpdate en User,
+        // Hibernate genera un UPDATE únicamente con las columnas que han cambiado
+        // (o ninguno si los valores coinciden con los de la base de datos).
+        User userDb = userOptional.get();
+        if (user.getName() != null) {
+            userDb.setName(user.getName());
+        }
+        if (user.getLastName() != null) {
+            userDb.setLastName(user.getLastName());
+        }
+        if (user.getEmail() != null) {
+            userDb.setEmail(user.getEmail());
+        }
+        boolean revoke = false;
+        if (user.getUserName() != null) {
+            revoke = !Objects.equals(user.getUserName(), userDb.getUserName());
+            userDb.setUserName(user.getUserName());
+        }
+        // Los roles solo se cargan y se tocan si el PATCH incluye admin.
+        if (user.getAdmin() != null) {
+            revoke |= updateAdmin(userDb, user.getAdmin());
+        } else {
+            // La respuesta incluye los roles y se serializa fuera de la transacción.
+            Hibernate.initialize(userDb.getRoles());
+        }
+        if (revoke) {
+            revokeLoginAfterCommit(userDb.getId());
+        }
+        availabilityIndex.add(userDb.getUserName(), userDb.getEmail());
+        publishAfterCommit(UserChangeEvent.updated(userDb.getId(), userDb.getUserName(), userDb.getEmail()));
+        auditAfterCommit(AuditAction.UPDATED, userDb.getId());
+        return Optional.of(userDb);
+    }
+
+    @Override
+    @Transactional
+    public int deleteById(Long id) {
+        int deleted = this.repository.deleteUserById(id);
+        // El userName y el email siguen marcados en UserAvailabilityIndex hasta que se reconstruye
+        // (el evento DELETED cuenta para adelantar esa reconstrucción).
+        if (deleted > 0) {
+            revokeLoginAfterCommit(id);
+            publishAfterCommit(UserChangeEvent.deleted(id));
+            auditAfterCommit(AuditAction.DELETED, id);
+        }
+        return deleted;
+    }
+
+    // Los controladores serializan la respuesta en otro hilo (bulkhead), ya sin sesión de
+    // Hibernate: los roles se cargan aquí, dentro de la transacción. Con
+    // default_batch_fetch_size basta una consulta por cada 16 usuarios.
+    private <T extends Iterable<User>> T initializeRoles(T users) {
+        users.forEach(user -> Hibernate.initialize(user.getRoles()));
+        return users;
+    }
+
+    // Reasigna los roles solo cuando el usuario gana o pierde ROLE_ADMIN,
+    // evitando borrar y volver a insertar las filas de users_roles en cada actualización.
+    // Devuelve true si los roles han cambiado.
+    private boolean updateAdmin(User userDb, boolean admin) {
+        boolean isAdmin = userDb.getRoles().stream().anyMatch(role -> "ROLE_ADMIN".equals(role.getName()));
+        if (isAdmin != admin) {
+            userDb.setRoles(getRoles(admin));
+            return true;
+        }
+        return false;
+    }
+
+    // Bajas y cambios de rol o de userName: el snapshot de login de este nodo deja de usar los
+    // datos anteriores en el mismo afterCommit, sin esperar al evento del bus (que lo recargará).
+    private void revokeLoginAfterCommit(Long userId) {
+        AuthSnapshotStore store = authSnapshotStore.getIfAvailable();
+        if (store == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            store.revoke(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                store.revoke(userId);
+            }
+        });
+    }
+
+    // Los eventos solo se publican si la transacción termina en commit;
+    // así ningún nodo invalida su estado por un cambio que acabó en rollback.
+    private void publishAfterCommit(UserChangeEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidationBus.publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidationBus.publish(event);
+            }
+        });
+    }
+
+    // El principal se toma ahora (hilo de la petición o del bulkhead, con su SecurityContext);
+    // el registro solo se encola si la transacción termina en commit.
+    // El hueco en la cola se reserva antes del commit: si el log de auditoría está saturado,
+    // AuditUnavailableException deshace la operación en lugar de perder su registro.
+    private void auditAfterCommit(AuditAction action, Long userId) {
+        String principal = AuditLog.currentPrincipal();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            auditLog.record(action, userId, principal);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean reserved;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                auditLog.reserve();
+                reserved = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!reserved) {
+                    return;
+                }
+                if (status == STATUS_COMMITTED) {
+                    auditLog.recordReserved(action, userId, principal);
+                } else {
+                    auditLog.cancelReservation();
+                }
+            }
+        });
     }
 
     private List<Role> getRoles(IUser user) {
+        return getRoles(user.isAdmin());
+    }
+
+    private List<Role> getRoles(boolean admin) {
         List<Role> roles = new ArrayList<>();
         // 1. Buscar el rol "ROLE_USER" en la base de datos
         Optional<Role> optionalRoleUser = roleRepository.findByName("ROLE_USER");
         // 2. Si el rol existe, añadirlo a la lista de roles del usuario
         optionalRoleUser.ifPresent(role -> roles.add(role));
 
-        if (user.isAdmin()) {
+        if (admin) {
             Optional<Role> optionalRoleAdmin = roleRepository.findByName("ROLE_ADMIN");
             // 2. Si el rol existe, añadirlo a la lista de roles del usuario
             optionalRoleAdmin.ifPresent(role -> roles.add(role));
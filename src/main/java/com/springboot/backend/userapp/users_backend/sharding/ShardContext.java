@@ -0,0 +1,25 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+// Shard activo en el hilo actual. ShardRoutingDataSource lo consulta al pedir una conexión.
+// Sin shard (null) se usa el shard por defecto (0), donde viven también las tablas globales
+// (import_jobs, invalidation_outbox...).
+// Se gestiona a través de ShardTemplate.onShard, que restaura el valor anterior al terminar.
+final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Un pool Hikari por shard, en el orden de users.sharding.shards.
+// Cada shard tiene además un pool de una sola conexión solo para UserIdAllocator: reserva ids
+// mientras la transacción del alta ya tiene una conexión del pool principal, y si la pidiera a
+// ese mismo pool podría quedarse esperando a que otras altas (bloqueadas tras ella) lo liberen.
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+    private final List<HikariDataSource> idDataSources = new ArrayList<>();
+
+    public ShardDataSources(ShardingProperties properties) {
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        if (shards.isEmpty() || shards.size() > ShardedIds.MAX_SHARDS) {
+            throw new IllegalStateException("users.sharding.shards debe tener entre 1 y " + ShardedIds.MAX_SHARDS
+                    + " bases de datos (hay " + shards.size() + ")");
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            dataSources.add(dataSource);
+
+            HikariDataSource ids = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            ids.setPoolName("shard-" + i + "-ids");
+            ids.setMaximumPoolSize(1);
+            ids.setMinimumIdle(0);
+            idDataSources.add(ids);
+        }
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public DataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public List<DataSource> all() {
+        return List.copyOf(dataSources);
+    }
+
+    // Pools de una conexión para reservar ids (ver UserIdAllocator), en el mismo orden.
+    public List<DataSource> idAllocation() {
+        return List.copyOf(idDataSources);
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+        idDataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,33 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// DataSource principal con sharding: cada getConnection() va al shard de ShardContext.
+// Hibernate, Spring Data y JdbcTemplate lo usan sin saber que hay varias bases de datos.
+// El shard se decide al abrir la transacción (cuando se pide la conexión), por eso
+// ShardTemplate.onShard se llama antes de entrar en los métodos @Transactional.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        // Sin shard en el contexto: shard 0. Un shard desconocido es un error, no se redirige.
+        setDefaultTargetDataSource(shards.get(ShardTemplate.DEFAULT_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,176 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.models.FieldSet;
+import com.springboot.backend.userapp.users_backend.models.SparseUser;
+import com.springboot.backend.userapp.users_backend.models.UserPatchRequest;
+import com.springboot.backend.userapp.users_backend.models.UserRequest;
+import com.springboot.backend.userapp.users_backend.services.UserCountTracker;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+
+// UserService con sharding: decide el shard de cada operación y delega en UserServiceImpl,
+// que se ejecuta (con su transacción) sobre ese shard.
+
+// PUNTOS CLAVE:
+// - Las operaciones de un usuario van a un único shard: por id (ShardedIds) o, en las altas,
+//   por el hash del userName.
+// - Los listados se lanzan en paralelo en todos los shards (scatter-gather) y se mezclan por id.
+//   Para la página N cada shard devuelve sus primeros (N+1)*size usuarios: la página global
+//   está necesariamente entre ellos. Las páginas profundas cuestan más; para recorrer toda la
+//   tabla es mejor el listado completo.
+// - El total aproximado (exactCount=false) sigue saliendo de UserCountTracker, que ya suma
+//   todos los shards; el exacto es la suma de los count(*) de cada shard.
+@Service
+@Primary
+@ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+public class ShardRoutingUserService implements UserService {
+
+    private static final Comparator<User> BY_ID = Comparator.comparing(User::getId);
+
+    private final UserService delegate;
+
+    private final ShardTemplate shardTemplate;
+
+    private final UserCountTracker countTracker;
+
+    public ShardRoutingUserService(@Qualifier("userServiceImpl") UserService delegate, ShardTemplate shardTemplate,
+            UserCountTracker countTracker) {
+        this.delegate = delegate;
+        this.shardTemplate = shardTemplate;
+        this.countTracker = countTracker;
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>();
+        shardTemplate.scatter(shard -> delegate.findAll()).forEach(users::addAll);
+        users.sort(BY_ID);
+        return users;
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        return findAll(pageable, true);
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable, boolean exactCount) {
+        // Con el total aproximado se lee antes de lanzar las consultas, fuera de los hilos del scatter.
+        long approximateTotal = exactCount ? -1 : countTracker.get();
+        Pageable window = window(pageable);
+        List<Page<User>> pages = shardTemplate.scatter(shard -> delegate.findAll(window, exactCount));
+        return merge(pages, pageable, approximateTotal, BY_ID);
+    }
+
+    @Override
+    public List<SparseUser> findAll(FieldSet fields) {
+        List<SparseUser> users = new ArrayList<>();
+        shardTemplate.scatter(shard -> delegate.findAll(fields)).forEach(users::addAll);
+        users.sort(Comparator.comparing(SparseUser::id));
+        return users;
+    }
+
+    @Override
+    public Page<SparseUser> findAll(FieldSet fields, Pageable pageable, boolean exactCount) {
+        long approximateTotal = exactCount ? -1 : countTracker.get();
+        Pageable window = window(pageable);
+        List<Page<SparseUser>> pages = shardTemplate.scatter(shard -> delegate.findAll(fields, window, exactCount));
+        return merge(pages, pageable, approximateTotal, Comparator.comparing(SparseUser::id));
+    }
+
+    @Override
+    public Optional<User> findById(@NonNull Long id) {
+        int shard = shardTemplate.shardForId(id);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        return shardTemplate.onShard(shard, () -> delegate.findById(id));
+    }
+
+    @Override
+    public User save(User user) {
+        return shardTemplate.onShard(shardTemplate.shardForUserName(user.getUserName()), () -> delegate.save(user));
+    }
+
+    @Override
+    public Optional<User> update(UserRequest user, Long id) {
+        int shard = shardTemplate.shardForId(id);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        checkSameShard(shard, user.getUserName(), id);
+        return shardTemplate.onShard(shard, () -> delegate.update(user, id));
+    }
+
+    @Override
+    public Optional<User> patch(UserPatchRequest user, Long id) {
+        int shard = shardTemplate.shardForId(id);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        if (user.getUserName() != null) {
+            checkSameShard(shard, user.getUserName(), id);
+        }
+        return shardTemplate.onShard(shard, () -> delegate.patch(user, id));
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        int shard = shardTemplate.shardForId(id);
+        if (shard < 0) {
+            return 0;
+        }
+        return shardTemplate.onShard(shard, () -> delegate.deleteById(id));
+    }
+
+    // El shard de un usuario sale de su userName: un cambio de nombre que lo llevaría a otro
+    // shard obligaría a mover la fila (y cambiar su id), así que se rechaza.
+    private void checkSameShard(int shard, String userName, Long id) {
+        if (shardTemplate.shardForUserName(userName) != shard) {
+            throw new UserShardConflictException(id, userName);
+        }
+    }
+
+    // Primeros offset + size usuarios de cada shard, ordenados por id.
+    private static Pageable window(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        long size = pageable.getOffset() + pageable.getPageSize();
+        return PageRequest.of(0, (int) Math.min(size, Integer.MAX_VALUE), Sort.by("id"));
+    }
+
+    private static <T> Page<T> merge(List<Page<T>> pages, Pageable pageable, long approximateTotal,
+            Comparator<T> order) {
+        List<T> all = new ArrayList<>();
+        long exactTotal = 0;
+        for (Page<T> page : pages) {
+            all.addAll(page.getContent());
+            exactTotal += page.getTotalElements();
+        }
+        all.sort(order);
+        long total = approximateTotal >= 0 ? approximateTotal : exactTotal;
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all, pageable, total);
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(new ArrayList<>(all.subList(from, to)), pageable, total);
+    }
+}
@@ -0,0 +1,62 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Spring Boot solo crea el esquema (ddl-auto) y ejecuta data.sql sobre el DataSource principal,
+// es decir, sobre el shard por defecto. Esta clase repite ambos pasos en el resto de shards.
+// En producción (ddl-auto=none/validate) no hace nada: el esquema de cada shard se gestiona fuera.
+@Component
+@ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+public class ShardSchemaInitializer implements InitializingBean {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ShardTemplate shardTemplate;
+
+    private final ShardDataSources shards;
+
+    private final String ddlAuto;
+
+    private final String sqlInitMode;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory, ShardTemplate shardTemplate,
+            ShardDataSources shards,
+            @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto,
+            @Value("${spring.sql.init.mode:embedded}") String sqlInitMode) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.shardTemplate = shardTemplate;
+        this.shards = shards;
+        this.ddlAuto = ddlAuto;
+        this.sqlInitMode = sqlInitMode;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!"create".equals(ddlAuto) && !"create-drop".equals(ddlAuto)) {
+            return;
+        }
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        for (int shard = ShardTemplate.DEFAULT_SHARD + 1; shard < shardTemplate.shardCount(); shard++) {
+            // Las sentencias DDL usan el DataSource de enrutado, que apunta al shard fijado aquí.
+            shardTemplate.runOnShard(shard, () -> {
+                sessionFactory.getSchemaManager().dropMappedObjects(true);
+                sessionFactory.getSchemaManager().exportMappedObjects(true);
+            });
+            if ("always".equals(sqlInitMode)) {
+                ClassPathResource data = new ClassPathResource("data.sql");
+                if (data.exists()) {
+                    DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(data), shards.get(shard));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.springboot.backend.userapp.users_backend.metrics.SqlStatementCounter;
+
+// Reparto de usuarios entre shards y ejecución de código sobre un shard concreto.
+
+// PUNTOS CLAVE:
+// - Un usuario vive en el shard hash(userName) % shards; su id lleva ese shard en los 6 bits bajos
+//   (ShardedIds), así una búsqueda por id o por userName va directa a una sola base de datos.
+// - onShard fija el shard del hilo mientras se ejecuta la operación; ShardRoutingDataSource lo
+//   usa al abrir la conexión de la transacción.
+// - scatter lanza la misma operación en todos los shards en paralelo y devuelve un resultado por shard.
+// Con un solo shard (sharding desactivado) todo se ejecuta en el hilo actual contra el shard 0.
+public class ShardTemplate {
+
+    public static final int DEFAULT_SHARD = 0;
+
+    private final int shardCount;
+
+    // null con un solo shard.
+    private final ExecutorService scatterExecutor;
+
+    public ShardTemplate(int shardCount, int threadsPerShard) {
+        if (shardCount < 1 || shardCount > ShardedIds.MAX_SHARDS) {
+            throw new IllegalArgumentException("Número de shards fuera de rango: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        if (shardCount > 1) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("shard-scatter-");
+            threadFactory.setDaemon(true);
+            this.scatterExecutor = Executors.newFixedThreadPool(shardCount * Math.max(threadsPerShard, 1), threadFactory);
+        } else {
+            this.scatterExecutor = null;
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardForUserName(String userName) {
+        if (shardCount == 1) {
+            return DEFAULT_SHARD;
+        }
+        return Math.floorMod(mix(userName.hashCode()), shardCount);
+    }
+
+    // -1 si el id no pertenece a ningún shard configurado (no existe).
+    public int shardForId(long id) {
+        if (shardCount == 1) {
+            // Con una sola base de datos también valen los ids anteriores al sharding.
+            return DEFAULT_SHARD;
+        }
+        int shard = ShardedIds.shardOf(id);
+        return shard < shardCount ? shard : -1;
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    // Nombre propio para la variante sin resultado: con una sobrecarga de onShard las
+    // referencias a métodos sobrecargados (repository::deleteAll) serían ambiguas.
+    public void runOnShard(int shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Ejecuta action(shard) en cada shard y devuelve los resultados en orden de shard.
+    // Si alguno falla se propaga su excepción.
+    public <T> List<T> scatter(IntFunction<T> action) {
+        List<T> results = new ArrayList<>(shardCount);
+        if (scatterExecutor == null) {
+            results.add(onShard(DEFAULT_SHARD, () -> action.apply(DEFAULT_SHARD)));
+            return results;
+        }
+        // Las sentencias de todos los shards cuentan para la petición que las lanza.
+        AtomicInteger sqlCounter = SqlStatementCounter.current();
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            final int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                SqlStatementCounter.bind(sqlCounter);
+                try {
+                    return onShard(shard, () -> action.apply(shard));
+                } finally {
+                    SqlStatementCounter.clear();
+                }
+            }, scatterExecutor));
+        }
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    // Mezcla final de MurmurHash3: String.hashCode reparte mal los nombres que solo
+    // difieren en el último carácter (user1, user2...) cuando el número de shards es par.
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,23 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+// Formato de los ids de usuario: id = local * MAX_SHARDS + shard.
+// El shard se recupera con id % MAX_SHARDS, sin consultar ninguna tabla. MAX_SHARDS es fijo
+// (no depende de cuántos shards haya configurados) para que los ids ya emitidos sigan siendo
+// válidos si se añaden shards. Con 64 ranuras los ids siguen siendo seguros como number en
+// JavaScript hasta 2^47 usuarios por shard.
+public final class ShardedIds {
+
+    public static final int MAX_SHARDS = 64;
+
+    private ShardedIds() {
+    }
+
+    public static long compose(long local, int shard) {
+        return local * MAX_SHARDS + shard;
+    }
+
+    // -1 si el id no puede ser de ningún shard (negativo).
+    public static int shardOf(long id) {
+        return id < 0 ? -1 : (int) (id % MAX_SHARDS);
+    }
+}
@@ -0,0 +1,55 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import java.util.EnumSet;
+import java.util.Properties;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+// Generador del id de User (@GenericGenerator).
+// Con sharding pide el siguiente id al UserIdAllocator del shard activo (el mismo al que va la
+// conexión de la transacción). Sin sharding (no hay asignador en la configuración de Hibernate)
+// se comporta como @GeneratedValue(strategy = IDENTITY): el id lo pone AUTO_INCREMENT.
+// Hereda de IdentityGenerator para que Hibernate genere la columna como identidad en los dos
+// casos; con sharding simplemente se inserta un valor explícito.
+public class ShardedUserIdGenerator extends IdentityGenerator implements BeforeExecutionGenerator {
+
+    // null sin sharding.
+    private UserIdAllocator allocator;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object setting = serviceRegistry.requireService(ConfigurationService.class)
+                .getSettings()
+                .get(UserIdAllocator.HIBERNATE_SETTING);
+        this.allocator = setting instanceof UserIdAllocator userIdAllocator ? userIdAllocator : null;
+    }
+
+    @Override
+    public boolean generatedOnExecution() {
+        return allocator == null;
+    }
+
+    @Override
+    public boolean generatedOnExecution(Object owner, SharedSessionContractImplementor session) {
+        return generatedOnExecution();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+            EventType eventType) {
+        Integer shard = ShardContext.current();
+        return allocator.nextId(shard != null ? shard : ShardTemplate.DEFAULT_SHARD);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
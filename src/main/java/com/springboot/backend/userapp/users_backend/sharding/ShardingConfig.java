@@ -0,0 +1,55 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+// Con users.sharding.enabled=true sustituye el DataSource de Spring Boot por un
+// ShardRoutingDataSource sobre los pools de users.sharding.shards.
+// ShardTemplate existe siempre: sin sharding trabaja con un único shard (el DataSource de
+// spring.datasource.*), y el resto del código no distingue los dos casos.
+// UserIdAllocator solo existe con sharding; sin él los ids los sigue poniendo AUTO_INCREMENT.
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+    ShardDataSources shardDataSources(ShardingProperties properties) {
+        return new ShardDataSources(properties);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+    DataSource dataSource(ShardDataSources shards) {
+        return new ShardRoutingDataSource(shards.all());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    ShardTemplate shardTemplate(ShardingProperties properties, ObjectProvider<ShardDataSources> shards) {
+        ShardDataSources dataSources = shards.getIfAvailable();
+        return new ShardTemplate(dataSources != null ? dataSources.size() : 1, properties.getScatterThreadsPerShard());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+    UserIdAllocator userIdAllocator(ShardingProperties properties, ShardDataSources shards) {
+        // Cada shard reserva sus ids en su propia base de datos, no a través del enrutado, y con
+        // un pool propio que nunca queda retenido por una transacción.
+        return new UserIdAllocator(shards.idAllocation(), properties.getIdBlockSize());
+    }
+
+    // El generador del id de User lo crea Hibernate; le llega el asignador por su configuración.
+    @Bean
+    @ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+    HibernatePropertiesCustomizer userIdAllocatorCustomizer(UserIdAllocator allocator) {
+        return properties -> properties.put(UserIdAllocator.HIBERNATE_SETTING, allocator);
+    }
+}
@@ -0,0 +1,110 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Configuración del sharding (users.sharding.*).
+// Con enabled=false (por defecto) se usa el spring.datasource.* de siempre como único shard.
+// Con enabled=true cada entrada de shards es una base de datos; el orden define el número de
+// shard y no debe cambiar una vez emitidos ids.
+@ConfigurationProperties(prefix = "users.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    // Conexiones máximas del pool de cada shard.
+    private int maximumPoolSize = 10;
+
+    // Ids reservados de una vez en user_id_blocks (ver UserIdAllocator).
+    private int idBlockSize = 100;
+
+    // Hilos por shard para las consultas en paralelo (scatter-gather).
+    private int scatterThreadsPerShard = 4;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getIdBlockSize() {
+        return idBlockSize;
+    }
+
+    public void setIdBlockSize(int idBlockSize) {
+        this.idBlockSize = idBlockSize;
+    }
+
+    public int getScatterThreadsPerShard() {
+        return scatterThreadsPerShard;
+    }
+
+    public void setScatterThreadsPerShard(int scatterThreadsPerShard) {
+        this.scatterThreadsPerShard = scatterThreadsPerShard;
+    }
+
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+    }
+}
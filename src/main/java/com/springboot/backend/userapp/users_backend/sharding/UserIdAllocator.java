@@ -0,0 +1,160 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+// Reparte ids de usuario globalmente únicos con sharding: ShardedIds.compose(local, shard).
+// Sin sharding no se usa: los ids los asigna AUTO_INCREMENT (ver ShardedUserIdGenerator).
+
+// PUNTOS CLAVE:
+// - Cada shard tiene su propio contador en la tabla user_id_blocks de su base de datos
+//   (db/mysql/create_user_id_blocks.sql; en H2 la crea Hibernate a partir de UserIdBlock).
+//   Se reserva un bloque de blockSize valores con un UPDATE y el resto se sirve desde memoria,
+//   así solo una de cada blockSize altas toca la tabla (y varios nodos nunca repiten ids).
+// - La reserva usa una conexión propia y se confirma al momento, fuera de la transacción
+//   del alta: un rollback del alta solo deja un hueco en la numeración.
+// - Se llama con la conexión de la transacción del alta ya tomada y con el bloque del shard
+//   bloqueado, así que dataSources debe ser un pool exclusivo para esto
+//   (ShardDataSources.idAllocation()): pedir la conexión al pool de las transacciones puede
+//   esperar hasta connectionTimeout mientras las demás altas lo ocupan esperando al bloqueo.
+// - La primera vez el contador empieza por encima del mayor id existente, para que los
+//   usuarios creados antes (con AUTO_INCREMENT) no choquen con los nuevos.
+// - Con varios nodos cada uno sirve su propio bloque: los ids no se repiten, pero dejan de
+//   seguir el orden de creación entre nodos (ya no lo siguen entre shards).
+public class UserIdAllocator {
+
+    // Clave con la que ShardingConfig deja el asignador en la configuración de Hibernate.
+    public static final String HIBERNATE_SETTING = "users.sharding.id-allocator";
+
+    private static final String RESERVE = "update user_id_blocks set next_value = next_value + ? where shard_id = ?";
+
+    private static final String READ = "select next_value from user_id_blocks where shard_id = ?";
+
+    private static final String MAX_ID = "select max(id) from users";
+
+    private static final String INSERT = "insert into user_id_blocks (shard_id, next_value) values (?, ?)";
+
+    private final Block[] blocks;
+
+    private final int blockSize;
+
+    // dataSources.get(i) es la base de datos del shard i (un pool que no usan las transacciones).
+    public UserIdAllocator(List<DataSource> dataSources, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("users.sharding.id-block-size debe ser mayor que 0");
+        }
+        this.blockSize = blockSize;
+        this.blocks = new Block[dataSources.size()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new Block(i, dataSources.get(i));
+        }
+    }
+
+    public long nextId(int shard) {
+        return blocks[shard].take(1)[0];
+    }
+
+    // count ids del shard. Lo que no cabe en el bloque actual se reserva con un solo UPDATE
+    // (redondeado a múltiplos de blockSize), así un lote de la importación hace como mucho una reserva.
+    public long[] nextIds(int shard, int count) {
+        return blocks[shard].take(count);
+    }
+
+    private final class Block {
+
+        private final int shard;
+
+        private final DataSource dataSource;
+
+        private long next;
+
+        private long end;
+
+        Block(int shard, DataSource dataSource) {
+            this.shard = shard;
+            this.dataSource = dataSource;
+        }
+
+        synchronized long[] take(int count) {
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                if (next >= end) {
+                    int missing = count - i;
+                    reserve((missing + blockSize - 1) / blockSize * blockSize);
+                }
+                ids[i] = ShardedIds.compose(next++, shard);
+            }
+            return ids;
+        }
+
+        private void reserve(int size) {
+            try (Connection con = dataSource.getConnection()) {
+                boolean autoCommit = con.getAutoCommit();
+                con.setAutoCommit(false);
+                try {
+                    end = reserveBlock(con, size);
+                    next = end - size;
+                    con.commit();
+                } catch (SQLException | RuntimeException e) {
+                    con.rollback();
+                    throw e;
+                } finally {
+                    con.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("No se han podido reservar ids de usuario en el shard " + shard, e);
+            }
+        }
+
+        // Devuelve el final (exclusivo) del bloque reservado.
+        private long reserveBlock(Connection con, int size) throws SQLException {
+            while (true) {
+                if (update(con, size) > 0) {
+                    return read(con);
+                }
+                // Primera reserva del shard: se crea el contador. Si otro nodo lo crea a la vez,
+                // el INSERT choca con la clave primaria y se vuelve al UPDATE.
+                long start = firstLocalValue(con);
+                try (PreparedStatement ps = con.prepareStatement(INSERT)) {
+                    ps.setInt(1, shard);
+                    ps.setLong(2, start + size);
+                    ps.executeUpdate();
+                    return start + size;
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    con.rollback();
+                }
+            }
+        }
+
+        private int update(Connection con, int size) throws SQLException {
+            try (PreparedStatement ps = con.prepareStatement(RESERVE)) {
+                ps.setLong(1, size);
+                ps.setInt(2, shard);
+                return ps.executeUpdate();
+            }
+        }
+
+        private long read(Connection con) throws SQLException {
+            try (PreparedStatement ps = con.prepareStatement(READ)) {
+                ps.setInt(1, shard);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        }
+
+        private long firstLocalValue(Connection con) throws SQLException {
+            try (PreparedStatement ps = con.prepareStatement(MAX_ID); ResultSet rs = ps.executeQuery()) {
+                long max = rs.next() ? rs.getLong(1) : 0;
+                return max / ShardedIds.MAX_SHARDS + 1;
+            }
+        }
+    }
+}
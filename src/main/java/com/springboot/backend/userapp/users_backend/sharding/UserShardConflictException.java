@@ -0,0 +1,11 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+// El nuevo userName de un usuario corresponde a otro shard (ver ShardRoutingUserService).
+// Se responde con 409: el cliente tiene que crear el usuario de nuevo con ese nombre.
+public class UserShardConflictException extends RuntimeException {
+
+    public UserShardConflictException(Long id, String userName) {
+        super("No se puede cambiar el userName del usuario " + id + " a '" + userName
+                + "': pertenece a otro shard");
+    }
+}
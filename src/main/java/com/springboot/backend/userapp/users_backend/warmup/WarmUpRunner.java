@@ -0,0 +1,199 @@
+package com.springboot.backend.userapp.users_backend.warmup;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.backend.userapp.users_backend.auth.SecurityJsonCodec;
+import com.springboot.backend.userapp.users_backend.auth.filter.JwtAuthenticationFilter;
+import com.springboot.backend.userapp.users_backend.auth.filter.JwtValidationFilter;
+import com.springboot.backend.userapp.users_backend.bulkhead.Bulkheads;
+import com.springboot.backend.userapp.users_backend.entities.Role;
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.models.FieldSet;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Calentamiento del arranque: ejecuta los caminos calientes antes de recibir tráfico.
+
+// PUNTOS CLAVE:
+// Spring Boot publica ReadinessState.ACCEPTING_TRAFFIC (/actuator/health/readiness en UP)
+// cuando terminan los ApplicationRunner, así que mientras esto se ejecuta el balanceador
+// no envía peticiones al nodo.
+// Recorre: pool de conexiones (Hikari) lleno, BCrypt, emisión y validación de JWT con el
+// código de los filtros, consultas de UserRepository (a través del servicio, con sus
+// transacciones) y serialización JSON/CBOR de páginas de usuarios.
+// El count(*) exacto (exactCount=true) se lanza una sola vez: repetirlo en cada iteración
+// recorrería la tabla cientos de veces en cada despliegue sobre la base de datos compartida.
+// El bucle usa el total aproximado (UserCountTracker) y los campos parciales.
+// La duración total se publica como métrica users.warmup.duration.
+// Un fallo no impide arrancar: se registra y el nodo queda listo igualmente.
+@Component
+@ConditionalOnProperty(name = "users.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    private static final List<GrantedAuthority> ROLES = List.of(new SimpleGrantedAuthority("ROLE_USER"),
+            new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final DataSource dataSource;
+
+    private final UserService service;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper;
+
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+
+    private final JwtAuthenticationFilter authenticationFilter;
+
+    private final JwtValidationFilter validationFilter;
+
+    private final MeterRegistry registry;
+
+    private final int iterations;
+
+    private final int bcryptRounds;
+
+    private final Duration maxDuration;
+
+    public WarmUpRunner(DataSource dataSource, UserService service, PasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter,
+            AuthenticationManager authenticationManager, SecurityJsonCodec codec, Bulkheads bulkheads,
+            MeterRegistry registry,
+            @Value("${users.warmup.iterations:500}") int iterations,
+            @Value("${users.warmup.bcrypt-rounds:3}") int bcryptRounds,
+            @Value("${users.warmup.max-duration:PT30S}") Duration maxDuration) {
+        this.dataSource = dataSource;
+        this.service = service;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.cborConverter = cborConverter;
+        // Instancias propias de los filtros: mismo código que en las peticiones reales.
+        this.authenticationFilter = new JwtAuthenticationFilter(authenticationManager, codec, bulkheads.login());
+        this.validationFilter = new JwtValidationFilter(authenticationManager, codec);
+        this.registry = registry;
+        this.iterations = iterations;
+        this.bcryptRounds = bcryptRounds;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        try {
+            fillConnectionPool();
+            hashPasswords();
+            countUsers();
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                issueAndValidateToken(i);
+                queryUsers(i);
+                serializePages();
+            }
+        } catch (Exception e) {
+            log.warn("Calentamiento interrumpido: {}", e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("users.warmup.duration")
+                .description("Duración del calentamiento del arranque")
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Calentamiento completado en {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    // Abre a la vez tantas conexiones como el mínimo de inactivas del pool: la primera
+    // petición ya no paga el handshake con la base de datos.
+    private void fillConnectionPool() throws Exception {
+        int size = 1;
+        if (dataSource instanceof HikariDataSource hikari) {
+            size = Math.max(1, Math.min(hikari.getMinimumIdle(), hikari.getMaximumPoolSize()));
+        }
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    private void hashPasswords() {
+        for (int i = 0; i < bcryptRounds; i++) {
+            passwordEncoder.matches("warmup", passwordEncoder.encode("warmup"));
+        }
+    }
+
+    private void issueAndValidateToken(int i) throws Exception {
+        String token = authenticationFilter.createToken("warmup" + i, ROLES);
+        UsernamePasswordAuthenticationToken authentication = validationFilter.parseToken(token);
+        authentication.getAuthorities().size();
+    }
+
+    private void countUsers() {
+        service.findAll(PageRequest.of(0, 5), true);
+    }
+
+    private void queryUsers(int i) {
+        Pageable pageable = PageRequest.of(0, 5);
+        service.findAll(pageable, false);
+        service.findAll(FieldSet.parse("id,userName,email"), pageable, false);
+        service.findById((long) -(i + 1));
+    }
+
+    // Serializa una página sintética con roles (la base de datos puede estar vacía)
+    // en JSON y en CBOR, como harían los controladores.
+    private void serializePages() throws Exception {
+        Page<User> page = new PageImpl<>(sampleUsers(), PageRequest.of(0, 5), 100);
+        objectMapper.writeValueAsBytes(page);
+        cborConverter.getObjectMapper().writeValueAsBytes(page);
+    }
+
+    private static List<User> sampleUsers() {
+        List<User> users = new ArrayList<>(5);
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setName("Nombre" + i);
+            user.setLastName("Apellido" + i);
+            user.setEmail("warmup" + i + "@correo.com");
+            user.setUserName("warmup" + i);
+            user.setRoles(List.of(new Role("ROLE_USER")));
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,16 @@
+-- Tabla de la outbox de invalidación (users.invalidation.bus=outbox, ver OutboxInvalidationBus).
+
+-- PUNTOS CLAVE:
+-- El esquema de MySQL se gestiona a mano (sin ddl-auto): hay que crearla antes de activar el bus.
+-- Con sharding solo hace falta en el shard por defecto (shard 0).
+-- El índice de created_at lo usa la purga de filas antiguas (users.invalidation.outbox.retention).
+-- Se puede ejecutar varias veces.
+
+CREATE TABLE IF NOT EXISTS invalidation_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    node_id VARCHAR(36) NOT NULL,
+    payload LONGTEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_invalidation_outbox_created_at (created_at)
+) ENGINE=InnoDB;
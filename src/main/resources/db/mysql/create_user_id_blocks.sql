@@ -0,0 +1,14 @@
+-- Contadores de ids de usuario (ver UserIdAllocator), uno por shard.
+
+-- PUNTOS CLAVE:
+-- Solo hace falta con sharding (users.sharding.enabled=true), en la base de datos de cada shard:
+-- los ids de users ya no los asigna AUTO_INCREMENT sino UserIdAllocator, que reserva bloques en
+-- esta tabla. Sin sharding los ids siguen siendo AUTO_INCREMENT.
+-- No hace falta inicializarla: la primera reserva empieza por encima del mayor id de users.
+-- Se puede ejecutar varias veces.
+
+CREATE TABLE IF NOT EXISTS user_id_blocks (
+    shard_id INT NOT NULL,
+    next_value BIGINT NOT NULL,
+    PRIMARY KEY (shard_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,35 @@
+-- Tablas de la importación masiva (POST /api/users/import, ver UserImportService).
+
+-- PUNTOS CLAVE:
+-- El esquema de MySQL se gestiona a mano (sin ddl-auto): sin estas tablas la importación falla.
+-- Con sharding import_jobs e import_row_errors solo hacen falta en el shard por defecto (shard 0);
+-- import_shard_progress, en todos los shards (cada uno guarda ahí el progreso de sus filas).
+-- El índice (job_id, line) sirve la consulta de errores de GET /api/users/import/{jobId}.
+-- Se puede ejecutar varias veces.
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id VARCHAR(36) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    committed_line BIGINT NOT NULL,
+    imported_rows BIGINT NOT NULL,
+    failed_rows BIGINT NOT NULL,
+    last_error VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS import_row_errors (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    job_id VARCHAR(36) NOT NULL,
+    line BIGINT NOT NULL,
+    message VARCHAR(500) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_import_row_errors_job_line (job_id, line)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS import_shard_progress (
+    job_id VARCHAR(36) NOT NULL,
+    committed_line BIGINT NOT NULL,
+    PRIMARY KEY (job_id)
+) ENGINE=InnoDB;
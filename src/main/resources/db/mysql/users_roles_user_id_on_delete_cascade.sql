@@ -0,0 +1,38 @@
+-- Migración para esquemas MySQL creados antes de @OnDelete(CASCADE) en User.roles.
+
+-- PROPOSITO:
+-- DELETE /api/users/{id} borra con una única sentencia nativa (UserRepository.deleteUserById)
+-- y confía en que la base de datos limpie users_roles. Con la FK antigua (sin ON DELETE CASCADE)
+-- ese DELETE falla por la restricción en cualquier usuario que tenga roles.
+
+-- PUNTOS CLAVE:
+-- Hibernate generó la FK con un nombre aleatorio (FKxxxx...), así que se busca en information_schema.
+-- La FK se sustituye por FK_users_roles_user_id con ON DELETE CASCADE.
+-- Se puede ejecutar varias veces: si la FK ya tiene CASCADE no hace nada.
+-- Spring Boot no lo ejecuta: hay que lanzarlo a mano sobre la base de datos principal y, con
+-- sharding, sobre cada shard (mysql db_backend_users < users_roles_user_id_on_delete_cascade.sql).
+
+SET @fk := (SELECT rc.CONSTRAINT_NAME
+            FROM information_schema.REFERENTIAL_CONSTRAINTS rc
+            JOIN information_schema.KEY_COLUMN_USAGE k
+              ON k.CONSTRAINT_SCHEMA = rc.CONSTRAINT_SCHEMA
+             AND k.CONSTRAINT_NAME = rc.CONSTRAINT_NAME
+             AND k.TABLE_NAME = rc.TABLE_NAME
+            WHERE rc.CONSTRAINT_SCHEMA = DATABASE()
+              AND rc.TABLE_NAME = 'users_roles'
+              AND rc.REFERENCED_TABLE_NAME = 'users'
+              AND k.COLUMN_NAME = 'user_id'
+              AND rc.DELETE_RULE <> 'CASCADE'
+            LIMIT 1);
+
+SET @drop_fk := IF(@fk IS NULL, 'DO 0',
+        CONCAT('ALTER TABLE users_roles DROP FOREIGN KEY `', @fk, '`'));
+PREPARE stmt FROM @drop_fk;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @add_fk := IF(@fk IS NULL, 'DO 0',
+        'ALTER TABLE users_roles ADD CONSTRAINT FK_users_roles_user_id FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE');
+PREPARE stmt FROM @add_fk;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,96 @@
+package com.springboot.backend.userapp.users_backend.aot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+// Compara arranque y memoria residente (RSS) del jar y del ejecutable nativo.
+// Solo se ejecuta si se indican los dos artefactos ya construidos (Linux, RSS de /proc):
+//   mvn package && mvn -Pnative package
+//   mvn test -Dtest=NativeStartupComparisonTests -Dstartup.jar=target/users-backend-0.0.1-SNAPSHOT.jar
+//       -Dstartup.native=target/users-backend -Dstartup.args="--spring.datasource.url=..."
+@EnabledOnOs(OS.LINUX)
+@EnabledIfSystemProperty(named = "startup.native", matches = ".+")
+class NativeStartupComparisonTests {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+
+    private static final Pattern VM_RSS = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+
+    @Test
+    void nativeExecutableStartsFasterAndUsesLessMemoryThanTheJar() throws Exception {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        String extra = System.getProperty("startup.args", "");
+        if (!extra.isBlank()) {
+            args.addAll(Arrays.asList(extra.trim().split("\\s+")));
+        }
+
+        List<String> jvmCommand = new ArrayList<>(List.of("java", "-jar", System.getProperty("startup.jar")));
+        jvmCommand.addAll(args);
+        List<String> nativeCommand = new ArrayList<>(List.of(System.getProperty("startup.native")));
+        nativeCommand.addAll(args);
+
+        Measurement jvm = measure(jvmCommand);
+        Measurement nativeImage = measure(nativeCommand);
+
+        System.out.printf("%-8s %12s %10s%n", "build", "startup (s)", "RSS (MB)");
+        System.out.printf("%-8s %12.3f %10d%n", "jvm", jvm.startupSeconds(), jvm.rssKb() / 1024);
+        System.out.printf("%-8s %12.3f %10d%n", "native", nativeImage.startupSeconds(), nativeImage.rssKb() / 1024);
+
+        assertTrue(nativeImage.startupSeconds() < jvm.startupSeconds(), "el nativo debería arrancar antes");
+        assertTrue(nativeImage.rssKb() < jvm.rssKb(), "el nativo debería ocupar menos memoria");
+    }
+
+    // Arranca el proceso, espera a la línea "Started ... in X seconds" de Spring Boot
+    // y lee su RSS en ese momento.
+    private Measurement measure(List<String> command) throws Exception {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+            String line;
+            while ((line = output.readLine()) != null && System.nanoTime() < deadline) {
+                Matcher started = STARTED.matcher(line);
+                if (started.find()) {
+                    return new Measurement(Double.parseDouble(started.group(1)), rssKb(process.pid()));
+                }
+            }
+            throw new IllegalStateException("No arrancó: " + String.join(" ", command));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            Matcher matcher = VM_RSS.matcher(line);
+            if (matcher.find()) {
+                return Long.parseLong(matcher.group(1));
+            }
+        }
+        throw new IllegalStateException("VmRSS no disponible para el proceso " + pid);
+    }
+
+    private record Measurement(double startupSeconds, long rssKb) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.springboot.backend.userapp.users_backend.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Los registros sobreviven a la rotación de segmentos y a un reinicio, el historial
+// de un usuario se pagina del más reciente al más antiguo y con la cola llena no se descarta nada.
+class AuditLogTests {
+
+    @TempDir
+    Path dir;
+
+    private AuditLog open() throws Exception {
+        AuditProperties properties = new AuditProperties();
+        properties.setDirectory(dir.toString());
+        // Segmentos mínimos (64 KB): 4.000 registros obligan a rotar varias veces.
+        properties.setSegmentSize(DataSize.ofKilobytes(64));
+        properties.setFsync(AuditProperties.FsyncPolicy.ALWAYS);
+        return new AuditLog(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void pagesThroughOneUsersHistoryAcrossSegmentsAndRestarts() throws Exception {
+        try (AuditLog log = open()) {
+            for (int i = 0; i < 2_000; i++) {
+                log.record(i == 0 ? AuditAction.CREATED : AuditAction.UPDATED, 1L, "admin");
+                log.record(AuditAction.UPDATED, 2L, "otro");
+            }
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() > 1, "No se ha rotado ningún segmento");
+        }
+
+        try (AuditLog log = open()) {
+            List<AuditEntry> history = new ArrayList<>();
+            Long cursor = null;
+            do {
+                AuditPage page = log.history(1L, cursor, 100);
+                history.addAll(page.entries());
+                cursor = page.next();
+            } while (cursor != null);
+
+            assertEquals(2_000, history.size());
+            assertTrue(history.stream().allMatch(e -> e.userId() == 1L && "admin".equals(e.principal())));
+            assertEquals(AuditAction.CREATED, history.get(history.size() - 1).action());
+
+            // Los nuevos registros continúan la cadena del usuario tras el reinicio.
+            log.record(AuditAction.DELETED, 1L, "admin");
+        }
+        try (AuditLog log = open()) {
+            AuditPage page = log.history(1L, null, 1);
+            assertEquals(AuditAction.DELETED, page.entries().get(0).action());
+            assertEquals(AuditAction.UPDATED, log.history(1L, page.next(), 1).entries().get(0).action());
+            assertNull(log.history(3L, null, 10).next());
+        }
+    }
+
+    @Test
+    void fullQueueRejectsInsteadOfDropping() throws Exception {
+        AuditProperties properties = new AuditProperties();
+        properties.setDirectory(dir.toString());
+        properties.setQueueCapacity(1);
+        properties.setEnqueueTimeout(Duration.ofMillis(50));
+        try (AuditLog log = new AuditLog(properties, new SimpleMeterRegistry())) {
+            // El único hueco queda reservado por una transacción que aún no ha terminado.
+            log.reserve();
+            assertThrows(AuditUnavailableException.class, () -> log.record(AuditAction.CREATED, 1L, "admin"));
+
+            // Al terminar con rollback el hueco vuelve a estar libre.
+            log.cancelReservation();
+            log.record(AuditAction.CREATED, 1L, "admin");
+        }
+        try (AuditLog log = open()) {
+            assertEquals(1, log.history(1L, null, 10).entries().size());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.springboot.backend.userapp.users_backend.auth.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import com.springboot.backend.userapp.users_backend.auth.SecurityJsonCodec;
+import com.springboot.backend.userapp.users_backend.bulkhead.BulkheadProperties;
+import com.springboot.backend.userapp.users_backend.bulkhead.Bulkheads;
+import com.springboot.backend.userapp.users_backend.limiter.ConcurrencyLimitExceededException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Un login que el limitador de concurrencia descarta responde 503 (se puede reintentar), no 401.
+class JwtAuthenticationFilterTests {
+
+    private final Bulkheads bulkheads = new Bulkheads(new BulkheadProperties(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.shutdown();
+    }
+
+    @Test
+    void loginShedByTheConcurrencyLimiterIsAnsweredWith503() throws Exception {
+        // Así llega desde DaoAuthenticationProvider cuando loadUserByUsername falla.
+        MockHttpServletResponse response = login(token -> {
+            throw new InternalAuthenticationServiceException("limitado", new ConcurrencyLimitExceededException(2));
+        });
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains("concurrencia"));
+    }
+
+    @Test
+    void wrongCredentialsAreStillAnsweredWith401() throws Exception {
+        MockHttpServletResponse response = login(token -> {
+            throw new BadCredentialsException("Bad credentials");
+        });
+
+        assertEquals(401, response.getStatus());
+    }
+
+    private MockHttpServletResponse login(AuthenticationManager authenticationManager) throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(authenticationManager, new SecurityJsonCodec(),
+                bulkheads.login());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent("{\"userName\":\"admin\",\"password\":\"12345\"}".getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,111 @@
+package com.springboot.backend.userapp.users_backend.auth.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.events.UserChangeEvent;
+import com.springboot.backend.userapp.users_backend.models.UserPatchRequest;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// Con el snapshot activado: se construye en un directorio temporal privado, sigue las altas
+// y los borrados que publica UserServiceImpl, relee por lotes los usuarios de un grupo de
+// eventos y saca al momento a los usuarios borrados o con otros roles, sin esperar al bus.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth-snapshot;DB_CLOSE_DELAY=-1",
+        "users.auth-snapshot.enabled=true" })
+class AuthSnapshotStoreTests {
+
+    @Autowired
+    private AuthSnapshotStore store;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void followsCreatesAndDeletesInAPrivateDirectory() throws Exception {
+        Path directory = (Path) ReflectionTestUtils.getField(store, "directory");
+        if (AuthSnapshot.isPosix()) {
+            assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+        }
+
+        User user = new User();
+        user.setName("Snapshot");
+        user.setLastName("Login");
+        user.setEmail("snapshot@correo.com");
+        user.setUserName("snapshot");
+        user.setPassword("12345");
+        User saved = service.save(user);
+        awaitPresent("snapshot", true);
+        assertEquals("ROLE_USER", store.find("snapshot").getAuthorities().iterator().next().getAuthority());
+
+        service.deleteById(saved.getId());
+        awaitPresent("snapshot", false);
+        assertNull(store.find("snapshot"));
+    }
+
+    @Test
+    void revocationsDoNotWaitForTheBus() throws Exception {
+        List<User> users = TestUsers.seed(service, "revocado", 2, false);
+        awaitPresent("revocado0", true);
+        awaitPresent("revocado1", true);
+
+        // Sin esperar al flush del bus: al volver de la llamada ya no está en el snapshot.
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setAdmin(true);
+        service.patch(patch, users.get(0).getId());
+        assertNull(store.find("revocado0"));
+        service.deleteById(users.get(1).getId());
+        assertNull(store.find("revocado1"));
+
+        // El evento del cambio lo vuelve a cargar con los roles nuevos.
+        awaitPresent("revocado0", true);
+        assertEquals(2, store.find("revocado0").getAuthorities().size());
+    }
+
+    @Test
+    void reloadsAGroupOfChangedUsersTogether() throws Exception {
+        List<User> users = TestUsers.seed(service, "lote", 3, false);
+        for (int i = 0; i < 3; i++) {
+            awaitPresent("lote" + i, true);
+        }
+
+        // Cambios hechos por otro nodo: aquí solo llegan los ids.
+        jdbcTemplate.update("update users set password = 'otro-hash' where userName in ('lote0', 'lote1')");
+        jdbcTemplate.update("delete from users_roles where user_id = ?", users.get(2).getId());
+        jdbcTemplate.update("delete from users where id = ?", users.get(2).getId());
+        store.onInvalidation(users.stream().map(u -> UserChangeEvent.updated(u.getId(), null, null)).toList());
+
+        assertEquals("otro-hash", store.find("lote0").getPassword());
+        assertEquals("otro-hash", store.find("lote1").getPassword());
+        assertNull(store.find("lote2"));
+    }
+
+    // El snapshot se construye en segundo plano y los eventos llegan tras el flush del bus.
+    private void awaitPresent(String userName, boolean present) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((store.find(userName) != null) != present && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        if (present) {
+            assertNotNull(store.find(userName), "El usuario no ha llegado al snapshot");
+        }
+    }
+}
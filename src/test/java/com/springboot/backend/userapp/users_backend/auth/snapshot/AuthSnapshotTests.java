@@ -0,0 +1,64 @@
+package com.springboot.backend.userapp.users_backend.auth.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Altas, renombrados y borrados en los índices hash del snapshot, copia a uno mayor cuando
+// el primero se llena, y permisos del fichero (contiene hashes de contraseñas).
+class AuthSnapshotTests {
+
+    private static final String HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3PoMQNBf2Jn5Nmv8dPCxsKa";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsUsersByNameAcrossRenamesDeletesAndGrowth() throws Exception {
+        AuthSnapshot snapshot = AuthSnapshot.create(dir.resolve("a.snapshot"), 1024);
+        int added = 0;
+        while (snapshot.put(added + 1, "user" + added, HASH + added, added % 2 == 0 ? 1L : 3L)) {
+            added++;
+        }
+        assertTrue(added >= 1024, "Sin sitio antes de lo previsto: " + added);
+
+        AuthSnapshot bigger = AuthSnapshot.create(dir.resolve("b.snapshot"), added * 2L);
+        snapshot.copyInto(bigger);
+        assertTrue(bigger.put(added + 1, "user" + added, HASH + added, 1L));
+        assertEquals(added + 1, bigger.size());
+        for (int i = 0; i <= added; i++) {
+            int record = bigger.findByName("user" + i);
+            assertTrue(record > 0, "No encontrado: user" + i);
+            assertEquals(HASH + i, bigger.password(record));
+        }
+        assertEquals(3L, bigger.roles(bigger.findByName("user1")));
+
+        // Renombrado: el nombre anterior deja de encontrarse.
+        assertTrue(bigger.put(2, "renamed", "otro-hash", 2L));
+        assertEquals(-1, bigger.findByName("user1"));
+        assertEquals("otro-hash", bigger.password(bigger.findByName("renamed")));
+        assertEquals(2L, bigger.roles(bigger.findByName("renamed")));
+
+        bigger.remove(1);
+        assertEquals(-1, bigger.findByName("user0"));
+        assertEquals(-1, bigger.findByName("nobody"));
+        assertEquals(added, bigger.size());
+        assertFalse(bigger.needsCompaction());
+    }
+
+    @Test
+    void snapshotFilesAreReadableOnlyByTheOwner() throws Exception {
+        assumeTrue(AuthSnapshot.isPosix(), "Sin permisos POSIX");
+        AuthSnapshot snapshot = AuthSnapshot.create(dir.resolve("c.snapshot"), 1024);
+
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(snapshot.file())));
+    }
+}
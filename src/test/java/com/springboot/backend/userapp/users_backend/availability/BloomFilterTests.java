@@ -0,0 +1,29 @@
+package com.springboot.backend.userapp.users_backend.availability;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// Sin falsos negativos y con una tasa de falsos positivos cercana a la configurada.
+class BloomFilterTests {
+
+    @Test
+    void neverForgetsAddedValuesAndKeepsFalsePositivesNearTheTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i), "Falso negativo: user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("free" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1 % configurado; margen para la variación del hash.
+        assertTrue(falsePositives < 2_000, "Demasiados falsos positivos: " + falsePositives);
+    }
+}
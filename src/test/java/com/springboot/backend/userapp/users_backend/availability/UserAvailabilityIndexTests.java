@@ -0,0 +1,140 @@
+package com.springboot.backend.userapp.users_backend.availability;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.springboot.backend.userapp.users_backend.events.CoalescingInvalidationBus;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// GET /api/users/availability sin sesión (permitAll) y un alta hecha mientras se reconstruyen
+// los filtros: al publicarse los filtros nuevos el nombre tiene que seguir apareciendo ocupado.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:availability;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class UserAvailabilityIndexTests {
+
+    // Hilo de la reconstrucción lanzada por el test: su recorrido de la tabla se detiene después
+    // de leer la página hasta que se abre scanGate. Las reconstrucciones programadas no se detienen.
+    private static volatile Thread gatedThread;
+
+    private static volatile CountDownLatch scanned = new CountDownLatch(1);
+
+    private static volatile CountDownLatch scanGate = new CountDownLatch(0);
+
+    @TestConfiguration
+    static class GatedJdbcTemplateConfig {
+
+        // Sustituye al JdbcTemplate de Spring Boot (que solo se crea si no hay otro).
+        @Bean
+        JdbcTemplate gatedJdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource) {
+                @Override
+                public void query(String sql, RowCallbackHandler rch, Object... args) throws DataAccessException {
+                    super.query(sql, rch, args);
+                    if (Thread.currentThread() == gatedThread && sql.startsWith("select id, userName, email from users")) {
+                        scanned.countDown();
+                        try {
+                            scanGate.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserAvailabilityIndex index;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private CoalescingInvalidationBus invalidationBus;
+
+    @BeforeEach
+    void clean() {
+        repository.deleteAll();
+        service.save(TestUsers.user("existente"));
+    }
+
+    @AfterEach
+    void openGate() {
+        scanGate.countDown();
+    }
+
+    @Test
+    void availabilityIsPublicAndReportsTakenAndFreeNames() throws Exception {
+        index.rebuild();
+
+        perform(get("/api/users/availability").param("userName", "existente").param("email", "libre@correo.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value(false))
+                .andExpect(jsonPath("$.email").value(true));
+        perform(get("/api/users/availability").param("userName", "libre"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value(true));
+    }
+
+    @Test
+    void userRegisteredDuringARebuildIsReportedAsTaken() throws Exception {
+        scanned = new CountDownLatch(1);
+        scanGate = new CountDownLatch(1);
+        Thread rebuild = new Thread(index::rebuild, "availability-rebuild-test");
+        gatedThread = rebuild;
+        rebuild.start();
+        // El recorrido ya ha leído la tabla: el alta no está en lo que ha leído.
+        assertTrue(scanned.await(10, TimeUnit.SECONDS), "La reconstrucción no ha empezado a recorrer la tabla");
+
+        service.save(TestUsers.user("durante"));
+        // El evento del alta también se entrega antes de que termine la reconstrucción.
+        invalidationBus.flush();
+        scanGate.countDown();
+        rebuild.join(TimeUnit.SECONDS.toMillis(10));
+
+        perform(get("/api/users/availability").param("userName", "durante"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value(false));
+    }
+
+    // El endpoint responde de forma asíncrona (bulkhead).
+    private ResultActions perform(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,143 @@
+package com.springboot.backend.userapp.users_backend.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.springboot.backend.userapp.users_backend.logging.RateLimitedLogger;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+
+// Coste en el hilo de la petición de las distintas formas de registrar:
+// - sqlSync / sqlAsync: escribir una sentencia SQL con un appender síncrono (lo que hacía show-sql)
+//   frente a dejarla en la cola del AsyncAppender de logback-spring.xml.
+// - authFailurePrintStackTrace / authFailureRateLimited: el printStackTrace que hacía
+//   JwtAuthenticationFilter frente al RateLimitedLogger.
+// Ejecutar con: java -cp target/test-classes:<classpath de test> ...benchmark.LoggingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final String SQL = "select u1_0.id,u1_0.email,u1_0.lastName,u1_0.name,u1_0.password,"
+            + "u1_0.userName from users u1_0 where u1_0.id=?";
+
+    private LoggerContext context;
+
+    private Logger syncLogger;
+
+    private Logger asyncLogger;
+
+    private PrintStream stderr;
+
+    private RateLimitedLogger rateLimited;
+
+    private JsonParseException failure;
+
+    private File sink;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        sink = File.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(sink.getAbsolutePath());
+        file.setEncoder(encoder());
+        file.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        // Misma cola que logback-spring.xml, pero sin descartar ni dejar de esperar: con 4 hilos
+        // registrando sin pausa la cola se llena enseguida y, con neverBlock y discardingThreshold,
+        // se mediría lo que cuesta tirar eventos. Así cada evento se escribe y el resultado
+        // incluye la espera cuando el hilo escritor no da abasto.
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(0);
+        async.setNeverBlock(false);
+        async.addAppender(file);
+        async.start();
+
+        syncLogger = context.getLogger("sync");
+        syncLogger.setAdditive(false);
+        syncLogger.addAppender(file);
+
+        asyncLogger = context.getLogger("async");
+        asyncLogger.setAdditive(false);
+        asyncLogger.addAppender(async);
+
+        stderr = new PrintStream(new FileOutputStream(sink, true), true);
+        rateLimited = new RateLimitedLogger(LoggingBenchmark.class, 20, Duration.ofMinutes(1));
+        failure = new JsonParseException(null, "Unexpected character ('}' (code 125))");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+        stderr.close();
+        sink.delete();
+    }
+
+    @Benchmark
+    public void sqlSync() {
+        syncLogger.info(SQL);
+    }
+
+    @Benchmark
+    public void sqlAsync() {
+        asyncLogger.info(SQL);
+    }
+
+    @Benchmark
+    public void authFailurePrintStackTrace() {
+        failure.printStackTrace(stderr);
+    }
+
+    @Benchmark
+    public void authFailureRateLimited() {
+        rateLimited.warn("login-malformed", "Cuerpo de login mal formado: {}", failure.getOriginalMessage());
+    }
+
+    private PatternLayoutEncoder encoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+        return encoder;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoggingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
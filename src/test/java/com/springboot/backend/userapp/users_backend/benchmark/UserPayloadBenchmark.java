@@ -0,0 +1,115 @@
+package com.springboot.backend.userapp.users_backend.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.springboot.backend.userapp.users_backend.entities.Role;
+import com.springboot.backend.userapp.users_backend.entities.User;
+
+// Tamaño y tiempo de (de)serialización de una página de usuarios en JSON frente a CBOR.
+// Los tamaños se imprimen al preparar cada combinación de parámetros.
+// Ejecutar con: java -cp target/test-classes:<classpath de test> ...benchmark.UserPayloadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPayloadBenchmark {
+
+    @Param({ "5", "100", "1000" })
+    private int users;
+
+    private ObjectWriter jsonWriter;
+
+    private ObjectWriter cborWriter;
+
+    private ObjectReader jsonReader;
+
+    private ObjectReader cborReader;
+
+    private List<User> page;
+
+    private byte[] json;
+
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper jsonMapper = new ObjectMapper();
+        ObjectMapper cborMapper = new CBORMapper();
+        jsonWriter = jsonMapper.writerFor(User[].class);
+        cborWriter = cborMapper.writerFor(User[].class);
+        jsonReader = jsonMapper.readerFor(User[].class);
+        cborReader = cborMapper.readerFor(User[].class);
+
+        Role roleUser = new Role("ROLE_USER");
+        roleUser.setId(1L);
+        Role roleAdmin = new Role("ROLE_ADMIN");
+        roleAdmin.setId(2L);
+        page = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setName("Nombre" + i);
+            user.setLastName("Apellido Apellido" + i);
+            user.setEmail("usuario" + i + "@empresa.com");
+            user.setUserName("usuario" + i);
+            user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3sM2Aqtbn0jxkLqXaQbZQ9S");
+            user.getRoles().add(roleUser);
+            if (i % 10 == 0) {
+                user.getRoles().add(roleAdmin);
+            }
+            page.add(user);
+        }
+        json = serializeJson();
+        cbor = serializeCbor();
+        System.out.printf("%n%d usuarios: JSON %d bytes, CBOR %d bytes (%.1f%%)%n", users, json.length, cbor.length,
+                100.0 * cbor.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return jsonWriter.writeValueAsBytes(page.toArray(new User[0]));
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws IOException {
+        return cborWriter.writeValueAsBytes(page.toArray(new User[0]));
+    }
+
+    @Benchmark
+    public User[] deserializeJson() throws IOException {
+        return jsonReader.readValue(json);
+    }
+
+    @Benchmark
+    public User[] deserializeCbor() throws IOException {
+        return cborReader.readValue(cbor);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserPayloadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.springboot.backend.userapp.users_backend.bulkhead;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Un bulkhead saturado rechaza lo que no cabe y no afecta a los demás.
+class BulkheadsTests {
+
+    private SimpleMeterRegistry registry;
+
+    private Bulkheads bulkheads;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setLogin(new BulkheadProperties.Limits(2, 2, Duration.ofMillis(300)));
+        properties.setRead(new BulkheadProperties.Limits(2, 10, Duration.ofSeconds(2)));
+        properties.setWrite(new BulkheadProperties.Limits(1, 1, Duration.ofMillis(300)));
+        registry = new SimpleMeterRegistry();
+        bulkheads = new Bulkheads(properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkheads.shutdown();
+    }
+
+    @Test
+    void saturatedLoginShedsLoadWithoutDelayingReads() throws Exception {
+        // 2 logins ocupando los hilos + 2 en cola: el bulkhead está lleno.
+        for (int i = 0; i < 4; i++) {
+            bulkheads.login().submit(this::blockUntilReleased);
+        }
+
+        CompletableFuture<String> rejected = bulkheads.login().submit(() -> "login");
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadRejectedException.class, error.getCause());
+        assertEquals(1.0, registry.get("users.bulkhead.rejected").tag("name", "login").counter().count());
+
+        // Las lecturas tienen sus propios hilos y responden al momento.
+        long start = System.nanoTime();
+        assertEquals("user", bulkheads.read().submit(() -> "user").get(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 200);
+    }
+
+    @Test
+    void tasksThatExceedTheTimeoutAreAnsweredWithRejection() {
+        CompletableFuture<String> slow = bulkheads.login().submit(this::blockUntilReleased);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> slow.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadRejectedException.class, error.getCause());
+        assertEquals(1.0, registry.get("users.bulkhead.timeouts").tag("name", "login").counter().count());
+    }
+
+    @Test
+    void startedWritesThatExceedTheTimeoutHaveAnUnknownOutcome() {
+        // Una escritura ocupa el único hilo y otra espera en cola: vencen las dos.
+        CompletableFuture<String> started = bulkheads.write().submit(this::blockUntilReleased);
+        CompletableFuture<String> queued = bulkheads.write().submit(() -> "nunca");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> started.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadOutcomeUnknownException.class, error.getCause());
+        error = assertThrows(ExecutionException.class, () -> queued.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadRejectedException.class, error.getCause());
+        assertEquals(2.0, registry.get("users.bulkhead.timeouts").tag("name", "write").counter().count());
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
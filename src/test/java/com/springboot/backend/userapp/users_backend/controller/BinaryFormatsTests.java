@@ -0,0 +1,81 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// Negociación JSON/CBOR según el Accept, en los controladores (conversores de Spring MVC)
+// y en el login (SecurityJsonCodec): CBOR solo cuando el cliente lo prefiere.
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryFormatsTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @BeforeEach
+    void seed() {
+        repository.deleteAll();
+        TestUsers.seed(service, "user", 2, true);
+    }
+
+    @Test
+    void controllersAnswerCborOnlyWhenAskedFor() throws Exception {
+        list(MediaType.APPLICATION_CBOR_VALUE)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+        list(MediaType.ALL_VALUE)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void loginFollowsTheQualityOfEachAcceptedType() throws Exception {
+        login(MediaType.APPLICATION_CBOR_VALUE).andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        login("application/json;q=0.5, application/cbor")
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        login(MediaType.ALL_VALUE).andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        login("application/cbor;q=0.2, application/json")
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        login("application/cbor;q=0, */*").andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private ResultActions list(String accept) throws Exception {
+        MvcResult result = mvc.perform(get("/api/users").header(HttpHeaders.ACCEPT, accept))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    private ResultActions login(String accept) throws Exception {
+        return mvc.perform(post("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT, accept)
+                .content("{\"userName\":\"user0\",\"password\":\"12345\"}"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,139 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.SqlStatementBudget;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// ?fields= solo devuelve los campos pedidos (en JSON y en CBOR), un campo desconocido es un 400
+// y el listado sin paginar carga los roles por lotes de ids.
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerFieldsTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        repository.deleteAll();
+        TestUsers.seed(service, "user", 3, true);
+    }
+
+    private ResultActions perform(RequestBuilder builder) throws Exception {
+        MvcResult result = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    @Test
+    void listContainsOnlyTheRequestedFields() throws Exception {
+        perform(get("/api/users").param("fields", "id,userName,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].userName").value("user0"))
+                .andExpect(jsonPath("$[0].email").value("user0@correo.com"))
+                .andExpect(jsonPath("$[0].roles").doesNotExist())
+                .andExpect(jsonPath("$[0].name").doesNotExist())
+                .andExpect(jsonPath("$[0].lastName").doesNotExist())
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+    }
+
+    @Test
+    void pageIncludesRolesOnlyWhenRequested() throws Exception {
+        perform(get("/api/users/page/0").param("fields", "userName,roles"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].userName").value("user0"))
+                .andExpect(jsonPath("$.content[0].roles.length()").value(2))
+                .andExpect(jsonPath("$.content[0].email").doesNotExist())
+                .andExpect(jsonPath("$.content[0].password").doesNotExist());
+    }
+
+    @Test
+    void cborResponseIsNarrowedToo() throws Exception {
+        byte[] body = perform(get("/api/users").param("fields", "id,userName")
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode first = new ObjectMapper(new CBORFactory()).readTree(body).get(0);
+        assertEquals("user0", first.get("userName").asText());
+        assertTrue(first.has("id"));
+        assertFalse(first.has("email"));
+        assertFalse(first.has("roles"));
+        assertFalse(first.has("password"));
+    }
+
+    @Test
+    void unknownFieldIsABadRequest() throws Exception {
+        // Se valida antes de pasar al bulkhead: la respuesta no es asíncrona.
+        mvc.perform(get("/api/users").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+        mvc.perform(get("/api/users/page/0").param("fields", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unpagedListLoadsRolesInBatches() throws Exception {
+        // Más usuarios que ids caben en una consulta de roles; con JDBC para no pagar un BCrypt por fila.
+        Long roleUser = jdbcTemplate.queryForObject("select id from roles where name = 'ROLE_USER'", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from users", Long.class);
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        for (long i = 0; i < 600; i++) {
+            long id = maxId + 1 + i;
+            users.add(new Object[] { id, "Nombre", "Apellido", "lote" + i + "@correo.com", "lote" + i, "x" });
+            roles.add(new Object[] { id, roleUser });
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, lastName, email, userName, password)"
+                + " values (?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("insert into users_roles (user_id, role_id) values (?, ?)", roles);
+
+        // usuarios + dos consultas de roles (500 + 103 ids)
+        perform(get("/api/users").param("fields", "userName,roles"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(603))
+                .andExpect(jsonPath("$[602].userName").value("lote599"))
+                .andExpect(jsonPath("$[602].roles[0].name").value("ROLE_USER"))
+                .andExpect(SqlStatementBudget.atMost(3));
+    }
+}
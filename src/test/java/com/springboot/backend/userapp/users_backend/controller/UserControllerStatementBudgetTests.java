@@ -0,0 +1,127 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.SqlStatementBudget;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// Presupuestos de sentencias SQL de los endpoints más usados.
+// Si un cambio añade consultas a alguno de ellos, el test correspondiente falla.
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerStatementBudgetTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    private Long firstId;
+
+    @BeforeEach
+    void seed() {
+        repository.deleteAll();
+        firstId = TestUsers.seed(service, "user", 8, true).get(0).getId();
+    }
+
+    // Los endpoints responden de forma asíncrona (bulkheads): se espera al resultado y se
+    // vuelve a despachar la petición, que conserva el contador de sentencias.
+    private ResultActions perform(RequestBuilder builder) throws Exception {
+        MvcResult result = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    @Test
+    void listEndpointLoadsUsersAndRolesInTwoStatements() throws Exception {
+        perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatementBudget.atMost(2));
+    }
+
+    @Test
+    void pageEndpointStaysWithinThreeStatements() throws Exception {
+        // página + roles de la página (+ count(*) solo si el total aún no estaba inicializado)
+        perform(get("/api/users/page/0"))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatementBudget.atMost(3));
+    }
+
+    @Test
+    void sparseListWithoutRolesIsASingleStatement() throws Exception {
+        perform(get("/api/users").param("fields", "id,userName,email"))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatementBudget.atMost(1));
+    }
+
+    @Test
+    void sparsePageWithRolesStaysWithinThreeStatements() throws Exception {
+        perform(get("/api/users/page/0").param("fields", "id,userName,roles"))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatementBudget.atMost(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findByIdStaysWithinTwoStatements() throws Exception {
+        perform(get("/api/users/{id}", firstId))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatementBudget.atMost(2));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void patchOfOneFieldStaysWithinThreeStatements() throws Exception {
+        // select del usuario + update de una columna + roles para la respuesta
+        perform(patch("/api/users/{id}", firstId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"nuevo@correo.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatementBudget.atMost(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void patchWithABlankUserNameIsRejectedWithoutTouchingTheDatabase() throws Exception {
+        perform(patch("/api/users/{id}", firstId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userName\":\"    \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(SqlStatementBudget.atMost(0));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void deleteIsASingleStatement() throws Exception {
+        perform(delete("/api/users/{id}", firstId))
+                .andExpect(status().isNoContent())
+                .andExpect(SqlStatementBudget.atMost(1));
+        perform(delete("/api/users/{id}", firstId))
+                .andExpect(status().isNotFound())
+                .andExpect(SqlStatementBudget.atMost(1));
+    }
+}
@@ -0,0 +1,283 @@
+package com.springboot.backend.userapp.users_backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.springboot.backend.userapp.users_backend.audit.AuditAction;
+import com.springboot.backend.userapp.users_backend.audit.AuditEntry;
+import com.springboot.backend.userapp.users_backend.audit.AuditLog;
+import com.springboot.backend.userapp.users_backend.entities.ImportJob;
+import com.springboot.backend.userapp.users_backend.imports.UserImportFormat;
+import com.springboot.backend.userapp.users_backend.imports.UserImportService;
+import com.springboot.backend.userapp.users_backend.repositories.ImportJobRepository;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+
+// Importación masiva: confirmación por lotes, errores por fila, reanudación desde committedLine
+// tras un fallo, back-pressure cuando el cifrado va por detrás de la lectura y rechazo de las
+// importaciones que no caben. Cada alta queda en el log de auditoría. Lotes de 3 filas, un solo lote en cola y una sola importación
+// a la vez para que los límites se vean con ficheros pequeños.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:imports;DB_CLOSE_DELAY=-1",
+        "users.import.batch-size=3",
+        "users.import.in-flight-batches=1",
+        "users.import.hash-parallelism=2",
+        "users.import.max-concurrent=1" })
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class UserImportControllerTests {
+
+    private static final String HEADER = "name,lastName,email,userName,password,admin";
+
+    // Cifrado rápido que el test puede detener para simular un BCrypt saturado.
+    private static volatile CountDownLatch hashGate = new CountDownLatch(0);
+
+    @TestConfiguration
+    static class GatedPasswordEncoderConfig {
+
+        @Bean
+        @Primary
+        PasswordEncoder gatedPasswordEncoder() {
+            return new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    try {
+                        hashGate.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "hash:" + rawPassword;
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    return encodedPassword.equals("hash:" + rawPassword);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserImportService service;
+
+    @Autowired
+    private ImportJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @BeforeEach
+    void clean() {
+        userRepository.deleteAll();
+    }
+
+    @AfterEach
+    void openGate() {
+        hashGate.countDown();
+    }
+
+    @Test
+    void chunksAreCommittedAndRowErrorsAreRecordedByLine() throws Exception {
+        String csv = String.join("\n",
+                HEADER,
+                "Ana,Uno,ana@correo.com,ana01,12345,false",
+                "Bea,Dos,no-es-un-email,bea02,12345,false",
+                "Carla,Tres,carla@correo.com,carla03,12345,true",
+                // Pasa la validación pero no cabe en la columna: falla al insertar (savepoint por fila).
+                "N".repeat(300) + ",Cuatro,dani@correo.com,dani04,12345,false",
+                "Eva,Cinco,eva@correo.com,eva05,12345,false",
+                "solo,dos",
+                "Flor,Seis,flor@correo.com,flor06,12345,false");
+
+        mvc.perform(post("/api/users/import?jobId=errores").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.job.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.job.committedLine").value(8))
+                .andExpect(jsonPath("$.job.importedRows").value(4))
+                .andExpect(jsonPath("$.job.failedRows").value(3))
+                .andExpect(jsonPath("$.errors[*].line").value(org.hamcrest.Matchers.contains(3, 5, 7)));
+
+        assertEquals(4, userRepository.count());
+        // Sin sharding los ids los pone AUTO_INCREMENT, en el orden del fichero.
+        assertEquals(List.of("ana01", "carla03", "eva05", "flor06"),
+                jdbcTemplate.queryForList("select userName from users order by id", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from user_id_blocks", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users_roles ur"
+                + " join users u on u.id = ur.user_id join roles r on r.id = ur.role_id"
+                + " where u.userName = 'carla03' and r.name = 'ROLE_ADMIN'", Integer.class));
+        assertEquals("hash:12345", jdbcTemplate.queryForObject(
+                "select password from users where userName = 'ana01'", String.class));
+
+        // El alta queda auditada con el usuario que lanzó la importación (@WithMockUser).
+        Long anaId = jdbcTemplate.queryForObject("select id from users where userName = 'ana01'", Long.class);
+        AuditEntry created = awaitAudit(anaId);
+        assertEquals(AuditAction.CREATED, created.action());
+        assertEquals("user", created.principal());
+
+        mvc.perform(get("/api/users/import/errores"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors.length()").value(3));
+    }
+
+    @Test
+    void failedImportResumesAfterTheLastCommittedLine() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (int i = 0; i < 8; i++) {
+            lines.add("Nombre" + i + ",Apellido" + i + ",user" + i + "@correo.com,reanuda" + i + ",12345,false");
+        }
+
+        // La conexión se corta tras la línea 6, cuando el primer lote (líneas 2-4) ya está confirmado;
+        // el segundo (líneas 5-6) queda a medias y no se guarda.
+        LineStream cut = new LineStream(lines, 6, () -> awaitCommittedLine("reanudar", 4));
+        ImportJob failed = service.importUsers("reanudar", UserImportFormat.CSV, cut);
+        assertEquals(ImportJob.Status.FAILED, failed.getStatus());
+        assertEquals(4, failed.getCommittedLine());
+        assertEquals(3, userRepository.count());
+
+        // El mismo fichero completo con el mismo jobId: continúa en la línea 5, sin duplicados.
+        mvc.perform(post("/api/users/import?jobId=reanudar").contentType("text/csv")
+                .content(String.join("\n", lines)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.job.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.job.committedLine").value(9))
+                .andExpect(jsonPath("$.job.importedRows").value(8));
+        assertEquals(8, userRepository.count());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users where userName = 'reanuda3'",
+                Integer.class));
+    }
+
+    @Test
+    void readingWaitsWhileHashingIsBehind() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (int i = 0; i < 60; i++) {
+            lines.add("Nombre" + i + ",Apellido" + i + ",bp" + i + "@correo.com,presion" + i + ",12345,false");
+        }
+        LineStream body = new LineStream(lines, Integer.MAX_VALUE, () -> {
+        });
+
+        hashGate = new CountDownLatch(1);
+        CompletableFuture<ImportJob> job = CompletableFuture
+                .supplyAsync(() -> service.importUsers("presion", UserImportFormat.CSV, body));
+        Thread.sleep(500);
+
+        // Un lote cifrándose, otro en cola y el siguiente esperando a entrar: la lectura se para.
+        assertTrue(body.served() < 20, "Se han leído " + body.served() + " líneas sin poder procesarlas");
+        assertEquals(0, jobRepository.findById("presion").orElseThrow().getCommittedLine());
+
+        // El único hilo de escritura está ocupado: otra importación se rechaza sin crear la suya.
+        mvc.perform(post("/api/users/import?jobId=otra").contentType("text/csv").content(HEADER))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+        assertTrue(jobRepository.findById("otra").isEmpty());
+
+        hashGate.countDown();
+        ImportJob done = job.get(30, TimeUnit.SECONDS);
+        assertEquals(ImportJob.Status.COMPLETED, done.getStatus());
+        assertEquals(60, done.getImportedRows());
+    }
+
+    // El escritor del log de auditoría es asíncrono.
+    private AuditEntry awaitAudit(Long userId) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<AuditEntry> entries;
+        while ((entries = auditLog.history(userId, null, 1).entries()).isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "No se ha auditado el alta de " + userId);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return entries.get(0);
+    }
+
+    private void awaitCommittedLine(String jobId, long line) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jobRepository.findById(jobId).map(ImportJob::getCommittedLine).orElse(0L) < line) {
+            assertTrue(System.nanoTime() < deadline, "El lote no se ha confirmado a tiempo");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    // Entrega una línea por cada read() (así se ve cuánto ha leído el importador) y, si se
+    // indica, falla como una conexión cortada después de failAfter líneas (tras beforeFailure).
+    private static final class LineStream extends InputStream {
+
+        private final List<byte[]> lines = new ArrayList<>();
+
+        private final int failAfter;
+
+        private final Runnable beforeFailure;
+
+        private volatile int served;
+
+        private LineStream(List<String> lines, int failAfter, Runnable beforeFailure) {
+            lines.forEach(line -> this.lines.add((line + "\n").getBytes(StandardCharsets.UTF_8)));
+            this.failAfter = failAfter;
+            this.beforeFailure = beforeFailure;
+        }
+
+        int served() {
+            return served;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (served >= failAfter) {
+                beforeFailure.run();
+                throw new IOException("Conexión cortada");
+            }
+            if (served >= lines.size()) {
+                return -1;
+            }
+            byte[] line = lines.get(served);
+            if (line.length > len) {
+                throw new IOException("Buffer demasiado pequeño para una línea");
+            }
+            System.arraycopy(line, 0, b, off, line.length);
+            served++;
+            return line.length;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+// Un envío que falla no pierde el lote: vuelve a pendientes y sale en el siguiente flush,
+// fusionado con lo que haya llegado mientras tanto. publish() no envía en el hilo que escribe.
+class CoalescingInvalidationBusTests {
+
+    @Test
+    void failedBatchIsRetriedOnTheNextFlush() {
+        FailingOnceBus bus = new FailingOnceBus(500);
+        bus.publish(UserChangeEvent.updated(1L, "uno", "uno@correo.com"));
+        bus.publish(UserChangeEvent.deleted(2L));
+
+        bus.flush();
+        assertEquals(0, bus.dispatched.size());
+
+        // Llega un cambio nuevo del usuario 1 antes del reintento: manda el más reciente.
+        bus.publish(UserChangeEvent.updated(1L, "uno-bis", "uno@correo.com"));
+        bus.publish(UserChangeEvent.created(3L, "tres", "tres@correo.com"));
+        bus.flush();
+
+        List<UserChangeEvent> batch = bus.dispatched.get(0);
+        assertEquals(List.of(1L, 2L, 3L), batch.stream().map(UserChangeEvent::userId).toList());
+        assertEquals("uno-bis", batch.get(0).userName());
+        assertEquals(UserChangeEvent.Type.DELETED, batch.get(1).type());
+        bus.close();
+    }
+
+    @Test
+    void fullBatchIsNotDispatchedOnThePublishingThread() throws InterruptedException {
+        FailingOnceBus bus = new FailingOnceBus(1);
+        // El primer envío falla: si publish() enviara en este hilo, el fallo llegaría hasta aquí.
+        bus.publish(UserChangeEvent.deleted(5L));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bus.dispatched.isEmpty() && System.currentTimeMillis() < deadline) {
+            bus.flush();
+            Thread.sleep(20);
+        }
+        assertEquals(1, bus.dispatched.size());
+        assertEquals(5L, bus.dispatched.get(0).get(0).userId());
+        bus.close();
+    }
+
+    private static class FailingOnceBus extends CoalescingInvalidationBus {
+
+        private final List<List<UserChangeEvent>> dispatched = new CopyOnWriteArrayList<>();
+
+        private volatile int failuresLeft = 1;
+
+        FailingOnceBus(int maxBatchSize) {
+            super(maxBatchSize);
+        }
+
+        @Override
+        protected void dispatch(List<UserChangeEvent> batch) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("outbox no disponible");
+            }
+            dispatched.add(batch);
+        }
+    }
+}
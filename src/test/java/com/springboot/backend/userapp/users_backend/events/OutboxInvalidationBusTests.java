@@ -0,0 +1,98 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Una fila de otro nodo con id menor que otra ya leída (commit tardío) también se entrega, y un
+// lote lleno enviado desde el afterCommit de una escritura llega a confirmarse en la outbox.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "users.invalidation.bus=outbox",
+        "users.invalidation.max-batch-size=1",
+        "users.invalidation.outbox.poll-interval-ms=50" })
+class OutboxInvalidationBusTests {
+
+    @Autowired
+    private OutboxInvalidationBus bus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rowsCommittedOutOfIdOrderAreNotSkipped() throws Exception {
+        Set<Long> received = ConcurrentHashMap.newKeySet();
+        bus.subscribe(events -> events.forEach(event -> received.add(event.userId())));
+        // El primer sondeo solo fija el cursor.
+        bus.poll();
+        long base = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from invalidation_outbox", Long.class);
+
+        insert(base + 2, "U:7");
+        awaitReceived(received, 7L);
+
+        // base + 1 se reservó antes pero hace commit después.
+        insert(base + 1, "D:8");
+        awaitReceived(received, 8L);
+    }
+
+    @Test
+    void fullBatchPublishedAfterCommitIsWrittenInItsOwnTransaction() throws InterruptedException {
+        long before = countRows();
+
+        // Lo mismo que hace UserServiceImpl: publicar cuando la escritura ya ha hecho commit.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bus.publish(UserChangeEvent.deleted(42L));
+                }
+            });
+        });
+
+        // El lote lleno lo envía el hilo del bus, no el de la escritura.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (countRows() == before && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(before + 1, countRows());
+    }
+
+    private long countRows() {
+        return jdbcTemplate.queryForObject("select count(*) from invalidation_outbox where payload like 'D:42:%'",
+                Long.class);
+    }
+
+    private void insert(long id, String payload) {
+        jdbcTemplate.update("insert into invalidation_outbox (id, node_id, payload, created_at) values (?, ?, ?, ?)",
+                id, "otro-nodo", payload, Timestamp.from(Instant.now()));
+        // Los ids puestos a mano no avanzan la identidad: que las filas propias no choquen con ellos.
+        jdbcTemplate.execute("alter table invalidation_outbox alter column id restart with "
+                + (jdbcTemplate.queryForObject("select max(id) from invalidation_outbox", Long.class) + 1));
+    }
+
+    private void awaitReceived(Set<Long> received, Long userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!received.contains(userId) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(received.contains(userId), "No ha llegado la invalidación del usuario " + userId);
+    }
+}
@@ -0,0 +1,187 @@
+package com.springboot.backend.userapp.users_backend.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Reanudación con Last-Event-ID, evento reset cuando no se puede reanudar, y desconexión de
+// los clientes que no leen (cola llena) o cuyo envío se queda bloqueado.
+class UserChangeFeedTests {
+
+    private UserChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void resumesFromLastEventIdAndResetsWhenItCannot() throws Exception {
+        feed = feed(4, 16, Duration.ofSeconds(10));
+        RecordingEmitter first = subscribe(null);
+        publish(1, 2, 3);
+        await(() -> first.events().size() == 3);
+        String idOfFirst = first.events().get(0).id();
+
+        RecordingEmitter resumed = subscribe(idOfFirst);
+        await(() -> resumed.events().size() == 2);
+        assertEquals(List.of("2", "3"), resumed.events().stream().map(Sent::userId).toList());
+
+        // Id de otra ejecución (u otro nodo): no se puede reanudar.
+        RecordingEmitter otherEpoch = subscribe("otro:1");
+        await(() -> otherEpoch.events().size() == 1);
+        assertEquals("reset", otherEpoch.events().get(0).name());
+
+        // El evento 1 ya ha salido del buffer (4 huecos).
+        publish(4, 5, 6, 7);
+        RecordingEmitter tooOld = subscribe(idOfFirst);
+        await(() -> tooOld.events().size() == 1);
+        assertEquals("reset", tooOld.events().get(0).name());
+    }
+
+    @Test
+    void clientsThatDoNotReadAreDisconnectedWithoutBlockingThePublisher() throws Exception {
+        feed = feed(16, 2, Duration.ofSeconds(10));
+        RecordingEmitter stuck = subscribe(null, new CountDownLatch(1));
+        publish(1);
+        await(() -> stuck.sending);
+
+        // La cola de 2 se llena: se desconecta al cliente sin esperar a su envío bloqueado.
+        long start = System.nanoTime();
+        publish(2, 3, 4);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "La publicación se ha bloqueado");
+        assertEquals(0, feed.connectedClients());
+
+        // Cuando el envío vuelve, el hilo de envío cierra el emitter.
+        stuck.release.countDown();
+        await(() -> stuck.completed);
+        assertEquals(1, stuck.events().size());
+    }
+
+    @Test
+    void aStalledWriteDoesNotDelayOtherClients() throws Exception {
+        feed = feed(16, 16, Duration.ofMillis(100));
+        RecordingEmitter stuck = subscribe(null, new CountDownLatch(1));
+        publish(1);
+        await(() -> stuck.sending);
+
+        // Con un solo hilo de envío, el segundo cliente espera hasta que se descarta el primero.
+        RecordingEmitter healthy = subscribe(null);
+        publish(2);
+        Thread.sleep(200);
+        feed.evictStalledClients();
+
+        await(() -> healthy.events().size() == 1);
+        assertEquals(1, feed.connectedClients());
+        stuck.release.countDown();
+        await(() -> stuck.completed);
+    }
+
+    private UserChangeFeed feed(int replayBufferSize, int clientQueueSize, Duration writeTimeout) {
+        return new UserChangeFeed(new LocalInvalidationBus(500), replayBufferSize, clientQueueSize, 1,
+                Duration.ofMinutes(1), writeTimeout);
+    }
+
+    private RecordingEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, null);
+    }
+
+    private RecordingEmitter subscribe(String lastEventId, CountDownLatch release) {
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        feed.subscribe(lastEventId, emitter);
+        return emitter;
+    }
+
+    private void publish(long... userIds) {
+        for (long userId : userIds) {
+            feed.onInvalidation(List.of(UserChangeEvent.updated(userId, null, null)));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), "No se ha cumplido la condición a tiempo");
+    }
+
+    private record Sent(String id, String name, String userId) {
+    }
+
+    // Emitter sin conexión real que guarda lo enviado. send es synchronized como el de Spring,
+    // y con release se queda bloqueado como un socket que no admite más datos.
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+
+        private final List<Sent> sent = new CopyOnWriteArrayList<>();
+
+        private volatile boolean sending;
+
+        private volatile boolean completed;
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            if (text.toString().startsWith(":")) {
+                // Heartbeat.
+                return;
+            }
+            sending = true;
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(parse(text.toString()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            completed = true;
+        }
+
+        private List<Sent> events() {
+            return sent;
+        }
+
+        private static Sent parse(String text) {
+            String id = field(text, "id:");
+            String name = field(text, "event:");
+            int userId = text.indexOf("userId=");
+            return new Sent(id, name, userId < 0 ? null : text.substring(userId + 7, text.indexOf(']', userId)));
+        }
+
+        private static String field(String text, String prefix) {
+            int start = text.indexOf(prefix);
+            if (start < 0) {
+                return null;
+            }
+            return text.substring(start + prefix.length(), text.indexOf('\n', start));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.springboot.backend.userapp.users_backend.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+
+// Los eventos propios se graban y JfrSummary los agrupa por tipo (y por método de UserService).
+class JfrSummaryTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void summarizesCustomEventsPerTypeAndServiceMethod() throws Exception {
+        Path file = dir.resolve("users.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TokenValidationEvent.class).withoutThreshold();
+            recording.enable(UserServiceEvent.class).withoutThreshold();
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                TokenValidationEvent validation = new TokenValidationEvent();
+                validation.begin();
+                validation.outcome = "VALID";
+                validation.commit();
+            }
+            UserServiceEvent call = new UserServiceEvent();
+            call.begin();
+            call.method = "findById(Long)";
+            call.outcome = "OK";
+            call.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<Long>> summary = JfrSummary.summarize(file);
+        assertEquals(3, summary.get("users.TokenValidation").size());
+        assertEquals(1, summary.get("users.ServiceCall findById(Long)").size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JfrSummary.print(summary, new PrintStream(out, true, StandardCharsets.UTF_8));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("users.TokenValidation  n=3"));
+    }
+}
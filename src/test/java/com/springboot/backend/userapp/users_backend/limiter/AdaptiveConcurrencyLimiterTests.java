@@ -0,0 +1,115 @@
+package com.springboot.backend.userapp.users_backend.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Con una base de datos H2 a la que se le añade latencia, el límite baja cuando la latencia
+// sube y lo que no cabe se rechaza al momento.
+class AdaptiveConcurrencyLimiterTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ExecutorService clients = Executors.newFixedThreadPool(32);
+
+    // Latencia añadida a cada consulta (ms).
+    private volatile long latencyMillis;
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DelegatingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1", "sa", "")) {
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getConnection();
+        }
+    });
+
+    @AfterEach
+    void tearDown() {
+        clients.shutdownNow();
+    }
+
+    @Test
+    void gradientLimitShrinksWhenTheDatabaseSlowsDownAndShedsTheExcess() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new GradientLimit(2.0, 0.2, 600), 20, 2,
+                50, registry);
+
+        latencyMillis = 1;
+        load(limiter, 16, 50);
+        int healthyLimit = limiter.getLimit();
+
+        latencyMillis = 40;
+        Load degraded = load(limiter, 32, 15);
+
+        assertTrue(limiter.getLimit() < healthyLimit,
+                "El límite no ha bajado: " + healthyLimit + " -> " + limiter.getLimit());
+        assertTrue(degraded.rejected() > 0, "No se ha rechazado ninguna llamada");
+        // Un rechazo no espera a la base de datos.
+        assertTrue(degraded.slowestRejectionNanos() < TimeUnit.MILLISECONDS.toNanos(latencyMillis),
+                "Rechazo lento: " + degraded.slowestRejectionNanos() + " ns");
+
+        assertEquals(limiter.getLimit(), registry.get("users.limiter.limit").gauge().value());
+        assertEquals(degraded.rejected(), registry.get("users.limiter.rejected").counter().count());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void aimdAddsOneWhileFastAndBacksOffWhenSlowOrDropped() {
+        AimdLimit aimd = new AimdLimit(TimeUnit.MILLISECONDS.toNanos(10), 0.5);
+
+        assertEquals(11, aimd.update(10, TimeUnit.MILLISECONDS.toNanos(2), 10, false));
+        // Límite sin usar: no crece.
+        assertEquals(10, aimd.update(10, TimeUnit.MILLISECONDS.toNanos(2), 1, false));
+        assertEquals(5, aimd.update(10, TimeUnit.MILLISECONDS.toNanos(20), 10, false));
+        assertEquals(5, aimd.update(10, TimeUnit.MILLISECONDS.toNanos(2), 10, true));
+    }
+
+    // threads clientes haciendo calls consultas cada uno.
+    private Load load(AdaptiveConcurrencyLimiter limiter, int threads, int calls) throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicLong slowestRejection = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(clients.submit(() -> {
+                for (int i = 0; i < calls; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        limiter.call(() -> jdbcTemplate.queryForObject("select 1", Integer.class));
+                    } catch (ConcurrencyLimitExceededException e) {
+                        rejected.incrementAndGet();
+                        slowestRejection.accumulateAndGet(System.nanoTime() - start, Math::max);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        return new Load(rejected.get(), slowestRejection.get());
+    }
+
+    private record Load(int rejected, long slowestRejectionNanos) {
+    }
+}
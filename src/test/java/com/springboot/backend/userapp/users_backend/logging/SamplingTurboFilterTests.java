@@ -0,0 +1,34 @@
+package com.springboot.backend.userapp.users_backend.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+// Se muestrea org.hibernate.SQL (y sus hijos), pero no org.hibernate.SQL_SLOW.
+class SamplingTurboFilterTests {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    void samplesTheLoggerAndItsChildrenButNotSiblingsWithTheSamePrefix() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setLoggerName("org.hibernate.SQL");
+        filter.setSampleRate(100);
+        filter.start();
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter, "org.hibernate.SQL"));
+        assertEquals(FilterReply.DENY, decide(filter, "org.hibernate.SQL"));
+        assertEquals(FilterReply.DENY, decide(filter, "org.hibernate.SQL.child"));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(filter, "org.hibernate.SQL_SLOW"));
+        }
+    }
+
+    private FilterReply decide(SamplingTurboFilter filter, String loggerName) {
+        return filter.decide(null, context.getLogger(loggerName), Level.DEBUG, "select 1", null, null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.springboot.backend.userapp.users_backend.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// La API reactiva responde lo mismo que UserController, con las mismas reglas de seguridad.
+@SpringBootTest(properties = "users.reactive.enabled=true")
+@AutoConfigureMockMvc
+class ReactiveUserRoutesTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstId;
+
+    @BeforeEach
+    void seed() {
+        repository.deleteAll();
+        firstId = TestUsers.seed(service, "user", 7, true).get(0).getId();
+    }
+
+    private ResultActions perform(RequestBuilder builder) throws Exception {
+        MvcResult result = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    private String body(String path) throws Exception {
+        return perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void findByIdMatchesTheBlockingEndpoint() throws Exception {
+        assertEquals(body("/api/users/" + firstId), body("/reactive/api/users/" + firstId));
+    }
+
+    @Test
+    void pagesMatchTheBlockingEndpoint() throws Exception {
+        assertEquals(body("/api/users/page/1?exactCount=true"), body("/reactive/api/users/page/1?exactCount=true"));
+    }
+
+    @Test
+    void listingLoadsRolesInBatches() throws Exception {
+        // Más usuarios que ids caben en una consulta de roles (ROLES_BATCH_SIZE); se insertan con
+        // JDBC para no pagar un BCrypt por fila.
+        Long roleUser = jdbcTemplate.queryForObject("select id from roles where name = 'ROLE_USER'", Long.class);
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        for (long i = 0; i < 1_100; i++) {
+            long id = firstId + 10_000 + i;
+            users.add(new Object[] { id, "Nombre", "Apellido", "lote" + i + "@correo.com", "lote" + i, "x" });
+            roles.add(new Object[] { id, roleUser });
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, lastName, email, userName, password)"
+                + " values (?, ?, ?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("insert into users_roles (user_id, role_id) values (?, ?)", roles);
+
+        perform(get("/reactive/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1_107))
+                // Usuarios de la primera y de la última consulta de roles.
+                .andExpect(jsonPath("$[?(@.userName == 'user0')].roles.length()").value(2))
+                .andExpect(jsonPath("$[?(@.userName == 'lote0')].roles[0].name").value("ROLE_USER"))
+                .andExpect(jsonPath("$[?(@.userName == 'lote1099')].roles[0].name").value("ROLE_USER"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void missingUserIsNotFound() throws Exception {
+        perform(get("/reactive/api/users/" + (firstId + 1_000))).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findByIdRequiresAuthentication() throws Exception {
+        mvc.perform(get("/reactive/api/users/" + firstId)).andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,96 @@
+package com.springboot.backend.userapp.users_backend.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// Misma carga contra /api/users/page/{page} (JPA + bulkhead) y /reactive/api/users/page/{page}
+// (R2DBC): peticiones por segundo y por núcleo, y pico de hilos vivos durante la prueba.
+// Solo se ejecuta si se pide, con la concurrencia (peticiones en vuelo) y el total de peticiones:
+//   mvn test -Dtest=ReadPathComparisonTests -Dcomparison.concurrency=500 -Dcomparison.requests=20000
+// Para una comparación realista, contra MySQL: -Dspring.datasource.url=... -Dusers.reactive.url=...
+@EnabledIfSystemProperty(named = "comparison.concurrency", matches = "\\d+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "users.reactive.enabled=true")
+class ReadPathComparisonTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService service;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void compareBlockingAndReactiveReadPaths() throws Exception {
+        TestUsers.seed(service, "carga", 50, false);
+        int concurrency = Integer.getInteger("comparison.concurrency");
+        int requests = Integer.getInteger("comparison.requests", concurrency * 20);
+
+        // Una pasada corta de cada uno para calentar JIT y pools antes de medir.
+        run("/api/users/page/", concurrency, concurrency * 2);
+        run("/reactive/api/users/page/", concurrency, concurrency * 2);
+
+        Result blocking = run("/api/users/page/", concurrency, requests);
+        Result reactive = run("/reactive/api/users/page/", concurrency, requests);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-10s %10s %14s %12s %8s%n", "path", "req/s", "req/s/núcleo", "pico hilos", "503");
+        for (Result result : new Result[] { blocking, reactive }) {
+            System.out.printf("%-10s %10.0f %14.0f %12d %8d%n", result.name(), result.throughput(),
+                    result.throughput() / cores, result.peakThreads(), result.rejected());
+        }
+        assertEquals(requests, blocking.completed());
+        assertEquals(requests, reactive.completed());
+    }
+
+    private Result run(String path, int concurrency, int requests) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path + (i % 10)))
+                    .GET()
+                    .build();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (response != null) {
+                            completed.incrementAndGet();
+                            if (response.statusCode() == 503) {
+                                rejected.incrementAndGet();
+                            }
+                        }
+                    });
+        }
+        CompletableFuture.allOf(futures).join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        String name = path.startsWith("/reactive") ? "reactive" : "blocking";
+        return new Result(name, requests / seconds, threads.getPeakThreadCount(), completed.get(), rejected.get());
+    }
+
+    private record Result(String name, double throughput, int peakThreads, int completed, int rejected) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.springboot.backend.userapp.users_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.springboot.backend.userapp.users_backend.events.InvalidationBus;
+import com.springboot.backend.userapp.users_backend.events.InvalidationListener;
+import com.springboot.backend.userapp.users_backend.events.UserChangeEvent;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.sharding.ShardTemplate;
+
+// Los eventos llegan tarde: los confirmados antes de un recuento ya están en su count(*)
+// y no deben sumarse otra vez; los confirmados después sí.
+class UserCountTrackerTests {
+
+    private LongSupplier rows;
+
+    private UserCountTracker tracker;
+
+    @BeforeEach
+    void createTracker() {
+        AtomicReference<InvalidationListener> subscribed = new AtomicReference<>();
+        InvalidationBus bus = new InvalidationBus() {
+            @Override
+            public void publish(UserChangeEvent event) {
+                subscribed.get().onInvalidation(List.of(event));
+            }
+
+            @Override
+            public void subscribe(InvalidationListener listener) {
+                subscribed.set(listener);
+            }
+        };
+        // Solo hace falta count(); el resto de métodos del repositorio no se usan.
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { UserRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("count")) {
+                        return rows.getAsLong();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        tracker = new UserCountTracker(repository, new ShardTemplate(1, 1), bus);
+    }
+
+    @Test
+    void lateEventCommittedBeforeTheCountIsIgnored() {
+        Instant beforeCount = Instant.now().minusSeconds(1);
+        rows = () -> 10;
+        tracker.reconcile();
+
+        tracker.onInvalidation(List.of(created(1L, beforeCount)));
+        assertEquals(10, tracker.get());
+
+        tracker.onInvalidation(List.of(created(2L, Instant.now().plusSeconds(1))));
+        assertEquals(11, tracker.get());
+    }
+
+    @Test
+    void eventCommittedWhileCountingIsKept() {
+        // El alta se confirma después de empezar el count(*) y llega antes de que termine el recuento.
+        rows = () -> {
+            tracker.onInvalidation(List.of(created(3L, Instant.now().plusSeconds(1))));
+            return 10;
+        };
+        tracker.reconcile();
+
+        assertEquals(11, tracker.get());
+    }
+
+    @Test
+    void eventsWithoutCommitTimeAreAlwaysApplied() {
+        rows = () -> 10;
+        tracker.reconcile();
+
+        tracker.onInvalidation(List.of(new UserChangeEvent(UserChangeEvent.Type.DELETED, 4L, "pepe", "pepe@correo.com")));
+        assertEquals(9, tracker.get());
+    }
+
+    private static UserChangeEvent created(Long id, Instant committedAt) {
+        return new UserChangeEvent(UserChangeEvent.Type.CREATED, id, "user" + id, "user" + id + "@correo.com", committedAt);
+    }
+}
@@ -0,0 +1,131 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.limiter.AdaptiveConcurrencyLimiter;
+import com.springboot.backend.userapp.users_backend.models.UserPatchRequest;
+import com.springboot.backend.userapp.users_backend.repositories.UserRepository;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+import com.springboot.backend.userapp.users_backend.support.TestUsers;
+
+// Tres bases H2 en memoria como shards: cada usuario vive en el shard de su userName,
+// su id lo indica, y los listados mezclan los tres shards.
+// El limitador de concurrencia se fija en su mínimo: un listado no puede ocupar más de un
+// hueco por shard.
+@SpringBootTest(properties = {
+        "users.limiter.initial-limit=1",
+        "users.limiter.min-limit=1",
+        "users.limiter.max-limit=1",
+        "users.sharding.enabled=true",
+        "users.sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[0].username=sa",
+        "users.sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[1].username=sa",
+        "users.sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[2].username=sa" })
+class ShardRoutingUserServiceTests {
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private ShardTemplate shardTemplate;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter limiter;
+
+    private final List<User> saved = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        for (int shard = 0; shard < shardTemplate.shardCount(); shard++) {
+            shardTemplate.runOnShard(shard, repository::deleteAll);
+        }
+        saved.clear();
+        saved.addAll(TestUsers.seed(service, "user", 12, false));
+    }
+
+    @Test
+    void usersAreSpreadAndIdsEncodeTheirShard() {
+        Set<Integer> used = new HashSet<>();
+        for (User user : saved) {
+            int shard = shardTemplate.shardForUserName(user.getUserName());
+            assertEquals(shard, shardTemplate.shardForId(user.getId()));
+            // La fila está en la base de datos de ese shard.
+            assertTrue(shardTemplate.onShard(shard, () -> repository.existsById(user.getId())));
+            used.add(shard);
+        }
+        assertTrue(used.size() > 1, "Todos los usuarios han caído en el mismo shard");
+        assertEquals(saved.size(), service.findAll().size());
+    }
+
+    @Test
+    void pagesAreMergedInIdOrderAcrossShards() {
+        List<Long> ids = saved.stream().map(User::getId).sorted().toList();
+
+        Page<User> page = service.findAll(PageRequest.of(1, 5), true);
+
+        assertEquals(ids.subList(5, 10), page.getContent().stream().map(User::getId).toList());
+        assertEquals(12, page.getTotalElements());
+    }
+
+    @Test
+    void scatterFitsInTheMinimumConcurrencyLimit() {
+        // El mínimo configurado (1) sube hasta el número de shards.
+        assertEquals(shardTemplate.shardCount(), limiter.getLimit());
+
+        assertEquals(saved.size(), service.findAll().size());
+        assertEquals(5, service.findAll(PageRequest.of(0, 5), false).getContent().size());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void loginReadsOnlyTheUsersShard() {
+        User user = saved.stream()
+                .filter(u -> shardTemplate.shardForUserName(u.getUserName()) != ShardTemplate.DEFAULT_SHARD)
+                .findFirst()
+                .orElseThrow();
+
+        UserDetails details = userDetailsService.loadUserByUsername(user.getUserName());
+
+        assertEquals(user.getUserName(), details.getUsername());
+        assertTrue(details.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+    }
+
+    @Test
+    void renameToAnotherShardIsRejected() {
+        User user = saved.get(0);
+        int shard = shardTemplate.shardForUserName(user.getUserName());
+        String otherName = "otro0";
+        for (int i = 1; shardTemplate.shardForUserName(otherName) == shard; i++) {
+            otherName = "otro" + i;
+        }
+        UserPatchRequest patch = new UserPatchRequest();
+        patch.setUserName(otherName);
+
+        assertThrows(UserShardConflictException.class, () -> service.patch(patch, user.getId()));
+    }
+}
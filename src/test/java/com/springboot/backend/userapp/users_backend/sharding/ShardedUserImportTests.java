@@ -0,0 +1,96 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.springboot.backend.userapp.users_backend.entities.ImportJob;
+import com.springboot.backend.userapp.users_backend.imports.UserImportFormat;
+import com.springboot.backend.userapp.users_backend.imports.UserImportService;
+
+// Importación con dos shards cuando la transacción del shard por defecto falla después de que
+// otro shard haya confirmado sus filas del mismo lote: al reanudar no se duplican.
+@SpringBootTest(properties = {
+        "users.import.batch-size=3",
+        "users.sharding.enabled=true",
+        "users.sharding.shards[0].url=jdbc:h2:mem:import-shard0;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[0].username=sa",
+        "users.sharding.shards[1].url=jdbc:h2:mem:import-shard1;DB_CLOSE_DELAY=-1",
+        "users.sharding.shards[1].username=sa" })
+class ShardedUserImportTests {
+
+    private static final String HEADER = "name,lastName,email,userName,password,admin";
+
+    @Autowired
+    private UserImportService service;
+
+    @Autowired
+    private ShardTemplate shardTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resumeDoesNotReinsertRowsCommittedOnAnotherShard() {
+        String remote = userNameOnShard(1, "remoto");
+        String local = userNameOnShard(ShardTemplate.DEFAULT_SHARD, "local");
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (int i = 0; i < 3; i++) {
+            lines.add(row("primero" + i));
+        }
+        // Segundo lote: una fila en cada shard y una inválida, cuyo error se guarda en el shard por defecto.
+        lines.add(row(remote));
+        lines.add(row(local));
+        lines.add("Mal,Email,no-es-un-email,malemail,12345,false");
+        byte[] file = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+
+        // Sin la tabla de errores falla la transacción del shard por defecto del segundo lote,
+        // cuando la del shard 1 ya ha confirmado su fila.
+        jdbcTemplate.execute("alter table import_row_errors rename to import_row_errors_off");
+        ImportJob failed;
+        try {
+            failed = service.importUsers("multishard", UserImportFormat.CSV, new ByteArrayInputStream(file));
+        } finally {
+            jdbcTemplate.execute("alter table import_row_errors_off rename to import_row_errors");
+        }
+        assertEquals(ImportJob.Status.FAILED, failed.getStatus());
+        assertEquals(4, failed.getCommittedLine());
+        assertEquals(1, countOnShard(1, remote));
+
+        ImportJob resumed = service.importUsers("multishard", UserImportFormat.CSV, new ByteArrayInputStream(file));
+
+        assertEquals(ImportJob.Status.COMPLETED, resumed.getStatus());
+        assertEquals(7, resumed.getCommittedLine());
+        assertEquals(5, resumed.getImportedRows());
+        assertEquals(1, resumed.getFailedRows());
+        assertEquals(1, countOnShard(1, remote));
+        assertEquals(1, countOnShard(ShardTemplate.DEFAULT_SHARD, local));
+    }
+
+    private String userNameOnShard(int shard, String prefix) {
+        for (int i = 0;; i++) {
+            String userName = prefix + i;
+            if (shardTemplate.shardForUserName(userName) == shard) {
+                return userName;
+            }
+        }
+    }
+
+    private long countOnShard(int shard, String userName) {
+        return shardTemplate.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "select count(*) from users where userName = ?", Long.class, userName));
+    }
+
+    private static String row(String userName) {
+        return "Nombre,Apellido," + userName + "@correo.com," + userName + ",12345,false";
+    }
+}
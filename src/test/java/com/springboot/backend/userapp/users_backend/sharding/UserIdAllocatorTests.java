@@ -0,0 +1,64 @@
+package com.springboot.backend.userapp.users_backend.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+// Los ids llevan el shard en el resto de dividir entre ShardedIds.MAX_SHARDS y empiezan por
+// encima del mayor id existente. Un lote mayor que el bloque se reserva de una sola vez.
+class UserIdAllocatorTests {
+
+    private DriverManagerDataSource dataSource;
+
+    @BeforeEach
+    void createTables() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:id-allocator;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("drop all objects");
+        jdbc.execute("create table users (id bigint primary key)");
+        jdbc.execute("create table user_id_blocks (shard_id int primary key, next_value bigint not null)");
+        jdbc.update("insert into users (id) values (41)");
+    }
+
+    @Test
+    void shardedIdsEncodeTheirShard() {
+        UserIdAllocator allocator = new UserIdAllocator(List.of(dataSource), 4);
+
+        long first = allocator.nextId(ShardTemplate.DEFAULT_SHARD);
+
+        assertEquals(ShardedIds.compose(41 / ShardedIds.MAX_SHARDS + 1, ShardTemplate.DEFAULT_SHARD), first);
+        assertEquals(first + ShardedIds.MAX_SHARDS, allocator.nextId(ShardTemplate.DEFAULT_SHARD));
+    }
+
+    @Test
+    void batchLargerThanTheBlockIsReservedOnce() throws SQLException {
+        AtomicInteger reservations = new AtomicInteger();
+        DataSource counting = new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                reservations.incrementAndGet();
+                return super.getConnection();
+            }
+        };
+        UserIdAllocator allocator = new UserIdAllocator(List.of(counting), 4);
+
+        long first = allocator.nextId(ShardTemplate.DEFAULT_SHARD);
+        long[] batch = allocator.nextIds(ShardTemplate.DEFAULT_SHARD, 10);
+
+        assertEquals(2, reservations.get());
+        for (int i = 0; i < batch.length; i++) {
+            assertEquals(first + (i + 1L) * ShardedIds.MAX_SHARDS, batch[i]);
+        }
+    }
+}
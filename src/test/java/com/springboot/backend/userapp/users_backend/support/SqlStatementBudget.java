@@ -0,0 +1,32 @@
+package com.springboot.backend.userapp.users_backend.support;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.springboot.backend.userapp.users_backend.metrics.SqlStatementCountFilter;
+
+// Presupuesto de sentencias SQL para los tests de integración con MockMvc.
+// Uso: mvc.perform(get("/api/users/page/0")).andExpect(SqlStatementBudget.atMost(3));
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    public static ResultMatcher atMost(int maxStatements) {
+        return result -> {
+            AtomicInteger counter = (AtomicInteger) result.getRequest()
+                    .getAttribute(SqlStatementCountFilter.COUNTER_ATTRIBUTE);
+            assertNotNull(counter, "La petición no ha pasado por SqlStatementCountFilter");
+            int executed = counter.get();
+            if (executed > maxStatements) {
+                fail(String.format("%s %s ejecutó %d sentencias SQL (presupuesto: %d)",
+                        result.getRequest().getMethod(), result.getRequest().getRequestURI(), executed,
+                        maxStatements));
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.springboot.backend.userapp.users_backend.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.springboot.backend.userapp.users_backend.entities.User;
+import com.springboot.backend.userapp.users_backend.services.UserService;
+
+// Usuarios de prueba para los tests de integración.
+// Uso: List<User> saved = TestUsers.seed(service, "user", 8, true);
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    // Guarda con UserService (roles, eventos y auditoría como un alta real) los usuarios
+    // prefix0..prefix(count-1), con email prefixN@correo.com y contraseña 12345.
+    // Con firstIsAdmin el primero es administrador. Devuelve los guardados, en orden.
+    public static List<User> seed(UserService service, String prefix, int count, boolean firstIsAdmin) {
+        List<User> saved = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = user(prefix + i);
+            user.setName("Nombre" + i);
+            user.setLastName("Apellido" + i);
+            user.setAdmin(firstIsAdmin && i == 0);
+            saved.add(service.save(user));
+        }
+        return saved;
+    }
+
+    // Usuario sin guardar con email userName@correo.com y contraseña 12345.
+    public static User user(String userName) {
+        User user = new User();
+        user.setName("Nombre");
+        user.setLastName("Apellido");
+        user.setEmail(userName + "@correo.com");
+        user.setUserName(userName);
+        user.setPassword("12345");
+        return user;
+    }
+}
@@ -0,0 +1,92 @@
+package com.springboot.backend.userapp.users_backend.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockReset;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.springboot.backend.userapp.users_backend.services.UserService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Mientras se calienta, el nodo no acepta tráfico (readiness en REFUSING_TRAFFIC); al terminar
+// pasa a ACCEPTING_TRAFFIC y la duración queda en users.warmup.duration. El count(*) exacto
+// se lanza una sola vez aunque haya varias iteraciones.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+        "users.warmup.iterations=20" })
+class WarmUpRunnerTests {
+
+    // Estado de readiness visto por cada cifrado hecho durante el arranque (solo los hace el calentamiento).
+    private static final List<ReadinessState> seenWhileWarmingUp = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class ObservingPasswordEncoderConfig {
+
+        @Bean
+        @Primary
+        PasswordEncoder observingPasswordEncoder(ObjectProvider<ApplicationAvailability> availability) {
+            return new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    seenWhileWarmingUp.add(availability.getObject().getReadinessState());
+                    return "hash:" + rawPassword;
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    return encodedPassword.equals("hash:" + rawPassword);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Sin reset: las llamadas que interesan son las del arranque, antes del primer test.
+    @SpyBean(reset = MockReset.NONE)
+    private UserService service;
+
+    @Test
+    void refusesTrafficUntilWarmUpHasFinished() {
+        assertFalse(seenWhileWarmingUp.isEmpty(), "El calentamiento no ha cifrado ninguna contraseña");
+        seenWhileWarmingUp.forEach(state -> assertEquals(ReadinessState.REFUSING_TRAFFIC, state));
+
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        Timer duration = registry.find("users.warmup.duration").timer();
+        assertNotNull(duration, "No se ha registrado users.warmup.duration");
+        assertEquals(1, duration.count());
+    }
+
+    @Test
+    void exactCountRunsOnceWhileTheLoopUsesTheApproximateTotal() {
+        verify(service, times(1)).findAll(any(Pageable.class), eq(true));
+        verify(service, atLeast(20)).findAll(any(Pageable.class), eq(false));
+    }
+}